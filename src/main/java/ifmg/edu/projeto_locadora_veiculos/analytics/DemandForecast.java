@@ -0,0 +1,262 @@
+package ifmg.edu.projeto_locadora_veiculos.analytics;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.DemandForecastDTO;
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+import static ifmg.edu.projeto_locadora_veiculos.services.TransactionCallbacks.afterCommit;
+
+/**
+ * Previsão de demanda diária (veículos reservados por dia, UTC) por marca/modelo. Cada
+ * modelo guarda, por dia da semana, uma média com peso exponencial por semana
+ * ({@code decay} por semana de idade) dos dias já encerrados, e a contagem dos dias ainda
+ * abertos. A cada virada de dia o dia encerrado entra na média em O(1); uma reserva que
+ * muda um dia já encerrado corrige a média com o peso daquela semana, sem reler nada.
+ * <p>
+ * A previsão de um dia futuro é o maior valor entre o já reservado e a média do dia da
+ * semana. Trocas de marca ou modelo nos cadastros entram na reconstrução diária; as reservas
+ * confirmadas enquanto ela lê o banco são guardadas e reaplicadas nas séries novas.
+ */
+@Slf4j
+@Component
+public class DemandForecast {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${locadora.forecast.decay:0.8}")
+    private double decay;
+
+    @Value("${locadora.forecast.history-weeks:52}")
+    private int historyWeeks;
+
+    @Value("${locadora.reservation.max-duration-days:365}")
+    private long maxDurationDays;
+
+    private record Delta(ModelKey key, Instant start, Instant end, int delta) {
+    }
+
+    private Map<ModelKey, Series> series = new HashMap<>();
+    // Último dia (epoch day) já incorporado às médias
+    private long closedThrough = today() - 1;
+    // Alterações desde o início da reconstrução em curso; null fora dela
+    private List<Delta> pending;
+    private final Object rebuildLock = new Object();
+
+    record ModelKey(String brand, String model) implements Comparable<ModelKey> {
+
+        static ModelKey of(Vehicle vehicle) {
+            return new ModelKey(Objects.toString(vehicle.getBrand(), ""), Objects.toString(vehicle.getModel(), ""));
+        }
+
+        @Override
+        public int compareTo(ModelKey other) {
+            int byBrand = brand.compareToIgnoreCase(other.brand);
+            return byBrand != 0 ? byBrand : model.compareToIgnoreCase(other.model);
+        }
+    }
+
+    private static final class Series {
+        // Soma ponderada e soma dos pesos por dia da semana (0 = segunda)
+        final double[] weighted = new double[7];
+        final double[] weights = new double[7];
+        // Reservados por dia ainda não encerrado
+        final Map<Long, Integer> open = new HashMap<>();
+
+        double mean(int dayOfWeek) {
+            return weights[dayOfWeek] == 0 ? 0 : weighted[dayOfWeek] / weights[dayOfWeek];
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /** Relê o histórico de {@code history-weeks} semanas e as reservas futuras. */
+    @Scheduled(cron = "${locadora.forecast.rebuild-cron:0 15 0 * * *}", zone = "UTC")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long today = today();
+            long first = today - 7L * historyWeeks;
+            Map<ModelKey, Series> rebuilt = new HashMap<>();
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+
+            try {
+                TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                readOnly.setReadOnly(true);
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<Object[]> rows = reservationRepository.streamForecastRows(
+                            instantOf(first), instantOf(first).minus(Duration.ofDays(maxDurationDays)))) {
+                        rows.forEach(row -> {
+                            Series target = rebuilt.computeIfAbsent(new ModelKey(
+                                    Objects.toString(row[0], ""), Objects.toString(row[1], "")), key -> new Series());
+                            forEachDay((Instant) row[2], (Instant) row[3], first, day -> target.open.merge(day, 1, Integer::sum));
+                        });
+                    }
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+
+            // Encerra os dias do histórico em ordem, do mais antigo para ontem
+            for (Series target : rebuilt.values()) {
+                for (long day = first; day < today; day++) {
+                    close(target, day);
+                }
+            }
+
+            synchronized (this) {
+                series = rebuilt;
+                closedThrough = today - 1;
+                // A leitura pode não ter visto essas alterações, já aplicadas só nas séries antigas
+                pending.forEach(d -> applyDelta(d.key(), d.start(), d.end(), d.delta()));
+                pending = null;
+            }
+            log.info("Previsão de demanda reconstruída: {} modelos", rebuilt.size());
+        }
+    }
+
+    /** Conta os dias da reserva para o modelo do veículo, depois do commit. */
+    public void added(Reservation reservation) {
+        ModelKey key = ModelKey.of(reservation.getVehicle());
+        Instant start = reservation.getStartDate();
+        Instant end = reservation.getEndDate();
+        afterCommit(() -> apply(key, start, end, 1));
+    }
+
+    /** Desconta os dias de uma reserva do veículo com as datas informadas, depois do commit. */
+    public void removed(Vehicle vehicle, Instant start, Instant end) {
+        ModelKey key = ModelKey.of(vehicle);
+        afterCommit(() -> apply(key, start, end, -1));
+    }
+
+    /**
+     * Demanda prevista para cada dia de hoje até {@code weeks} semanas à frente, por modelo.
+     * Filtros nulos ou vazios não restringem.
+     */
+    public synchronized List<DemandForecastDTO> forecast(int weeks, String brand, String model) {
+        long today = today();
+        roll(today);
+        List<ModelKey> keys = new ArrayList<>(series.keySet());
+        keys.sort(Comparator.naturalOrder());
+
+        List<DemandForecastDTO> result = new ArrayList<>();
+        for (ModelKey key : keys) {
+            if (!matches(brand, key.brand()) || !matches(model, key.model())) {
+                continue;
+            }
+            Series target = series.get(key);
+            List<DemandForecastDTO.Day> days = new ArrayList<>(weeks * 7);
+            for (long day = today; day < today + 7L * weeks; day++) {
+                int booked = target.open.getOrDefault(day, 0);
+                double expected = Math.max(booked, target.mean(dayOfWeek(day)));
+                days.add(new DemandForecastDTO.Day(LocalDate.ofEpochDay(day), booked, Math.round(expected * 10) / 10.0));
+            }
+            result.add(new DemandForecastDTO(key.brand(), key.model(), days));
+        }
+        return result;
+    }
+
+    private synchronized void apply(ModelKey key, Instant start, Instant end, int delta) {
+        if (pending != null) {
+            pending.add(new Delta(key, start, end, delta));
+        }
+        applyDelta(key, start, end, delta);
+    }
+
+    private void applyDelta(ModelKey key, Instant start, Instant end, int delta) {
+        if (start == null || end == null) {
+            return;
+        }
+        long today = today();
+        roll(today);
+        long first = today - 7L * historyWeeks;
+        Series target = series.computeIfAbsent(key, k -> new Series());
+        forEachDay(start, end, first, day -> {
+            if (day > closedThrough) {
+                if (target.open.merge(day, delta, Integer::sum) == 0) {
+                    target.open.remove(day);
+                }
+            } else {
+                // Dia já na média: o peso é decay^k, k = semanas desde aquele dia da semana
+                long weeksAgo = (closedThrough - day) / 7;
+                target.weighted[dayOfWeek(day)] += Math.pow(decay, weeksAgo) * delta;
+            }
+        });
+    }
+
+    // Encerra os dias entre o último encerrado e ontem
+    private void roll(long today) {
+        while (closedThrough < today - 1) {
+            long day = ++closedThrough;
+            series.values().forEach(target -> close(target, day));
+        }
+    }
+
+    private void close(Series target, long day) {
+        int dayOfWeek = dayOfWeek(day);
+        Integer booked = target.open.remove(day);
+        target.weighted[dayOfWeek] = decay * target.weighted[dayOfWeek] + (booked == null ? 0 : booked);
+        target.weights[dayOfWeek] = decay * target.weights[dayOfWeek] + 1;
+    }
+
+    // Dias tocados pelo período a partir de "first"; o fim é exclusivo
+    private static void forEachDay(Instant start, Instant end, long first, LongConsumer action) {
+        long from = Math.max(first, Math.floorDiv(start.getEpochSecond(), SECONDS_PER_DAY));
+        long to = Math.floorDiv(end.minusNanos(1).getEpochSecond(), SECONDS_PER_DAY);
+        for (long day = from; day <= to; day++) {
+            action.accept(day);
+        }
+    }
+
+    private static boolean matches(String filter, String value) {
+        return filter == null || filter.isBlank() || filter.equalsIgnoreCase(value);
+    }
+
+    private static int dayOfWeek(long epochDay) {
+        // 1970-01-01 foi quinta-feira
+        return (int) Math.floorMod(epochDay + 3, 7);
+    }
+
+    private static long today() {
+        return LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+
+    private static Instant instantOf(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+}
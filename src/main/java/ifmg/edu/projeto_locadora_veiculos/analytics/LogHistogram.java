@@ -0,0 +1,137 @@
+package ifmg.edu.projeto_locadora_veiculos.analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma log-linear no estilo HDR para valores inteiros não negativos: abaixo de 128
+ * cada valor tem sua posição; acima, cada potência de dois é dividida em 64 faixas iguais,
+ * o que dá erro relativo de no máximo 1/64. A memória é fixa e os contadores aceitam
+ * gravação e remoção concorrentes.
+ */
+public final class LogHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF = SUB_COUNT >> 1;
+
+    private final long maxValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    /** @param maxValue maior valor guardado sem corte; valores acima contam como ele */
+    public LogHistogram(long maxValue) {
+        this.maxValue = Math.max(SUB_COUNT, maxValue);
+        this.counts = new AtomicLongArray(indexOf(this.maxValue) + 1);
+    }
+
+    public void record(long value) {
+        add(value, 1);
+    }
+
+    public void remove(long value) {
+        add(value, -1);
+    }
+
+    private void add(long value, int delta) {
+        long clamped = Math.min(Math.max(0, value), maxValue);
+        counts.addAndGet(indexOf(clamped), delta);
+        total.addAndGet(delta);
+        sum.addAndGet(delta * clamped);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = Math.max(0, counts.get(i));
+        }
+        return new Snapshot(copy, Math.max(0, total.get()), Math.max(0, sum.get()));
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS + 1;
+        int sub = (int) (value >>> shift) - HALF;
+        return SUB_COUNT + (exponent - SUB_BITS) * HALF + sub;
+    }
+
+    static long lowestOf(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int exponent = (index - SUB_COUNT) / HALF + SUB_BITS;
+        int sub = (index - SUB_COUNT) % HALF + HALF;
+        return (long) sub << (exponent - SUB_BITS + 1);
+    }
+
+    static long highestOf(int index) {
+        return lowestOf(index + 1) - 1;
+    }
+
+    static long middleOf(int index) {
+        long lowest = lowestOf(index);
+        return lowest + (highestOf(index) - lowest) / 2;
+    }
+
+    /** Cópia dos contadores num instante, para calcular percentis sem travar as gravações. */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long total;
+        private final long sum;
+
+        private Snapshot(long[] counts, long total, long sum) {
+            this.counts = counts;
+            this.total = total;
+            this.sum = sum;
+        }
+
+        public long count() {
+            return total;
+        }
+
+        public double mean() {
+            return total == 0 ? 0 : (double) sum / total;
+        }
+
+        /** Valor do meio da faixa onde cai o percentil (0 a 100). */
+        public long percentile(double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return middleOf(i);
+                }
+            }
+            return middleOf(counts.length - 1);
+        }
+
+        /**
+         * Quantidade de valores em cada intervalo [limits[i-1], limits[i]); o primeiro começa
+         * em 0 e o último não tem fim. Cada faixa do histograma conta pelo seu menor valor.
+         */
+        public long[] bucketed(long[] limits) {
+            long[] result = new long[limits.length + 1];
+            int bucket = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                long lowest = lowestOf(i);
+                while (bucket < limits.length && lowest >= limits[bucket]) {
+                    bucket++;
+                }
+                result[bucket] += counts[i];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package ifmg.edu.projeto_locadora_veiculos.analytics;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.CubeRowDTO;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static ifmg.edu.projeto_locadora_veiculos.services.TransactionCallbacks.afterCommit;
+
+/**
+ * Cubo de análise das reservas em memória, guardado em colunas: cada dimensão (marca,
+ * modelo, ano, cor, cidade do cliente e mês de início) é um vetor de códigos de um
+ * dicionário e a receita é um vetor de {@code long}. As linhas ficam em blocos de tamanho
+ * fixo e as consultas agregam os blocos em paralelo.
+ * <p>
+ * A carga completa lê a tabela em páginas por id; depois disso só as reservas com
+ * {@code updatedAt} recente são relidas e atualizadas no lugar. Alterações de marca, cor
+ * ou cidade nos cadastros só aparecem na próxima carga completa. Reservas removidas ou
+ * arquivadas saem do cubo depois do commit.
+ */
+@Slf4j
+@Component
+public class ReservationCube {
+
+    public enum Dimension {
+        BRAND, MODEL, YEAR, COLOR, CITY, MONTH;
+
+        public String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    private static final Dimension[] DIMENSIONS = Dimension.values();
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneOffset.UTC);
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${locadora.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locadora.analytics.chunk-size:16384}")
+    private int chunkSize;
+
+    @Value("${locadora.analytics.page-size:5000}")
+    private int pageSize;
+
+    // Reservas gravadas por transações que ainda não tinham feito commit na leitura anterior
+    @Value("${locadora.analytics.lag-ms:5000}")
+    private long lagMs;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Store store;
+    private Instant watermark = Instant.EPOCH;
+    // Removidas desde o início da leitura em andamento, que pode ter visto a linha antes do commit
+    private final Set<Long> evicted = new HashSet<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${locadora.analytics.refresh-ms:5000}",
+            initialDelayString = "${locadora.analytics.refresh-ms:5000}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${locadora.analytics.rebuild-ms:3600000}",
+            initialDelayString = "${locadora.analytics.rebuild-ms:3600000}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        startLoad();
+        Instant started = Instant.now();
+        Store next = new Store(chunkSize);
+        TransactionTemplate transaction = readOnlyTransaction();
+        long afterId = 0;
+        List<Object[]> page;
+        do {
+            long from = afterId;
+            page = transaction.execute(status -> reservationRepository.findCubeRowsAfterId(from, PageRequest.of(0, pageSize)));
+            page.forEach(next::upsert);
+            if (!page.isEmpty()) {
+                afterId = (Long) page.get(page.size() - 1)[0];
+            }
+        } while (page.size() == pageSize);
+
+        lock.writeLock().lock();
+        try {
+            evicted.forEach(next::remove);
+            store = next;
+            watermark = started;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Cubo de reservas carregado: {} linhas", next.positions.size());
+    }
+
+    /** Relê as reservas alteradas desde a última leitura e atualiza as linhas no lugar. */
+    public synchronized void refresh() {
+        if (store == null) {
+            rebuild();
+            return;
+        }
+        startLoad();
+        TransactionTemplate transaction = readOnlyTransaction();
+        Instant after = watermark.minus(Duration.ofMillis(lagMs));
+        long afterId = 0;
+        Instant newest = watermark;
+        List<Object[]> page;
+        do {
+            Instant fromTime = after;
+            long fromId = afterId;
+            page = transaction.execute(status ->
+                    reservationRepository.findCubeRowsUpdatedAfter(fromTime, fromId, PageRequest.of(0, pageSize)));
+            if (page.isEmpty()) {
+                break;
+            }
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : page) {
+                    if (!evicted.contains((Long) row[0])) {
+                        store.upsert(row);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Object[] last = page.get(page.size() - 1);
+            after = (Instant) last[8];
+            afterId = (Long) last[0];
+            if (after.isAfter(newest)) {
+                newest = after;
+            }
+        } while (page.size() == pageSize);
+        watermark = newest;
+    }
+
+    /** Tira a reserva do cubo. Dentro de uma transação, só depois do commit. */
+    public void evict(long reservationId) {
+        evictAll(List.of(reservationId));
+    }
+
+    public void evictAll(Collection<Long> reservationIds) {
+        if (!enabled || reservationIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(reservationIds);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                evicted.addAll(ids);
+                if (store != null) {
+                    ids.forEach(store::remove);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Agrupa reservas e receita pelas dimensões pedidas, considerando só as linhas cujos
+     * valores estão nos filtros. Cada bloco é agregado numa tarefa do pool comum e os
+     * resultados parciais são somados no fim. Ordena pela receita, maior primeiro.
+     */
+    public List<CubeRowDTO> query(List<Dimension> groupBy, Map<Dimension, ? extends Collection<String>> filters) {
+        lock.readLock().lock();
+        try {
+            if (store == null) {
+                return List.of();
+            }
+            Dictionary[] dictionaries = store.dictionaries;
+
+            boolean[][] allowed = new boolean[DIMENSIONS.length][];
+            filters.forEach((dimension, values) -> {
+                Dictionary dictionary = dictionaries[dimension.ordinal()];
+                boolean[] mask = new boolean[dictionary.size()];
+                for (String value : values) {
+                    Integer code = dictionary.codes.get(value);
+                    if (code != null) {
+                        mask[code] = true;
+                    }
+                }
+                allowed[dimension.ordinal()] = mask;
+            });
+
+            int[] dims = groupBy.stream().mapToInt(Dimension::ordinal).toArray();
+            int[] shifts = new int[dims.length];
+            int[] bits = new int[dims.length];
+            int totalBits = 0;
+            for (int i = 0; i < dims.length; i++) {
+                bits[i] = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(0, dictionaries[dims[i]].size() - 1)));
+                shifts[i] = totalBits;
+                totalBits += bits[i];
+            }
+            if (totalBits > 63) {
+                throw new IllegalArgumentException("Combinação de dimensões com valores demais para agrupar");
+            }
+
+            Map<Long, long[]> totals = store.chunks.parallelStream()
+                    .map(chunk -> chunk.aggregate(allowed, dims, shifts))
+                    .reduce(ReservationCube::merge)
+                    .orElseGet(HashMap::new);
+
+            List<CubeRowDTO> rows = new ArrayList<>(totals.size());
+            totals.forEach((key, total) -> {
+                Map<String, String> group = new LinkedHashMap<>();
+                for (int i = 0; i < dims.length; i++) {
+                    int code = (int) ((key >>> shifts[i]) & ((1L << bits[i]) - 1));
+                    group.put(DIMENSIONS[dims[i]].key(), dictionaries[dims[i]].values.get(code));
+                }
+                rows.add(new CubeRowDTO(group, total[0], total[1]));
+            });
+            rows.sort(Comparator.comparingLong(CubeRowDTO::getRevenueCents).reversed()
+                    .thenComparing(Comparator.comparingLong(CubeRowDTO::getBookings).reversed()));
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<Long, long[]> merge(Map<Long, long[]> a, Map<Long, long[]> b) {
+        Map<Long, long[]> into = a.size() >= b.size() ? a : b;
+        Map<Long, long[]> from = into == a ? b : a;
+        from.forEach((key, total) -> into.merge(key, total, (x, y) -> {
+            x[0] += y[0];
+            x[1] += y[1];
+            return x;
+        }));
+        return into;
+    }
+
+    // Remoções confirmadas antes desta leitura já não aparecem no banco
+    private void startLoad() {
+        lock.writeLock().lock();
+        try {
+            evicted.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    private static final class Chunk {
+        private final long[] ids;
+        private final int[][] codes;
+        private final long[] revenue;
+        private final long[] live;
+        private int size;
+
+        Chunk(int capacity) {
+            ids = new long[capacity];
+            codes = new int[DIMENSIONS.length][capacity];
+            revenue = new long[capacity];
+            live = new long[(capacity + 63) >>> 6];
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+
+        void setLive(int offset, boolean value) {
+            if (value) {
+                live[offset >>> 6] |= 1L << offset;
+            } else {
+                live[offset >>> 6] &= ~(1L << offset);
+            }
+        }
+
+        Map<Long, long[]> aggregate(boolean[][] allowed, int[] dims, int[] shifts) {
+            Map<Long, long[]> totals = new HashMap<>();
+            rows:
+            for (int i = 0; i < size; i++) {
+                if ((live[i >>> 6] & (1L << i)) == 0) {
+                    continue;
+                }
+                for (int d = 0; d < allowed.length; d++) {
+                    if (allowed[d] != null && !allowed[d][codes[d][i]]) {
+                        continue rows;
+                    }
+                }
+                long key = 0;
+                for (int g = 0; g < dims.length; g++) {
+                    key |= (long) codes[dims[g]][i] << shifts[g];
+                }
+                long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+                total[0]++;
+                total[1] += revenue[i];
+            }
+            return totals;
+        }
+    }
+
+    // Linhas por id da reserva; uma reserva removida deixa a posição vazia até a próxima carga completa
+    private static final class Store {
+        private final int chunkSize;
+        private final List<Chunk> chunks = new ArrayList<>();
+        private final Map<Long, Integer> positions = new HashMap<>();
+        private final Dictionary[] dictionaries = new Dictionary[DIMENSIONS.length];
+
+        Store(int chunkSize) {
+            this.chunkSize = chunkSize;
+            for (int i = 0; i < dictionaries.length; i++) {
+                dictionaries[i] = new Dictionary();
+            }
+        }
+
+        // Colunas da linha: id, marca, modelo, ano, cor, cidade, início, total, updatedAt
+        void upsert(Object[] row) {
+            long id = (Long) row[0];
+            Integer position = positions.get(id);
+            Chunk chunk;
+            int offset;
+            if (position == null) {
+                if (chunks.isEmpty() || chunks.get(chunks.size() - 1).isFull()) {
+                    chunks.add(new Chunk(chunkSize));
+                }
+                chunk = chunks.get(chunks.size() - 1);
+                offset = chunk.size++;
+                positions.put(id, (chunks.size() - 1) * chunkSize + offset);
+            } else {
+                chunk = chunks.get(position / chunkSize);
+                offset = position % chunkSize;
+            }
+
+            chunk.ids[offset] = id;
+            for (int d = 0; d < Dimension.MONTH.ordinal(); d++) {
+                chunk.codes[d][offset] = dictionaries[d].code((String) row[d + 1]);
+            }
+            int month = Dimension.MONTH.ordinal();
+            chunk.codes[month][offset] = dictionaries[month].code(MONTH.format((Instant) row[6]));
+            chunk.revenue[offset] = ((Number) row[7]).longValue();
+            chunk.setLive(offset, true);
+        }
+
+        void remove(long id) {
+            Integer position = positions.remove(id);
+            if (position != null) {
+                chunks.get(position / chunkSize).setLive(position % chunkSize, false);
+            }
+        }
+    }
+}
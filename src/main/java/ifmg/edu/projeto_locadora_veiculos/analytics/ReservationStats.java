@@ -0,0 +1,178 @@
+package ifmg.edu.projeto_locadora_veiculos.analytics;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationStatsDTO;
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static ifmg.edu.projeto_locadora_veiculos.services.TransactionCallbacks.afterCommit;
+
+/**
+ * Distribuição da duração das reservas e da antecedência (de {@code createdAt} até
+ * {@code startDate}) em dois {@link LogHistogram}s, em minutos. Cada gravação de reserva
+ * atualiza os histogramas depois do commit; a reconstrução lê a tabela num cursor e troca
+ * os histogramas de uma vez. As alterações confirmadas enquanto o cursor corre são guardadas
+ * e reaplicadas nos histogramas novos antes da troca; uma confirmada no instante em que a
+ * reconstrução começa pode contar duas vezes até a próxima. Reservas arquivadas ou apagadas
+ * por outras instâncias só saem da contagem na próxima reconstrução.
+ */
+@Slf4j
+@Component
+public class ReservationStats {
+
+    // Dois anos em minutos; valores maiores contam no limite
+    private static final long MAX_MINUTES = Duration.ofDays(731).toMinutes();
+    private static final long DAY = Duration.ofDays(1).toMinutes();
+    private static final long[] DURATION_LIMITS = {DAY, 2 * DAY, 3 * DAY, 7 * DAY, 14 * DAY, 30 * DAY};
+    private static final long[] LEAD_TIME_LIMITS = {DAY, 3 * DAY, 7 * DAY, 14 * DAY, 30 * DAY, 90 * DAY};
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Reserva contada ou descontada depois do commit
+    private record Delta(Instant createdAt, Instant start, Instant end, boolean added) {
+    }
+
+    private volatile LogHistogram duration = new LogHistogram(MAX_MINUTES);
+    private volatile LogHistogram leadTime = new LogHistogram(MAX_MINUTES);
+
+    private final Object deltaLock = new Object();
+    // Alterações desde o início da reconstrução em curso; null fora dela
+    private List<Delta> pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /** Relê todas as reservas e substitui os histogramas. */
+    public synchronized void rebuild() {
+        LogHistogram newDuration = new LogHistogram(MAX_MINUTES);
+        LogHistogram newLeadTime = new LogHistogram(MAX_MINUTES);
+        synchronized (deltaLock) {
+            pending = new ArrayList<>();
+        }
+
+        long rows;
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            rows = readOnly.execute(status -> {
+                long count = 0;
+                try (Stream<Object[]> stream = reservationRepository.streamStatsRows()) {
+                    for (Object[] row : (Iterable<Object[]>) stream::iterator) {
+                        apply(newDuration, newLeadTime, new Delta((Instant) row[0], (Instant) row[1], (Instant) row[2], true));
+                        count++;
+                    }
+                }
+                return count;
+            });
+        } catch (RuntimeException e) {
+            synchronized (deltaLock) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (deltaLock) {
+            // O cursor pode não ter visto essas alterações, já aplicadas só nos histogramas antigos
+            pending.forEach(delta -> apply(newDuration, newLeadTime, delta));
+            pending = null;
+            duration = newDuration;
+            leadTime = newLeadTime;
+        }
+        log.info("Estatísticas de reservas reconstruídas: {} reservas", rows);
+    }
+
+    /** Conta a reserva com os valores atuais, depois do commit. */
+    public void added(Reservation reservation) {
+        Instant createdAt = reservation.getCreatedAt();
+        Instant start = reservation.getStartDate();
+        Instant end = reservation.getEndDate();
+        afterCommit(() -> apply(new Delta(createdAt, start, end, true)));
+    }
+
+    /** Tira da contagem uma reserva com as datas informadas, depois do commit. */
+    public void removed(Instant createdAt, Instant start, Instant end) {
+        afterCommit(() -> apply(new Delta(createdAt, start, end, false)));
+    }
+
+    public ReservationStatsDTO stats() {
+        return new ReservationStatsDTO(
+                distribution(duration.snapshot(), DURATION_LIMITS),
+                distribution(leadTime.snapshot(), LEAD_TIME_LIMITS));
+    }
+
+    private void apply(Delta delta) {
+        synchronized (deltaLock) {
+            if (pending != null) {
+                pending.add(delta);
+            }
+            apply(duration, leadTime, delta);
+        }
+    }
+
+    private static void apply(LogHistogram duration, LogHistogram leadTime, Delta delta) {
+        if (delta.start() != null && delta.end() != null) {
+            long minutes = minutesBetween(delta.start(), delta.end());
+            if (delta.added()) {
+                duration.record(minutes);
+            } else {
+                duration.remove(minutes);
+            }
+        }
+        // Reservas anteriores à coluna createdAt não entram na antecedência
+        if (delta.createdAt() != null && delta.start() != null) {
+            long minutes = minutesBetween(delta.createdAt(), delta.start());
+            if (delta.added()) {
+                leadTime.record(minutes);
+            } else {
+                leadTime.remove(minutes);
+            }
+        }
+    }
+
+    private static long minutesBetween(Instant from, Instant to) {
+        return Math.max(0, Duration.between(from, to).toMinutes());
+    }
+
+    private static ReservationStatsDTO.Distribution distribution(LogHistogram.Snapshot snapshot, long[] limits) {
+        long[] counts = snapshot.bucketed(limits);
+        List<ReservationStatsDTO.Bucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            Double from = hours(i == 0 ? 0 : limits[i - 1]);
+            Double to = i < limits.length ? hours(limits[i]) : null;
+            buckets.add(new ReservationStatsDTO.Bucket(from, to, counts[i]));
+        }
+        return new ReservationStatsDTO.Distribution(
+                snapshot.count(),
+                round(snapshot.mean() / 60),
+                hours(snapshot.percentile(50)),
+                hours(snapshot.percentile(90)),
+                hours(snapshot.percentile(99)),
+                buckets);
+    }
+
+    private static double hours(long minutes) {
+        return round(minutes / 60.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
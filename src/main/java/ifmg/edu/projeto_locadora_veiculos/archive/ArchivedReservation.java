@@ -0,0 +1,32 @@
+package ifmg.edu.projeto_locadora_veiculos.archive;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+
+import java.time.Instant;
+
+public record ArchivedReservation(
+        long id,
+        long clientId,
+        long vehicleId,
+        Instant startDate,
+        Instant endDate,
+        long dailyValueCents,
+        long totalValueCents,
+        Instant createdAt
+) {
+
+    public ArchivedReservation(Reservation reservation) {
+        this(reservation.getId(),
+                reservation.getClient().getId(),
+                reservation.getVehicle().getId(),
+                reservation.getStartDate(),
+                reservation.getEndDate(),
+                reservation.getDailyValueCents(),
+                reservation.getTotalValueCents(),
+                reservation.getCreatedAt());
+    }
+
+    public boolean overlaps(Instant start, Instant end) {
+        return !endDate.isBefore(start) && !startDate.isAfter(end);
+    }
+}
@@ -0,0 +1,306 @@
+package ifmg.edu.projeto_locadora_veiculos.archive;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Arquivo frio de reservas em disco local. Cada lote arquivado vira um bloco gzip
+ * anexado ao segmento atual; o índice guarda, por bloco, a posição no segmento, o
+ * intervalo de datas e os clientes presentes, para que as consultas só descompactem
+ * os blocos que podem conter o que foi pedido.
+ */
+@Slf4j
+@Component
+public class ReservationArchive {
+
+    private static final String INDEX_FILE = "index.bin";
+    private static final int FORMAT_VERSION = 1;
+    private static final long NULL_INSTANT = Long.MIN_VALUE;
+
+    @Value("${locadora.archive.dir:data/archive}")
+    private String directory;
+
+    @Value("${locadora.archive.segment-max-bytes:67108864}")
+    private long segmentMaxBytes;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int currentSegment = 1;
+
+    private record Chunk(int segment, long offset, int length, int count,
+                         long minStart, long maxEnd, long[] clientIds) {
+
+        boolean containsClient(long clientId) {
+            return Arrays.binarySearch(clientIds, clientId) >= 0;
+        }
+
+        boolean overlaps(Instant start, Instant end) {
+            return maxEnd >= start.getEpochSecond() && minStart <= end.getEpochSecond();
+        }
+    }
+
+    /**
+     * Uma queda durante a gravação pode deixar a última entrada do índice pela metade; ela
+     * é descartada e o arquivo truncado no fim da última entrada completa. O bloco que ela
+     * descrevia volta a ser arquivado, pois a remoção no banco não chegou a ser gravada.
+     */
+    @PostConstruct
+    public synchronized void load() throws IOException {
+        Path index = root().resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return;
+        }
+        long complete = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            while (true) {
+                Chunk chunk;
+                try {
+                    chunk = readIndexEntry(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                chunks.add(chunk);
+                complete += indexEntrySize(chunk);
+                currentSegment = Math.max(currentSegment, chunk.segment());
+            }
+        }
+        long size = Files.size(index);
+        if (complete < size) {
+            log.warn("Índice do arquivo de reservas com {} bytes incompletos no fim; descartados", size - complete);
+            try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+                channel.force(true);
+            }
+        }
+        log.info("Arquivo de reservas carregado: {} blocos em {}", chunks.size(), root());
+    }
+
+    private static Chunk readIndexEntry(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Versão de índice do arquivo de reservas não suportada: " + version);
+        }
+        int segment = in.readInt();
+        long offset = in.readLong();
+        int length = in.readInt();
+        int count = in.readInt();
+        long minStart = in.readLong();
+        long maxEnd = in.readLong();
+        long[] clientIds = new long[in.readInt()];
+        for (int i = 0; i < clientIds.length; i++) {
+            clientIds[i] = in.readLong();
+        }
+        return new Chunk(segment, offset, length, count, minStart, maxEnd, clientIds);
+    }
+
+    private static long indexEntrySize(Chunk chunk) {
+        return 44L + 8L * chunk.clientIds().length;
+    }
+
+    public synchronized void append(List<ArchivedReservation> reservations) throws IOException {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(root());
+
+        byte[] block = compress(reservations);
+        Path segmentPath = segmentPath(currentSegment);
+        if (Files.exists(segmentPath) && Files.size(segmentPath) + block.length > segmentMaxBytes) {
+            currentSegment++;
+            segmentPath = segmentPath(currentSegment);
+        }
+
+        long offset;
+        try (FileChannel channel = FileChannel.open(segmentPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            offset = channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(block);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        long minStart = Long.MAX_VALUE;
+        long maxEnd = Long.MIN_VALUE;
+        long[] clientIds = new long[reservations.size()];
+        for (int i = 0; i < reservations.size(); i++) {
+            ArchivedReservation r = reservations.get(i);
+            minStart = Math.min(minStart, r.startDate().getEpochSecond());
+            maxEnd = Math.max(maxEnd, r.endDate().getEpochSecond());
+            clientIds[i] = r.clientId();
+        }
+        clientIds = Arrays.stream(clientIds).sorted().distinct().toArray();
+
+        Chunk chunk = new Chunk(currentSegment, offset, block.length, reservations.size(), minStart, maxEnd, clientIds);
+        writeIndexEntry(chunk);
+        chunks.add(chunk);
+    }
+
+    public List<ArchivedReservation> findByClientId(long clientId) throws IOException {
+        List<ArchivedReservation> result = new ArrayList<>();
+        for (Chunk chunk : snapshot()) {
+            if (chunk.containsClient(clientId)) {
+                for (ArchivedReservation r : readChunk(chunk)) {
+                    if (r.clientId() == clientId) {
+                        result.add(r);
+                    }
+                }
+            }
+        }
+        return distinct(result);
+    }
+
+    public List<ArchivedReservation> findOverlapping(Instant start, Instant end) throws IOException {
+        List<ArchivedReservation> result = new ArrayList<>();
+        for (Chunk chunk : snapshot()) {
+            if (chunk.overlaps(start, end)) {
+                for (ArchivedReservation r : readChunk(chunk)) {
+                    if (r.overlaps(start, end)) {
+                        result.add(r);
+                    }
+                }
+            }
+        }
+        return distinct(result);
+    }
+
+    public synchronized long count() {
+        return chunks.stream().mapToLong(Chunk::count).sum();
+    }
+
+    private synchronized List<Chunk> snapshot() {
+        return List.copyOf(chunks);
+    }
+
+    /**
+     * Um lote pode ter sido gravado duas vezes se a remoção no banco falhou depois da escrita.
+     * Nesse caso as reservas também continuam na tabela; quem soma arquivo e banco deve
+     * ignorar os ids arquivados que ainda existem lá.
+     */
+    private static List<ArchivedReservation> distinct(List<ArchivedReservation> reservations) {
+        Set<Long> seen = new HashSet<>();
+        List<ArchivedReservation> result = new ArrayList<>(reservations.size());
+        for (ArchivedReservation r : reservations) {
+            if (seen.add(r.id())) {
+                result.add(r);
+            }
+        }
+        return result;
+    }
+
+    private List<ArchivedReservation> readChunk(Chunk chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(chunk.length());
+        try (FileChannel channel = FileChannel.open(segmentPath(chunk.segment()), StandardOpenOption.READ)) {
+            long position = chunk.offset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Segmento de arquivo truncado: " + segmentPath(chunk.segment()));
+                }
+                position += read;
+            }
+        }
+
+        List<ArchivedReservation> result = new ArrayList<>(chunk.count());
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new ByteArrayInputStream(buffer.array()))))) {
+            for (int i = 0; i < chunk.count(); i++) {
+                result.add(new ArchivedReservation(
+                        in.readLong(),
+                        in.readLong(),
+                        in.readLong(),
+                        readInstant(in),
+                        readInstant(in),
+                        in.readLong(),
+                        in.readLong(),
+                        readInstant(in)));
+            }
+        }
+        return result;
+    }
+
+    private static byte[] compress(List<ArchivedReservation> reservations) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(reservations.size() * 32);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(bytes)))) {
+            for (ArchivedReservation r : reservations) {
+                out.writeLong(r.id());
+                out.writeLong(r.clientId());
+                out.writeLong(r.vehicleId());
+                writeInstant(out, r.startDate());
+                writeInstant(out, r.endDate());
+                out.writeLong(r.dailyValueCents());
+                out.writeLong(r.totalValueCents());
+                writeInstant(out, r.createdAt());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeIndexEntry(Chunk chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) indexEntrySize(chunk));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(chunk.segment());
+            out.writeLong(chunk.offset());
+            out.writeInt(chunk.length());
+            out.writeInt(chunk.count());
+            out.writeLong(chunk.minStart());
+            out.writeLong(chunk.maxEnd());
+            out.writeInt(chunk.clientIds().length);
+            for (long clientId : chunk.clientIds()) {
+                out.writeLong(clientId);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(root().resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant == null ? NULL_INSTANT : instant.getEpochSecond());
+        out.writeInt(instant == null ? 0 : instant.getNano());
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return seconds == NULL_INSTANT ? null : Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    private Path root() {
+        return Path.of(directory);
+    }
+
+    private Path segmentPath(int segment) {
+        return root().resolve(String.format("segment-%06d.gz", segment));
+    }
+}
@@ -36,6 +36,9 @@ public class ClientDTO extends RepresentationModel<ClientDTO> {
     @Schema(description = "Cidade do cliente")
     private String city;
 
+    @Schema(description = "Versão do registro, usada no cabeçalho If-Match", accessMode = Schema.AccessMode.READ_ONLY)
+    private long version;
+
     public ClientDTO() {}
 
     public ClientDTO(String name, String email, String password, String phone, String address, String city) {
@@ -55,6 +58,7 @@ public class ClientDTO extends RepresentationModel<ClientDTO> {
         this.phone = client.getPhone();
         this.address = client.getAddress();
         this.city = client.getCity();
+        this.version = client.getVersion();
     }
 
     public long getId() {
@@ -113,6 +117,14 @@ public class ClientDTO extends RepresentationModel<ClientDTO> {
         this.city = city;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof ClientDTO dto)) return false;
@@ -134,6 +146,7 @@ public class ClientDTO extends RepresentationModel<ClientDTO> {
                 ", phone='" + phone + '\'' +
                 ", address='" + address + '\'' +
                 ", city='" + city + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,69 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class ClientReservationSummaryDTO {
+
+    @Schema(description = "ID do cliente", example = "1")
+    private long clientId;
+
+    @Schema(description = "Total de reservas", example = "12")
+    private long totalReservations;
+
+    @Schema(description = "Reservas que ainda não começaram", example = "1")
+    private long scheduled;
+
+    @Schema(description = "Reservas em andamento", example = "1")
+    private long active;
+
+    @Schema(description = "Reservas concluídas", example = "10")
+    private long completed;
+
+    @Schema(description = "Valor das reservas já iniciadas, em centavos", example = "354000")
+    private long totalSpentCents;
+
+    @Schema(description = "Próxima reserva do cliente; vazio se não houver")
+    private ReservationDTO nextReservation;
+
+    public ClientReservationSummaryDTO() {
+    }
+
+    public ClientReservationSummaryDTO(long clientId, long totalReservations, long scheduled, long active,
+                                       long totalSpentCents, ReservationDTO nextReservation) {
+        this.clientId = clientId;
+        this.totalReservations = totalReservations;
+        this.scheduled = scheduled;
+        this.active = active;
+        this.completed = totalReservations - scheduled - active;
+        this.totalSpentCents = totalSpentCents;
+        this.nextReservation = nextReservation;
+    }
+
+    public long getClientId() {
+        return clientId;
+    }
+
+    public long getTotalReservations() {
+        return totalReservations;
+    }
+
+    public long getScheduled() {
+        return scheduled;
+    }
+
+    public long getActive() {
+        return active;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getTotalSpentCents() {
+        return totalSpentCents;
+    }
+
+    public ReservationDTO getNextReservation() {
+        return nextReservation;
+    }
+}
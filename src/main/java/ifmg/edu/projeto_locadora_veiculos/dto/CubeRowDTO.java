@@ -0,0 +1,38 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+public class CubeRowDTO {
+
+    @Schema(description = "Valor de cada dimensão agrupada", example = "{\"brand\": \"Fiat\", \"month\": \"2024-07\"}")
+    private Map<String, String> group;
+
+    @Schema(description = "Quantidade de reservas", example = "42")
+    private long bookings;
+
+    @Schema(description = "Receita das reservas em centavos", example = "1250000")
+    private long revenueCents;
+
+    public CubeRowDTO() {
+    }
+
+    public CubeRowDTO(Map<String, String> group, long bookings, long revenueCents) {
+        this.group = group;
+        this.bookings = bookings;
+        this.revenueCents = revenueCents;
+    }
+
+    public Map<String, String> getGroup() {
+        return group;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public long getRevenueCents() {
+        return revenueCents;
+    }
+}
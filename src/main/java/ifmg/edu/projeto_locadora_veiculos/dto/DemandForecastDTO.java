@@ -0,0 +1,72 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class DemandForecastDTO {
+
+    @Schema(description = "Marca", example = "Fiat")
+    private String brand;
+
+    @Schema(description = "Modelo", example = "Argo")
+    private String model;
+
+    @Schema(description = "Previsão dia a dia, a partir de hoje (UTC)")
+    private List<Day> days;
+
+    public DemandForecastDTO() {
+    }
+
+    public DemandForecastDTO(String brand, String model, List<Day> days) {
+        this.brand = brand;
+        this.model = model;
+        this.days = days;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public List<Day> getDays() {
+        return days;
+    }
+
+    public static class Day {
+
+        @Schema(description = "Dia", example = "2024-07-01")
+        private LocalDate date;
+
+        @Schema(description = "Veículos do modelo já reservados no dia", example = "3")
+        private int booked;
+
+        @Schema(description = "Veículos do modelo previstos para o dia", example = "4.6")
+        private double expected;
+
+        public Day() {
+        }
+
+        public Day(LocalDate date, int booked, double expected) {
+            this.date = date;
+            this.booked = booked;
+            this.expected = expected;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public int getBooked() {
+            return booked;
+        }
+
+        public double getExpected() {
+            return expected;
+        }
+    }
+}
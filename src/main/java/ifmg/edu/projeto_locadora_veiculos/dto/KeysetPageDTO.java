@@ -0,0 +1,30 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class KeysetPageDTO<T> {
+
+    @Schema(description = "Itens da página")
+    private List<T> content;
+
+    @Schema(description = "Cursor da próxima página; vazio quando não há mais itens", example = "1520")
+    private String nextCursor;
+
+    public KeysetPageDTO() {
+    }
+
+    public KeysetPageDTO(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
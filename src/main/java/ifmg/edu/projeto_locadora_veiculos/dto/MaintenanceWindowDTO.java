@@ -0,0 +1,68 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.MaintenanceWindow;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.hateoas.RepresentationModel;
+
+import java.time.Instant;
+
+public class MaintenanceWindowDTO extends RepresentationModel<MaintenanceWindowDTO> {
+
+    @Schema(description = "ID da manutenção", accessMode = Schema.AccessMode.READ_ONLY)
+    private long id;
+
+    @Schema(description = "ID do veículo", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long vehicleId;
+
+    @Schema(description = "Início da manutenção")
+    private Instant startDate;
+
+    @Schema(description = "Fim da manutenção")
+    private Instant endDate;
+
+    @Schema(description = "Motivo da manutenção", example = "Troca de pneus")
+    private String description;
+
+    public MaintenanceWindowDTO() {
+    }
+
+    public MaintenanceWindowDTO(MaintenanceWindow window) {
+        this.id = window.getId();
+        this.vehicleId = window.getVehicle().getId();
+        this.startDate = window.getStartDate();
+        this.endDate = window.getEndDate();
+        this.description = window.getDescription();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(Instant startDate) {
+        this.startDate = startDate;
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(Instant endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,47 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Sugestões devolvidas junto com o 409 de conflito de reserva.
+ */
+public class ReservationAlternativesDTO {
+
+    public record FreeWindow(Instant startDate, Instant endDate) {
+    }
+
+    public record SimilarVehicle(long vehicleId, String plate, String brand, String model, String year,
+                                 long dailyValueCents) {
+
+        public SimilarVehicle(Vehicle vehicle) {
+            this(vehicle.getId(), vehicle.getPlate(), vehicle.getBrand(), vehicle.getModel(), vehicle.getYear(),
+                    vehicle.getDailyValueCents());
+        }
+    }
+
+    @Schema(description = "Períodos livres mais próximos, com a mesma duração, no veículo pedido")
+    private List<FreeWindow> sameVehicle;
+
+    @Schema(description = "Veículos da mesma marca e modelo livres no período pedido")
+    private List<SimilarVehicle> similarVehicles;
+
+    public ReservationAlternativesDTO() {
+    }
+
+    public ReservationAlternativesDTO(List<FreeWindow> sameVehicle, List<SimilarVehicle> similarVehicles) {
+        this.sameVehicle = sameVehicle;
+        this.similarVehicles = similarVehicles;
+    }
+
+    public List<FreeWindow> getSameVehicle() {
+        return sameVehicle;
+    }
+
+    public List<SimilarVehicle> getSimilarVehicles() {
+        return similarVehicles;
+    }
+}
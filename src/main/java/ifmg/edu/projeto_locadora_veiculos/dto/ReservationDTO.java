@@ -1,6 +1,7 @@
 package ifmg.edu.projeto_locadora_veiculos.dto;
 
 import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.hateoas.RepresentationModel;
@@ -29,6 +30,18 @@ public class ReservationDTO extends RepresentationModel<ReservationDTO> {
     @NotNull(message = "A data de término é obrigatória")
     private Instant endDate;
 
+    @Schema(description = "Situação da reserva", accessMode = Schema.AccessMode.READ_ONLY)
+    private ReservationStatus status;
+
+    @Schema(description = "Valor da diária (em centavos) registrado no momento da reserva", accessMode = Schema.AccessMode.READ_ONLY)
+    private long dailyValueCents;
+
+    @Schema(description = "Valor total (em centavos) registrado no momento da reserva", accessMode = Schema.AccessMode.READ_ONLY)
+    private long totalValueCents;
+
+    @Schema(description = "Versão do registro, usada no cabeçalho If-Match", accessMode = Schema.AccessMode.READ_ONLY)
+    private long version;
+
     public ReservationDTO() {}
 
     public ReservationDTO(Reservation reservation) {
@@ -37,6 +50,10 @@ public class ReservationDTO extends RepresentationModel<ReservationDTO> {
         this.vehicleId = reservation.getVehicle().getId();
         this.startDate = reservation.getStartDate();
         this.endDate = reservation.getEndDate();
+        this.status = reservation.getStatus();
+        this.dailyValueCents = reservation.getDailyValueCents();
+        this.totalValueCents = reservation.getTotalValueCents();
+        this.version = reservation.getVersion();
     }
 
     public long getId() {
@@ -79,6 +96,38 @@ public class ReservationDTO extends RepresentationModel<ReservationDTO> {
         this.endDate = endDate;
     }
 
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public long getDailyValueCents() {
+        return dailyValueCents;
+    }
+
+    public void setDailyValueCents(long dailyValueCents) {
+        this.dailyValueCents = dailyValueCents;
+    }
+
+    public long getTotalValueCents() {
+        return totalValueCents;
+    }
+
+    public void setTotalValueCents(long totalValueCents) {
+        this.totalValueCents = totalValueCents;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof ReservationDTO dto)) return false;
@@ -98,6 +147,10 @@ public class ReservationDTO extends RepresentationModel<ReservationDTO> {
                 ", vehicleId=" + vehicleId +
                 ", startDate=" + startDate +
                 ", endDate=" + endDate +
+                ", status=" + status +
+                ", dailyValueCents=" + dailyValueCents +
+                ", totalValueCents=" + totalValueCents +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationHold;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.hateoas.RepresentationModel;
+
+import java.time.Instant;
+
+public class ReservationHoldDTO extends RepresentationModel<ReservationHoldDTO> {
+
+    @Schema(description = "ID da pré-reserva")
+    private long id;
+
+    @Schema(description = "ID do cliente", example = "1")
+    private Long clientId;
+
+    @Schema(description = "ID do veículo bloqueado", example = "10")
+    private Long vehicleId;
+
+    @Schema(description = "Início do período bloqueado")
+    private Instant startDate;
+
+    @Schema(description = "Fim do período bloqueado")
+    private Instant endDate;
+
+    @Schema(description = "Instante em que o bloqueio deixa de valer")
+    private Instant expiresAt;
+
+    public ReservationHoldDTO() {}
+
+    public ReservationHoldDTO(ReservationHold hold) {
+        this.id = hold.getId();
+        this.clientId = hold.getClient().getId();
+        this.vehicleId = hold.getVehicle().getId();
+        this.startDate = hold.getStartDate();
+        this.endDate = hold.getEndDate();
+        this.expiresAt = hold.getExpiresAt();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
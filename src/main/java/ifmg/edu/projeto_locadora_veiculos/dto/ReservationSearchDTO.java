@@ -0,0 +1,101 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+/** Filtros opcionais de {@code GET /reservation/search}; campos vazios não restringem. */
+public class ReservationSearchDTO {
+
+    @Schema(description = "ID do cliente", example = "1")
+    private Long clientId;
+
+    @Schema(description = "ID do veículo", example = "1")
+    private Long vehicleId;
+
+    @Schema(description = "Reservas que terminam depois deste instante", example = "2024-07-01T00:00:00Z")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    @Schema(description = "Reservas que começam antes deste instante", example = "2024-08-01T00:00:00Z")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+
+    @Schema(description = "Situação da reserva", example = "SCHEDULED")
+    private ReservationStatus status;
+
+    @Schema(description = "Marca do veículo, igual à do cadastro", example = "Fiat")
+    private String brand;
+
+    @Schema(description = "Valor mínimo da diária em centavos", example = "10000")
+    private Long minDailyValueCents;
+
+    @Schema(description = "Valor máximo da diária em centavos", example = "30000")
+    private Long maxDailyValueCents;
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public Long getMinDailyValueCents() {
+        return minDailyValueCents;
+    }
+
+    public void setMinDailyValueCents(Long minDailyValueCents) {
+        this.minDailyValueCents = minDailyValueCents;
+    }
+
+    public Long getMaxDailyValueCents() {
+        return maxDailyValueCents;
+    }
+
+    public void setMaxDailyValueCents(Long maxDailyValueCents) {
+        this.maxDailyValueCents = maxDailyValueCents;
+    }
+}
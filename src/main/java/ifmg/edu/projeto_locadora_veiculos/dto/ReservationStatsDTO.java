@@ -0,0 +1,120 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class ReservationStatsDTO {
+
+    @Schema(description = "Duração das reservas (fim - início)")
+    private Distribution duration;
+
+    @Schema(description = "Antecedência da reserva (início - data de criação)")
+    private Distribution leadTime;
+
+    public ReservationStatsDTO() {
+    }
+
+    public ReservationStatsDTO(Distribution duration, Distribution leadTime) {
+        this.duration = duration;
+        this.leadTime = leadTime;
+    }
+
+    public Distribution getDuration() {
+        return duration;
+    }
+
+    public Distribution getLeadTime() {
+        return leadTime;
+    }
+
+    public static class Distribution {
+
+        @Schema(description = "Reservas contadas", example = "1520")
+        private long count;
+
+        @Schema(description = "Média em horas", example = "76.4")
+        private double meanHours;
+
+        @Schema(description = "Mediana em horas", example = "48.0")
+        private double p50Hours;
+
+        @Schema(description = "Percentil 90 em horas", example = "168.0")
+        private double p90Hours;
+
+        @Schema(description = "Percentil 99 em horas", example = "720.0")
+        private double p99Hours;
+
+        @Schema(description = "Reservas por faixa de horas")
+        private List<Bucket> buckets;
+
+        public Distribution() {
+        }
+
+        public Distribution(long count, double meanHours, double p50Hours, double p90Hours, double p99Hours, List<Bucket> buckets) {
+            this.count = count;
+            this.meanHours = meanHours;
+            this.p50Hours = p50Hours;
+            this.p90Hours = p90Hours;
+            this.p99Hours = p99Hours;
+            this.buckets = buckets;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanHours() {
+            return meanHours;
+        }
+
+        public double getP50Hours() {
+            return p50Hours;
+        }
+
+        public double getP90Hours() {
+            return p90Hours;
+        }
+
+        public double getP99Hours() {
+            return p99Hours;
+        }
+
+        public List<Bucket> getBuckets() {
+            return buckets;
+        }
+    }
+
+    public static class Bucket {
+
+        @Schema(description = "Início da faixa em horas, inclusive", example = "24.0")
+        private Double fromHours;
+
+        @Schema(description = "Fim da faixa em horas, exclusivo; vazio na última faixa", example = "48.0")
+        private Double toHours;
+
+        @Schema(description = "Reservas na faixa", example = "310")
+        private long count;
+
+        public Bucket() {
+        }
+
+        public Bucket(Double fromHours, Double toHours, long count) {
+            this.fromHours = fromHours;
+            this.toHours = toHours;
+            this.count = count;
+        }
+
+        public Double getFromHours() {
+            return fromHours;
+        }
+
+        public Double getToHours() {
+            return toHours;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
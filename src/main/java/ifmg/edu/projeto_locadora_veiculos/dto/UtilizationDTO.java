@@ -0,0 +1,54 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+public class UtilizationDTO {
+
+    @Schema(description = "Primeiro dia do intervalo", example = "2024-07-01")
+    private LocalDate startDate;
+
+    @Schema(description = "Último dia do intervalo", example = "2024-07-01")
+    private LocalDate endDate;
+
+    @Schema(description = "Maior número de veículos reservados num mesmo dia do intervalo", example = "12")
+    private int bookedVehicles;
+
+    @Schema(description = "Veículos cadastrados na frota", example = "40")
+    private long fleetSize;
+
+    @Schema(description = "Percentual de veículos-dia reservados no intervalo", example = "30.0")
+    private double utilization;
+
+    public UtilizationDTO() {
+    }
+
+    public UtilizationDTO(LocalDate startDate, LocalDate endDate, int bookedVehicles, long fleetSize, double utilization) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.bookedVehicles = bookedVehicles;
+        this.fleetSize = fleetSize;
+        this.utilization = utilization;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public int getBookedVehicles() {
+        return bookedVehicles;
+    }
+
+    public long getFleetSize() {
+        return fleetSize;
+    }
+
+    public double getUtilization() {
+        return utilization;
+    }
+}
@@ -0,0 +1,52 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class VehicleCalendarDTO {
+
+    @Schema(description = "ID do veículo", example = "1")
+    private long vehicleId;
+
+    @Schema(description = "Placa", example = "ABC-1234")
+    private String plate;
+
+    @Schema(description = "Marca", example = "Fiat")
+    private String brand;
+
+    @Schema(description = "Modelo", example = "Uno")
+    private String model;
+
+    @Schema(description = "Um caractere por dia do período: 1 ocupado (reserva ou manutenção), 0 livre", example = "0011100")
+    private String occupied;
+
+    public VehicleCalendarDTO() {
+    }
+
+    public VehicleCalendarDTO(long vehicleId, String plate, String brand, String model, String occupied) {
+        this.vehicleId = vehicleId;
+        this.plate = plate;
+        this.brand = brand;
+        this.model = model;
+        this.occupied = occupied;
+    }
+
+    public long getVehicleId() {
+        return vehicleId;
+    }
+
+    public String getPlate() {
+        return plate;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getOccupied() {
+        return occupied;
+    }
+}
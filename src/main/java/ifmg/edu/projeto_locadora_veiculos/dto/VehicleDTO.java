@@ -37,14 +37,17 @@ public class VehicleDTO extends RepresentationModel<VehicleDTO> {
     @Schema(description = "URL da imagem do veículo")
     private String imgUrl;
 
-    @Schema(description = "Valor da diária do veículo")
+    @Schema(description = "Valor da diária do veículo em centavos", example = "15075")
     @Positive(message = "O valor da diária deve ser positivo")
-    private double dailyValue;
+    private long dailyValueCents;
+
+    @Schema(description = "Versão do registro, usada no cabeçalho If-Match", accessMode = Schema.AccessMode.READ_ONLY)
+    private long version;
 
     public VehicleDTO() {}
 
     public VehicleDTO(String plate, String brand, String model, String year, String color,
-                      String description, String imgUrl, double dailyValue) {
+                      String description, String imgUrl, long dailyValueCents) {
         this.plate = plate;
         this.brand = brand;
         this.model = model;
@@ -52,7 +55,7 @@ public class VehicleDTO extends RepresentationModel<VehicleDTO> {
         this.color = color;
         this.description = description;
         this.imgUrl = imgUrl;
-        this.dailyValue = dailyValue;
+        this.dailyValueCents = dailyValueCents;
     }
 
     public VehicleDTO(Vehicle vehicle) {
@@ -64,7 +67,8 @@ public class VehicleDTO extends RepresentationModel<VehicleDTO> {
         this.color = vehicle.getColor();
         this.description = vehicle.getDescription();
         this.imgUrl = vehicle.getImgUrl();
-        this.dailyValue = vehicle.getDailyValue();
+        this.dailyValueCents = vehicle.getDailyValueCents();
+        this.version = vehicle.getVersion();
     }
 
     public long getId() {
@@ -131,12 +135,20 @@ public class VehicleDTO extends RepresentationModel<VehicleDTO> {
         this.imgUrl = imgUrl;
     }
 
-    public double getDailyValue() {
-        return dailyValue;
+    public long getDailyValueCents() {
+        return dailyValueCents;
+    }
+
+    public void setDailyValueCents(long dailyValueCents) {
+        this.dailyValueCents = dailyValueCents;
+    }
+
+    public long getVersion() {
+        return version;
     }
 
-    public void setDailyValue(double dailyValue) {
-        this.dailyValue = dailyValue;
+    public void setVersion(long version) {
+        this.version = version;
     }
 
     @Override
@@ -161,7 +173,8 @@ public class VehicleDTO extends RepresentationModel<VehicleDTO> {
                 ", color='" + color + '\'' +
                 ", description='" + description + '\'' +
                 ", imgUrl='" + imgUrl + '\'' +
-                ", dailyValue=" + dailyValue +
+                ", dailyValueCents=" + dailyValueCents +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
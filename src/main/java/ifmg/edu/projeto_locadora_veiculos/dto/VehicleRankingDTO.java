@@ -0,0 +1,69 @@
+package ifmg.edu.projeto_locadora_veiculos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class VehicleRankingDTO {
+
+    @Schema(description = "ID do veículo", example = "1")
+    private long vehicleId;
+
+    @Schema(description = "Placa", example = "ABC-1234")
+    private String plate;
+
+    @Schema(description = "Marca", example = "Fiat")
+    private String brand;
+
+    @Schema(description = "Modelo", example = "Uno")
+    private String model;
+
+    @Schema(description = "Ano", example = "2024")
+    private String year;
+
+    @Schema(description = "Quantidade de reservas", example = "42")
+    private long bookings;
+
+    @Schema(description = "Receita das reservas em centavos", example = "1250000")
+    private long revenueCents;
+
+    public VehicleRankingDTO() {
+    }
+
+    // Linha de ReservationRepository.findVehicleRankingBy*
+    public VehicleRankingDTO(Object[] row) {
+        this.vehicleId = (Long) row[0];
+        this.plate = (String) row[1];
+        this.brand = (String) row[2];
+        this.model = (String) row[3];
+        this.year = (String) row[4];
+        this.bookings = ((Number) row[5]).longValue();
+        this.revenueCents = ((Number) row[6]).longValue();
+    }
+
+    public long getVehicleId() {
+        return vehicleId;
+    }
+
+    public String getPlate() {
+        return plate;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public long getRevenueCents() {
+        return revenueCents;
+    }
+}
@@ -24,6 +24,10 @@ public class Client implements Serializable {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    @Version
+    @Column(columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long version;
+
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant createdAt;
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
@@ -134,6 +138,10 @@ public class Client implements Serializable {
         this.updatedAt = updatedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @PrePersist
     public void prePersist() {
         createdAt = Instant.now();
@@ -0,0 +1,69 @@
+package ifmg.edu.projeto_locadora_veiculos.entities;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Resposta gravada para uma Idempotency-Key. {@code status = 0} indica que a requisição
+ * original ainda está em andamento.
+ */
+@Entity
+@Table(name = "idempotency_key")
+public class IdempotencyRecord implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(length = 64, nullable = false)
+    private String fingerprint;
+
+    private int status;
+    private String contentType;
+    private String location;
+    private String etag;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE", nullable = false)
+    private Instant expiresAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,79 @@
+package ifmg.edu.projeto_locadora_veiculos.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Período em que o veículo está em manutenção. Entra na verificação de disponibilidade
+ * junto com as reservas, mas não aparece em relatórios de reservas nem de receita.
+ */
+@Entity
+@Table(name = "maintenance_window", indexes = {
+        @Index(name = "idx_maintenance_vehicle_period", columnList = "vehicle_id, start_date, end_date")
+})
+public class MaintenanceWindow implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "vehicle_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Vehicle vehicle;
+
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE", nullable = false)
+    private Instant startDate;
+
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE", nullable = false)
+    private Instant endDate;
+
+    private String description;
+
+    @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private Instant createdAt;
+
+    public MaintenanceWindow() {
+    }
+
+    public MaintenanceWindow(Vehicle vehicle, Instant startDate, Instant endDate, String description) {
+        this.vehicle = vehicle;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.description = description;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = Instant.now();
+    }
+}
@@ -4,9 +4,21 @@ import jakarta.persistence.*;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "reservation")
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_period_value", columnList = "start_date, end_date, daily_value_cents"),
+        @Index(name = "idx_reservation_vehicle_period", columnList = "vehicle_id, start_date, end_date"),
+        @Index(name = "idx_reservation_client_period", columnList = "client_id, start_date, end_date"),
+        @Index(name = "idx_reservation_status_period", columnList = "status, start_date"),
+        @Index(name = "idx_reservation_daily_value", columnList = "daily_value_cents"),
+        @Index(name = "idx_reservation_updated", columnList = "updated_at, id"),
+        @Index(name = "idx_reservation_client_id", columnList = "client_id, id"),
+        @Index(name = "idx_reservation_vehicle_id", columnList = "vehicle_id, id"),
+        @Index(name = "idx_reservation_status_id", columnList = "status, id")
+})
 public class Reservation implements Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -28,6 +40,20 @@ public class Reservation implements Serializable {
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant endDate;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ReservationStatus status;
+
+    @Column(name = "daily_value_cents", columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long dailyValueCents;
+
+    @Column(name = "total_value_cents", columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long totalValueCents;
+
+    @Version
+    @Column(columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long version;
+
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant createdAt;
 
@@ -41,6 +67,7 @@ public class Reservation implements Serializable {
         this.vehicle = vehicle;
         this.startDate = startDate;
         this.endDate = endDate;
+        capturePrice();
     }
 
     public Reservation(Reservation reservation) {
@@ -49,6 +76,9 @@ public class Reservation implements Serializable {
         this.vehicle = reservation.getVehicle();
         this.startDate = reservation.getStartDate();
         this.endDate = reservation.getEndDate();
+        this.status = reservation.getStatus();
+        this.dailyValueCents = reservation.getDailyValueCents();
+        this.totalValueCents = reservation.getTotalValueCents();
         this.createdAt = reservation.getCreatedAt();
         this.updatedAt = reservation.getUpdatedAt();
     }
@@ -93,6 +123,55 @@ public class Reservation implements Serializable {
         this.endDate = endDate;
     }
 
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public void refreshStatus(Instant instant) {
+        if (startDate != null && endDate != null) {
+            status = ReservationStatus.at(startDate, endDate, instant);
+        }
+    }
+
+    public long getDailyValueCents() {
+        return dailyValueCents;
+    }
+
+    public void setDailyValueCents(long dailyValueCents) {
+        this.dailyValueCents = dailyValueCents;
+    }
+
+    public long getTotalValueCents() {
+        return totalValueCents;
+    }
+
+    public void setTotalValueCents(long totalValueCents) {
+        this.totalValueCents = totalValueCents;
+    }
+
+    public long getBillableDays() {
+        ZoneId zone = ZoneId.systemDefault();
+        return ChronoUnit.DAYS.between(
+                startDate.atZone(zone).toLocalDate(),
+                endDate.atZone(zone).toLocalDate()) + 1;
+    }
+
+    /**
+     * Congela a diária atual do veículo e o total da reserva, para que mudanças
+     * de preço no veículo não alterem o faturamento histórico.
+     */
+    public void capturePrice() {
+        if (vehicle == null || startDate == null || endDate == null) {
+            return;
+        }
+        dailyValueCents = vehicle.getDailyValueCents();
+        totalValueCents = Math.multiplyExact(getBillableDays(), dailyValueCents);
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -109,10 +188,17 @@ public class Reservation implements Serializable {
         this.updatedAt = updatedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @PrePersist
     public void prePersist() {
         createdAt = Instant.now();
         updatedAt = Instant.now();
+        if (status == null) {
+            refreshStatus(createdAt);
+        }
     }
 
     @PreUpdate
@@ -0,0 +1,16 @@
+package ifmg.edu.projeto_locadora_veiculos.entities;
+
+import java.time.Instant;
+
+public enum ReservationStatus {
+    SCHEDULED,
+    ACTIVE,
+    COMPLETED;
+
+    public static ReservationStatus at(Instant startDate, Instant endDate, Instant instant) {
+        if (instant.isBefore(startDate)) {
+            return SCHEDULED;
+        }
+        return instant.isAfter(endDate) ? COMPLETED : ACTIVE;
+    }
+}
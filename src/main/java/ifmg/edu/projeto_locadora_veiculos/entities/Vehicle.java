@@ -6,7 +6,9 @@ import java.io.Serializable;
 import java.time.Instant;
 
 @Entity
-@Table(name = "vehicle")
+@Table(name = "vehicle", indexes = {
+        @Index(name = "idx_vehicle_brand", columnList = "brand")
+})
 public class Vehicle implements Serializable {
     private static final long serialVersionUID = 1L;
 
@@ -21,7 +23,12 @@ public class Vehicle implements Serializable {
     private String color;
     private String description;
     private String imgUrl;
-    private double dailyValue;
+    @Column(name = "daily_value_cents", columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long dailyValueCents;
+
+    @Version
+    @Column(columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long version;
 
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant createdAt;
@@ -33,7 +40,7 @@ public class Vehicle implements Serializable {
     }
 
     public Vehicle(long id, String plate, String brand, String model, String year, String color,
-                   String description, String imgUrl, double dailyValue) {
+                   String description, String imgUrl, long dailyValueCents) {
         this.id = id;
         this.plate = plate;
         this.brand = brand;
@@ -42,7 +49,7 @@ public class Vehicle implements Serializable {
         this.color = color;
         this.description = description;
         this.imgUrl = imgUrl;
-        this.dailyValue = dailyValue;
+        this.dailyValueCents = dailyValueCents;
     }
 
     public Vehicle(Vehicle vehicle) {
@@ -54,7 +61,7 @@ public class Vehicle implements Serializable {
         this.color = vehicle.getColor();
         this.description = vehicle.getDescription();
         this.imgUrl = vehicle.getImgUrl();
-        this.dailyValue = vehicle.getDailyValue();
+        this.dailyValueCents = vehicle.getDailyValueCents();
         this.createdAt = vehicle.getCreatedAt();
         this.updatedAt = vehicle.getUpdatedAt();
     }
@@ -123,12 +130,12 @@ public class Vehicle implements Serializable {
         this.imgUrl = imgUrl;
     }
 
-    public double getDailyValue() {
-        return dailyValue;
+    public long getDailyValueCents() {
+        return dailyValueCents;
     }
 
-    public void setDailyValue(double dailyValue) {
-        this.dailyValue = dailyValue;
+    public void setDailyValueCents(long dailyValueCents) {
+        this.dailyValueCents = dailyValueCents;
     }
 
     public Instant getCreatedAt() {
@@ -147,6 +154,10 @@ public class Vehicle implements Serializable {
         this.updatedAt = updatedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @PrePersist
     public void prePersist() {
         Instant now = Instant.now();
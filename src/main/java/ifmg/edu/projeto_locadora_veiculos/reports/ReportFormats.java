@@ -0,0 +1,64 @@
+package ifmg.edu.projeto_locadora_veiculos.reports;
+
+import java.time.Instant;
+
+/**
+ * Formatação de datas e valores escrita direto no buffer, sem {@code String.format}
+ * e sem criar {@code DateTimeFormatter} a cada chamada.
+ */
+public final class ReportFormats {
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private ReportFormats() {
+    }
+
+    /**
+     * Escreve a data no formato dd/MM/yyyy (UTC).
+     */
+    public static StringBuilder appendDate(StringBuilder out, Instant instant) {
+        if (instant == null) {
+            return out.append("N/A");
+        }
+        return appendEpochDay(out, Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_DAY));
+    }
+
+    /**
+     * Escreve o dia (contado a partir de 1970-01-01) no formato dd/MM/yyyy.
+     */
+    public static StringBuilder appendEpochDay(StringBuilder out, long epochDay) {
+        // Conversão dias -> data civil (calendário gregoriano proléptico)
+        long z = epochDay + 719_468L;
+        long era = Math.floorDiv(z, 146_097L);
+        long doe = z - era * 146_097L;
+        long yoe = (doe - doe / 1_460L + doe / 36_524L - doe / 146_096L) / 365L;
+        long doy = doe - (365L * yoe + yoe / 4L - yoe / 100L);
+        long mp = (5L * doy + 2L) / 153L;
+        int day = (int) (doy - (153L * mp + 2L) / 5L + 1L);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yoe + era * 400L + (month <= 2 ? 1 : 0);
+
+        appendTwoDigits(out, day).append('/');
+        appendTwoDigits(out, month).append('/');
+        if (year >= 0 && year < 1000) {
+            out.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        return out.append(year);
+    }
+
+    /**
+     * Escreve um valor monetário em centavos no formato 1234,56.
+     */
+    public static StringBuilder appendMoney(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        out.append(cents / 100).append(',');
+        return appendTwoDigits(out, (int) (cents % 100));
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
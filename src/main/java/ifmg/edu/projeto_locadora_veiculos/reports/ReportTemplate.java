@@ -0,0 +1,136 @@
+package ifmg.edu.projeto_locadora_veiculos.reports;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Template de linha de relatório. O padrão é interpretado uma única vez em
+ * {@link Builder#build()}; cada renderização apenas concatena os trechos fixos
+ * com os campos no buffer reutilizável da thread.
+ */
+public final class ReportTemplate<T> {
+
+    @FunctionalInterface
+    public interface Field<T> {
+        void appendTo(StringBuilder out, T row);
+    }
+
+    private static final int INITIAL_BUFFER = 256;
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER));
+
+    private final String[] literals;
+    private final Field<T>[] fields;
+
+    private ReportTemplate(String[] literals, Field<T>[] fields) {
+        this.literals = literals;
+        this.fields = fields;
+    }
+
+    public static <T> Builder<T> compile(String pattern) {
+        return new Builder<>(pattern);
+    }
+
+    public StringBuilder appendTo(StringBuilder out, T row) {
+        for (int i = 0; i < fields.length; i++) {
+            out.append(literals[i]);
+            fields[i].appendTo(out, row);
+        }
+        return out.append(literals[fields.length]);
+    }
+
+    public String render(T row) {
+        StringBuilder buffer = buffer();
+        appendTo(buffer, row);
+        return release(buffer);
+    }
+
+    public List<String> renderAll(Collection<? extends T> rows) {
+        List<String> result = new ArrayList<>(rows.size());
+        StringBuilder buffer = buffer();
+        for (T row : rows) {
+            buffer.setLength(0);
+            appendTo(buffer, row);
+            result.add(buffer.toString());
+        }
+        release(buffer);
+        return result;
+    }
+
+    static StringBuilder buffer() {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    static String release(StringBuilder buffer) {
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.set(new StringBuilder(INITIAL_BUFFER));
+        }
+        return result;
+    }
+
+    public static final class Builder<T> {
+        private final String pattern;
+        private final Map<String, Field<T>> bindings = new HashMap<>();
+
+        private Builder(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public Builder<T> field(String name, Field<T> field) {
+            bindings.put(name, field);
+            return this;
+        }
+
+        public Builder<T> text(String name, Function<? super T, String> getter) {
+            return field(name, (out, row) -> out.append(getter.apply(row)));
+        }
+
+        public Builder<T> number(String name, ToLongFunction<? super T> getter) {
+            return field(name, (out, row) -> out.append(getter.applyAsLong(row)));
+        }
+
+        public Builder<T> money(String name, ToLongFunction<? super T> centsGetter) {
+            return field(name, (out, row) -> ReportFormats.appendMoney(out, centsGetter.applyAsLong(row)));
+        }
+
+        public Builder<T> date(String name, Function<? super T, Instant> getter) {
+            return field(name, (out, row) -> ReportFormats.appendDate(out, getter.apply(row)));
+        }
+
+        @SuppressWarnings("unchecked")
+        public ReportTemplate<T> build() {
+            List<String> literals = new ArrayList<>();
+            List<Field<T>> fields = new ArrayList<>();
+
+            int position = 0;
+            int open;
+            while ((open = pattern.indexOf('{', position)) >= 0) {
+                int close = pattern.indexOf('}', open);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Template inválido: '{' sem '}' em " + pattern);
+                }
+                String name = pattern.substring(open + 1, close);
+                Field<T> field = bindings.get(name);
+                if (field == null) {
+                    throw new IllegalArgumentException("Campo não definido no template: " + name);
+                }
+                literals.add(pattern.substring(position, open));
+                fields.add(field);
+                position = close + 1;
+            }
+            literals.add(pattern.substring(position));
+
+            return new ReportTemplate<>(literals.toArray(new String[0]), fields.toArray(new Field[0]));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ifmg.edu.projeto_locadora_veiculos.repositories;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Insere a chave como "em andamento" ou assume uma chave já expirada; devolve 0 se outra requisição a detém
+    @Modifying
+    @Query(value = """
+        INSERT INTO idempotency_key (id, fingerprint, status, expires_at)
+        VALUES (:id, :fingerprint, 0, :leaseUntil)
+        ON CONFLICT (id) DO UPDATE
+            SET fingerprint = EXCLUDED.fingerprint, status = 0, content_type = NULL, location = NULL,
+                etag = NULL, body = NULL, expires_at = EXCLUDED.expires_at
+            WHERE idempotency_key.expires_at < :now
+    """, nativeQuery = true)
+    int claim(@Param("id") String id, @Param("fingerprint") String fingerprint,
+              @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Query("""
+        UPDATE IdempotencyRecord r
+        SET r.status = :status, r.contentType = :contentType, r.location = :location, r.etag = :etag,
+            r.body = :body, r.expiresAt = :expiresAt
+        WHERE r.id = :id
+    """)
+    int complete(@Param("id") String id, @Param("status") int status, @Param("contentType") String contentType,
+                 @Param("location") String location, @Param("etag") String etag, @Param("body") String body,
+                 @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = 0")
+    int release(@Param("id") String id);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
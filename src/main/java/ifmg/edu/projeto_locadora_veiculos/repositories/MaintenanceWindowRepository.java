@@ -0,0 +1,14 @@
+package ifmg.edu.projeto_locadora_veiculos.repositories;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.MaintenanceWindow;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface MaintenanceWindowRepository extends JpaRepository<MaintenanceWindow, Long> {
+
+    List<MaintenanceWindow> findByVehicleIdOrderByStartDate(Long vehicleId);
+
+    Optional<MaintenanceWindow> findByIdAndVehicleId(Long id, Long vehicleId);
+}
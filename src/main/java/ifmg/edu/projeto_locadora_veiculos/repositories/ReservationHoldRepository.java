@@ -0,0 +1,62 @@
+package ifmg.edu.projeto_locadora_veiculos.repositories;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ReservationHoldRepository extends JpaRepository<ReservationHold, Long> {
+
+    // Mesma regra de sobreposição das reservas, contando só os bloqueios ainda não expirados
+    @Query("""
+        SELECT CASE WHEN COUNT(h) > 0 THEN true ELSE false END
+        FROM ReservationHold h
+        WHERE h.vehicle.id = :vehicleId
+          AND h.expiresAt > :now
+          AND h.startDate < :endDate
+          AND h.endDate > :startDate
+    """)
+    boolean existsActiveByVehicleIdAndDateRange(
+            @Param("vehicleId") Long vehicleId,
+            @Param("startDate") Instant startDate,
+            @Param("endDate") Instant endDate,
+            @Param("now") Instant now
+    );
+
+    // Pré-reserva de outro cliente; a que não existe mais fica de fora e responde 404 no serviço
+    @Query("""
+        SELECT CASE WHEN COUNT(h) > 0 THEN true ELSE false END
+        FROM ReservationHold h
+        WHERE h.id = :id
+          AND h.client.email <> :email
+    """)
+    boolean existsByIdAndOtherClient(@Param("id") Long id, @Param("email") String email);
+
+    @Query("""
+        SELECT h.id, h.vehicle.id, h.expiresAt
+        FROM ReservationHold h
+        WHERE h.expiresAt > :now
+    """)
+    List<Object[]> findActiveExpirations(@Param("now") Instant now);
+
+    @Query("""
+        SELECT h.id, h.startDate, h.endDate, h.expiresAt
+        FROM ReservationHold h
+        WHERE h.vehicle.id = :vehicleId
+          AND h.expiresAt > :now
+    """)
+    List<Object[]> findActivePeriodsByVehicle(@Param("vehicleId") Long vehicleId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM ReservationHold h WHERE h.id IN :ids AND h.expiresAt <= :now")
+    int deleteExpired(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM ReservationHold h WHERE h.expiresAt <= :now")
+    int deleteAllExpired(@Param("now") Instant now);
+}
@@ -1,30 +1,403 @@
 package ifmg.edu.projeto_locadora_veiculos.repositories;
 
 import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation> {
 
+    // Reservas e manutenções do veículo numa só consulta
     @Query("""
-        SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END
-        FROM Reservation r
-        WHERE r.vehicle.id = :vehicleId
-          AND r.startDate < :endDate
-          AND r.endDate > :startDate
+        SELECT CASE WHEN COUNT(v) > 0 THEN true ELSE false END
+        FROM Vehicle v
+        WHERE v.id = :vehicleId
+          AND (EXISTS (
+                  SELECT 1 FROM Reservation r
+                  WHERE r.vehicle = v
+                    AND r.startDate < :endDate
+                    AND r.startDate >= :earliestStart
+                    AND r.endDate > :startDate)
+               OR EXISTS (
+                  SELECT 1 FROM MaintenanceWindow m
+                  WHERE m.vehicle = v
+                    AND m.startDate < :endDate
+                    AND m.startDate >= :earliestStart
+                    AND m.endDate > :startDate))
     """)
     boolean existsByVehicleIdAndDateRange(
             @Param("vehicleId") Long vehicleId,
             @Param("startDate") Instant startDate,
-            @Param("endDate") Instant endDate
+            @Param("endDate") Instant endDate,
+            @Param("earliestStart") Instant earliestStart
+    );
+
+    @Query("""
+        SELECT CASE WHEN COUNT(v) > 0 THEN true ELSE false END
+        FROM Vehicle v
+        WHERE v.id = :vehicleId
+          AND (EXISTS (
+                  SELECT 1 FROM Reservation r
+                  WHERE r.vehicle = v
+                    AND r.id <> :reservationId
+                    AND r.startDate < :endDate
+                    AND r.startDate >= :earliestStart
+                    AND r.endDate > :startDate)
+               OR EXISTS (
+                  SELECT 1 FROM MaintenanceWindow m
+                  WHERE m.vehicle = v
+                    AND m.startDate < :endDate
+                    AND m.startDate >= :earliestStart
+                    AND m.endDate > :startDate))
+    """)
+    boolean existsOtherByVehicleIdAndDateRange(
+            @Param("reservationId") Long reservationId,
+            @Param("vehicleId") Long vehicleId,
+            @Param("startDate") Instant startDate,
+            @Param("endDate") Instant endDate,
+            @Param("earliestStart") Instant earliestStart
     );
 
     List<Reservation> findByClientId(Long clientId);
-}
 
+    // Reservas arquivadas cuja remoção no banco não chegou a ser gravada
+    @Query("SELECT r.id FROM Reservation r WHERE r.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Histórico do cliente, do início mais recente para o mais antigo, pelo índice (client_id, start_date)
+    @Query("""
+        SELECT r FROM Reservation r
+        JOIN FETCH r.vehicle
+        WHERE r.client.id = :clientId
+        ORDER BY r.startDate DESC, r.id DESC
+    """)
+    List<Reservation> findHistoryByClient(@Param("clientId") Long clientId, Pageable pageable);
+
+    @Query("""
+        SELECT r FROM Reservation r
+        JOIN FETCH r.vehicle
+        WHERE r.client.id = :clientId
+          AND (r.startDate < :beforeStart OR (r.startDate = :beforeStart AND r.id < :beforeId))
+        ORDER BY r.startDate DESC, r.id DESC
+    """)
+    List<Reservation> findHistoryByClientBefore(
+            @Param("clientId") Long clientId,
+            @Param("beforeStart") Instant beforeStart,
+            @Param("beforeId") long beforeId,
+            Pageable pageable
+    );
+
+    // Contagens pela situação em :now, valor gasto nas reservas já iniciadas e próximas mudanças
+    @Query("""
+        SELECT COUNT(r),
+               COALESCE(SUM(CASE WHEN r.startDate > :now THEN 1 ELSE 0 END), 0),
+               COALESCE(SUM(CASE WHEN r.startDate <= :now AND r.endDate >= :now THEN 1 ELSE 0 END), 0),
+               COALESCE(SUM(CASE WHEN r.startDate <= :now THEN r.totalValueCents ELSE 0 END), 0),
+               MIN(CASE WHEN r.startDate > :now THEN r.startDate END),
+               MIN(CASE WHEN r.endDate >= :now THEN r.endDate END)
+        FROM Reservation r
+        WHERE r.client.id = :clientId
+    """)
+    List<Object[]> summarizeByClient(@Param("clientId") Long clientId, @Param("now") Instant now);
+
+    @Query("""
+        SELECT r FROM Reservation r
+        JOIN FETCH r.vehicle
+        WHERE r.client.id = :clientId
+          AND r.startDate > :now
+        ORDER BY r.startDate, r.id
+    """)
+    List<Reservation> findUpcomingByClient(@Param("clientId") Long clientId, @Param("now") Instant now, Pageable pageable);
+
+    // Períodos ocupados (reservas, manutenções e pré-reservas ativas) de vários veículos numa só consulta
+    @Query("""
+        SELECT r.vehicle.id, r.startDate, r.endDate
+        FROM Reservation r
+        WHERE r.vehicle.id IN :vehicleIds
+          AND r.startDate < :to
+          AND r.startDate >= :earliestStart
+          AND r.endDate > :from
+        UNION ALL
+        SELECT m.vehicle.id, m.startDate, m.endDate
+        FROM MaintenanceWindow m
+        WHERE m.vehicle.id IN :vehicleIds
+          AND m.startDate < :to
+          AND m.startDate >= :earliestStart
+          AND m.endDate > :from
+        UNION ALL
+        SELECT h.vehicle.id, h.startDate, h.endDate
+        FROM ReservationHold h
+        WHERE h.vehicle.id IN :vehicleIds
+          AND h.expiresAt > :now
+          AND h.startDate < :to
+          AND h.endDate > :from
+    """)
+    List<Object[]> findBusyPeriodsByVehicles(
+            @Param("vehicleIds") Collection<Long> vehicleIds,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("earliestStart") Instant earliestStart,
+            @Param("now") Instant now
+    );
+
+    // Reservas e manutenções do veículo no intervalo, sem ordem definida
+    @Query("""
+        SELECT r.startDate, r.endDate
+        FROM Reservation r
+        WHERE r.vehicle.id = :vehicleId
+          AND r.startDate < :to
+          AND r.startDate >= :earliestStart
+          AND r.endDate > :from
+        UNION ALL
+        SELECT m.startDate, m.endDate
+        FROM MaintenanceWindow m
+        WHERE m.vehicle.id = :vehicleId
+          AND m.startDate < :to
+          AND m.startDate >= :earliestStart
+          AND m.endDate > :from
+    """)
+    List<Object[]> findPeriodsByVehicleBetween(
+            @Param("vehicleId") Long vehicleId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("earliestStart") Instant earliestStart
+    );
+
+    // Manutenções vêm com o id negativo para não colidir com o id das reservas no calendário
+    @Query("""
+        SELECT r.id, r.startDate, r.endDate
+        FROM Reservation r
+        WHERE r.vehicle.id = :vehicleId
+          AND r.endDate > :after
+          AND r.startDate >= :earliestStart
+        UNION ALL
+        SELECT -m.id, m.startDate, m.endDate
+        FROM MaintenanceWindow m
+        WHERE m.vehicle.id = :vehicleId
+          AND m.endDate > :after
+          AND m.startDate >= :earliestStart
+    """)
+    List<Object[]> findPeriodsByVehicleEndingAfter(
+            @Param("vehicleId") Long vehicleId,
+            @Param("after") Instant after,
+            @Param("earliestStart") Instant earliestStart
+    );
+
+    // Linhas do cubo de análise, em páginas por id (carga completa)
+    @Query("""
+        SELECT r.id, v.brand, v.model, v.year, v.color, c.city, r.startDate, r.totalValueCents, r.updatedAt
+        FROM Reservation r
+        JOIN r.vehicle v
+        JOIN r.client c
+        WHERE r.id > :afterId
+        ORDER BY r.id
+    """)
+    List<Object[]> findCubeRowsAfterId(@Param("afterId") long afterId, Pageable pageable);
+
+    // Linhas do cubo alteradas depois de (:after, :afterId), em páginas (carga incremental);
+    // a comparação de tuplas percorre o índice (updated_at, id) a partir do cursor
+    @Query("""
+        SELECT r.id, v.brand, v.model, v.year, v.color, c.city, r.startDate, r.totalValueCents, r.updatedAt
+        FROM Reservation r
+        JOIN r.vehicle v
+        JOIN r.client c
+        WHERE (r.updatedAt, r.id) > (:after, :afterId)
+        ORDER BY r.updatedAt, r.id
+    """)
+    List<Object[]> findCubeRowsUpdatedAfter(@Param("after") Instant after, @Param("afterId") long afterId, Pageable pageable);
+
+    // Ranking por veículo; o Pageable vira LIMIT e só as linhas pedidas saem do banco
+    @Query("""
+        SELECT v.id, v.plate, v.brand, v.model, v.year, COUNT(r), COALESCE(SUM(r.totalValueCents), 0)
+        FROM Reservation r
+        JOIN r.vehicle v
+        GROUP BY v.id, v.plate, v.brand, v.model, v.year
+        ORDER BY COUNT(r) DESC, v.id
+    """)
+    List<Object[]> findVehicleRankingByBookings(Pageable pageable);
+
+    @Query("""
+        SELECT v.id, v.plate, v.brand, v.model, v.year, COUNT(r), COALESCE(SUM(r.totalValueCents), 0)
+        FROM Reservation r
+        JOIN r.vehicle v
+        GROUP BY v.id, v.plate, v.brand, v.model, v.year
+        ORDER BY COALESCE(SUM(r.totalValueCents), 0) DESC, v.id
+    """)
+    List<Object[]> findVehicleRankingByRevenue(Pageable pageable);
+
+    // Reservas e manutenções de toda a frota que terminam depois de :after
+    @Query("""
+        SELECT r.vehicle.id, r.startDate, r.endDate
+        FROM Reservation r
+        WHERE r.endDate > :after
+          AND r.startDate >= :earliestStart
+        UNION ALL
+        SELECT m.vehicle.id, m.startDate, m.endDate
+        FROM MaintenanceWindow m
+        WHERE m.endDate > :after
+          AND m.startDate >= :earliestStart
+    """)
+    List<Object[]> findAllPeriodsEndingAfter(@Param("after") Instant after, @Param("earliestStart") Instant earliestStart);
+
+    // Ordenado por veículo e início, para ser percorrido uma única vez
+    @Query("""
+        SELECT r.vehicle.id, r.startDate, r.endDate
+        FROM Reservation r
+        WHERE r.startDate < :to
+          AND r.startDate >= :earliestStart
+          AND r.endDate > :from
+        ORDER BY r.vehicle.id, r.startDate
+    """)
+    List<Object[]> findPeriodsBetweenOrderByVehicle(
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("earliestStart") Instant earliestStart
+    );
+
+    // Uma fatia [partitionStart, partitionEnd) de startDate: no PostgreSQL lê só a partição do mês
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT r.startDate, r.endDate, r.dailyValueCents
+        FROM Reservation r
+        WHERE r.startDate >= :partitionStart
+          AND r.startDate < :partitionEnd
+          AND r.startDate <= :endPeriod
+          AND r.endDate >= :startPeriod
+          AND r.dailyValueCents > 0
+    """)
+    Stream<Object[]> streamRevenueRowsByPartition(
+            @Param("startPeriod") Instant startPeriod,
+            @Param("endPeriod") Instant endPeriod,
+            @Param("partitionStart") Instant partitionStart,
+            @Param("partitionEnd") Instant partitionEnd
+    );
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.createdAt, r.startDate, r.endDate FROM Reservation r")
+    Stream<Object[]> streamStatsRows();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT v.brand, v.model, r.startDate, r.endDate
+        FROM Reservation r
+        JOIN r.vehicle v
+        WHERE r.endDate > :after
+          AND r.startDate >= :earliestStart
+    """)
+    Stream<Object[]> streamForecastRows(@Param("after") Instant after, @Param("earliestStart") Instant earliestStart);
+
+    // Ativa pelas datas, como em ReservationStatus.at, para quando a coluna status não é mantida
+    @Query("""
+        SELECT r FROM Reservation r
+        JOIN FETCH r.client
+        JOIN FETCH r.vehicle
+        WHERE r.startDate <= :now
+          AND r.startDate >= :earliestStart
+          AND r.endDate >= :now
+        ORDER BY r.id
+    """)
+    List<Reservation> findActiveAtWithDetails(@Param("now") Instant now, @Param("earliestStart") Instant earliestStart);
+
+    // Marcadas como ACTIVE pelo ciclo de vida: igualdade em status pelo índice (status, start_date)
+    @Query("""
+        SELECT r FROM Reservation r
+        JOIN FETCH r.client
+        JOIN FETCH r.vehicle
+        WHERE r.status = ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.ACTIVE
+          AND r.endDate >= :now
+          AND r.startDate >= :earliestStart
+        ORDER BY r.id
+    """)
+    List<Reservation> findActiveWithDetails(@Param("now") Instant now, @Param("earliestStart") Instant earliestStart);
+
+    @Query("""
+        SELECT r FROM Reservation r
+        JOIN FETCH r.client
+        JOIN FETCH r.vehicle
+        WHERE (r.status IS NULL OR r.status <> ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.COMPLETED)
+          AND r.startDate >= :earliestStart
+          AND r.startDate <= :to
+          AND ((r.startDate > :from AND r.startDate <= :to) OR (r.endDate >= :from AND r.endDate <= :to))
+    """)
+    List<Reservation> findByBoundaryBetween(
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("earliestStart") Instant earliestStart
+    );
+
+    @Modifying
+    @Query("""
+        UPDATE Reservation r SET r.status = ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.ACTIVE, r.updatedAt = :now
+        WHERE r.id IN :ids
+          AND (r.status IS NULL OR r.status = ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.SCHEDULED)
+          AND r.startDate <= :now
+          AND r.endDate >= :now
+    """)
+    int activate(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Query("""
+        UPDATE Reservation r SET r.status = ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.COMPLETED, r.updatedAt = :now
+        WHERE r.id IN :ids
+          AND (r.status IS NULL OR r.status <> ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.COMPLETED)
+          AND r.endDate < :now
+    """)
+    int complete(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Query("""
+        UPDATE Reservation r SET r.status = ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.SCHEDULED, r.updatedAt = :now
+        WHERE r.status IS NULL
+          AND r.startDate > :now
+    """)
+    int scheduleAllPending(@Param("now") Instant now);
+
+    @Modifying
+    @Query("""
+        UPDATE Reservation r SET r.status = ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.ACTIVE, r.updatedAt = :now
+        WHERE (r.status IS NULL OR r.status = ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.SCHEDULED)
+          AND r.startDate <= :now
+          AND r.endDate >= :now
+    """)
+    int activateAllDue(@Param("now") Instant now);
+
+    @Modifying
+    @Query("""
+        UPDATE Reservation r SET r.status = ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.COMPLETED, r.updatedAt = :now
+        WHERE (r.status IS NULL OR r.status <> ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus.COMPLETED)
+          AND r.endDate < :now
+    """)
+    int completeAllDue(@Param("now") Instant now);
+
+    @Query("""
+        SELECT r FROM Reservation r
+        JOIN FETCH r.client
+        JOIN FETCH r.vehicle
+        WHERE r.endDate < :cutoff
+          AND r.startDate < :cutoff
+        ORDER BY r.id
+    """)
+    List<Reservation> findCompletedBefore(@Param("cutoff") Instant cutoff, Pageable pageable);
+}
@@ -0,0 +1,110 @@
+package ifmg.edu.projeto_locadora_veiculos.repositories;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+
+/**
+ * Filtros da busca de reservas, paginada por chave em ordem de id. Cliente, veículo e
+ * situação têm índices terminados em id, (client_id, id), (vehicle_id, id) e (status, id):
+ * a página é lida em ordem no índice a partir do cursor, sem ordenar. Período, valor da
+ * diária e marca restringem pelos seus índices, mas as linhas encontradas são ordenadas por
+ * id antes do LIMIT, e o custo cresce com quantas reservas atendem ao filtro. Sem filtro,
+ * a leitura é pela chave primária.
+ */
+public final class ReservationSpecifications {
+
+    private ReservationSpecifications() {
+    }
+
+    // Carrega cliente e veículo no mesmo SELECT; sem isso cada linha faria duas consultas
+    public static Specification<Reservation> withDetails() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("client");
+                root.fetch("vehicle");
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Reservation> clientIs(Long clientId) {
+        return clientId == null ? null : (root, query, cb) -> cb.equal(root.get("client").get("id"), clientId);
+    }
+
+    public static Specification<Reservation> vehicleIs(Long vehicleId) {
+        return vehicleId == null ? null : (root, query, cb) -> cb.equal(root.get("vehicle").get("id"), vehicleId);
+    }
+
+    /**
+     * Reservas que cruzam [from, to). O início também é limitado por baixo
+     * ({@code earliestStart}), para a busca ser um intervalo fechado de start_date.
+     */
+    public static Specification<Reservation> overlaps(Instant from, Instant to, Instant earliestStart) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            var predicate = cb.conjunction();
+            if (to != null) {
+                predicate = cb.and(predicate, cb.lessThan(root.get("startDate"), to));
+            }
+            if (from != null) {
+                predicate = cb.and(predicate,
+                        cb.greaterThanOrEqualTo(root.get("startDate"), earliestStart),
+                        cb.greaterThan(root.get("endDate"), from));
+            }
+            return predicate;
+        };
+    }
+
+    public static Specification<Reservation> statusIs(ReservationStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Reservation> brandIs(String brand) {
+        return brand == null || brand.isBlank()
+                ? null
+                : (root, query, cb) -> cb.equal(vehicle(root).get("brand"), brand.trim());
+    }
+
+    public static Specification<Reservation> dailyValueBetween(Long minCents, Long maxCents) {
+        if (minCents == null && maxCents == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (minCents == null) {
+                return cb.le(root.get("dailyValueCents"), maxCents);
+            }
+            if (maxCents == null) {
+                return cb.ge(root.get("dailyValueCents"), minCents);
+            }
+            return cb.between(root.get("dailyValueCents"), minCents, maxCents);
+        };
+    }
+
+    public static Specification<Reservation> idAfter(Long afterId) {
+        return afterId == null ? null : (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+    }
+
+    // Reaproveita o JOIN de veículo de withDetails; um segundo join ligaria a tabela duas vezes
+    @SuppressWarnings("unchecked")
+    private static Join<Reservation, ?> vehicle(Root<Reservation> root) {
+        for (Fetch<Reservation, ?> fetch : root.getFetches()) {
+            if (fetch.getAttribute().getName().equals("vehicle") && fetch instanceof Join<?, ?> join) {
+                return (Join<Reservation, ?>) join;
+            }
+        }
+        for (Join<Reservation, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals("vehicle")) {
+                return join;
+            }
+        }
+        return root.join("vehicle");
+    }
+}
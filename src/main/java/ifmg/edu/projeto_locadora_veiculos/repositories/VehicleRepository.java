@@ -1,7 +1,53 @@
 package ifmg.edu.projeto_locadora_veiculos.repositories;
 
 import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
 
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+
+    @Query("SELECT v.id FROM Vehicle v")
+    List<Long> findAllIds();
+
+    // Mesma marca e modelo, sem reserva, manutenção nem pré-reserva ativa que se sobreponha ao período
+    @Query("""
+        SELECT v FROM Vehicle v
+        WHERE v.brand = :brand
+          AND v.model = :model
+          AND v.id <> :vehicleId
+          AND NOT EXISTS (
+              SELECT 1 FROM Reservation r
+              WHERE r.vehicle = v
+                AND r.startDate < :endDate
+                AND r.startDate >= :earliestStart
+                AND r.endDate > :startDate)
+          AND NOT EXISTS (
+              SELECT 1 FROM MaintenanceWindow m
+              WHERE m.vehicle = v
+                AND m.startDate < :endDate
+                AND m.startDate >= :earliestStart
+                AND m.endDate > :startDate)
+          AND NOT EXISTS (
+              SELECT 1 FROM ReservationHold h
+              WHERE h.vehicle = v
+                AND h.expiresAt > :now
+                AND h.startDate < :endDate
+                AND h.endDate > :startDate)
+        ORDER BY v.dailyValueCents, v.id
+    """)
+    List<Vehicle> findAvailableSimilar(
+            @Param("vehicleId") Long vehicleId,
+            @Param("brand") String brand,
+            @Param("model") String model,
+            @Param("startDate") Instant startDate,
+            @Param("endDate") Instant endDate,
+            @Param("earliestStart") Instant earliestStart,
+            @Param("now") Instant now,
+            Pageable pageable
+    );
 }
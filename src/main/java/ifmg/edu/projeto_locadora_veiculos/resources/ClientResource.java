@@ -2,6 +2,10 @@ package ifmg.edu.projeto_locadora_veiculos.resources;
 
 import ifmg.edu.projeto_locadora_veiculos.dto.ApiResponseDTO;
 import ifmg.edu.projeto_locadora_veiculos.dto.ClientDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ClientReservationSummaryDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.KeysetPageDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
+import ifmg.edu.projeto_locadora_veiculos.services.ClientReservationService;
 import ifmg.edu.projeto_locadora_veiculos.services.ClientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,6 +19,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +37,9 @@ public class ClientResource {
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private ClientReservationService clientReservationService;
+
     @Operation(
             summary = "Listar todos os clientes com paginação",
             description = "Retorna uma página de clientes. Requer permissão de ADMIN.",
@@ -71,7 +79,7 @@ public class ClientResource {
             @Parameter(description = "ID do cliente", example = "1") @PathVariable Long id) {
         ClientDTO client = clientService.findById(id);
         addHateoasLinks(client);
-        return ResponseEntity.ok().body(client);
+        return ResponseEntity.ok().eTag(ETags.of(client.getVersion())).body(client);
     }
 
     @Operation(
@@ -124,15 +132,17 @@ public class ClientResource {
                     required = true,
                     content = @Content(schema = @Schema(implementation = ClientDTO.class))
             )
-            @RequestBody ClientDTO clientDTO) {
-        ClientDTO updatedClient = clientService.update(id, clientDTO);
+            @RequestBody ClientDTO clientDTO,
+            @Parameter(description = "Versão esperada (ETag); se não for a atual, responde 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ClientDTO updatedClient = clientService.update(id, clientDTO, ETags.parseIfMatch(ifMatch));
         addHateoasLinks(updatedClient);
         ApiResponseDTO<ClientDTO> response = new ApiResponseDTO<>(
                 "Cliente atualizado com sucesso!",
                 updatedClient
         );
 
-        return ResponseEntity.ok().body(response);
+        return ResponseEntity.ok().eTag(ETags.of(updatedClient.getVersion())).body(response);
     }
 
     @Operation(
@@ -151,10 +161,48 @@ public class ClientResource {
         return ResponseEntity.ok("Cliente deletado com sucesso.");
     }
 
+    @Operation(
+            summary = "Histórico de reservas do cliente",
+            description = "Retorna as reservas do cliente da mais recente para a mais antiga, paginadas por cursor. "
+                    + "Para a próxima página, envie o nextCursor da resposta anterior. "
+                    + "Requer permissão de ADMIN ou ser o próprio cliente.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Página do histórico"),
+                    @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Cliente não encontrado", content = @Content)
+            }
+    )
+    @GetMapping(value = "/{id}/reservations")
+    @PreAuthorize("hasRole('ADMIN') or @clientReservationService.isSelf(#id, authentication.name)")
+    public ResponseEntity<KeysetPageDTO<ReservationDTO>> reservations(
+            @Parameter(description = "ID do cliente", example = "1") @PathVariable Long id,
+            @Parameter(description = "Cursor devolvido pela página anterior")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") Integer size) {
+        return ResponseEntity.ok(clientReservationService.history(id, cursor, size));
+    }
+
+    @Operation(
+            summary = "Resumo das reservas do cliente",
+            description = "Retorna as contagens por situação, o valor gasto e a próxima reserva do cliente. "
+                    + "Requer permissão de ADMIN ou ser o próprio cliente.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Resumo do cliente",
+                            content = @Content(schema = @Schema(implementation = ClientReservationSummaryDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Cliente não encontrado", content = @Content)
+            }
+    )
+    @GetMapping(value = "/{id}/reservations/summary")
+    @PreAuthorize("hasRole('ADMIN') or @clientReservationService.isSelf(#id, authentication.name)")
+    public ResponseEntity<ClientReservationSummaryDTO> reservationSummary(
+            @Parameter(description = "ID do cliente", example = "1") @PathVariable Long id) {
+        return ResponseEntity.ok(clientReservationService.summary(id));
+    }
+
     private void addHateoasLinks(ClientDTO client) {
         client.add(linkTo(methodOn(ClientResource.class).findById(client.getId())).withSelfRel());
         client.add(linkTo(methodOn(ClientResource.class).findAll(0, 10, "ASC", "id")).withRel("list"));
-        client.add(linkTo(methodOn(ClientResource.class).update(client.getId(), null)).withRel("update"));
+        client.add(linkTo(methodOn(ClientResource.class).update(client.getId(), null, null)).withRel("update"));
         client.add(linkTo(methodOn(ClientResource.class).delete(client.getId())).withRel("delete"));
         client.add(linkTo(methodOn(ClientResource.class).insert(null)).withRel("insert"));
     }
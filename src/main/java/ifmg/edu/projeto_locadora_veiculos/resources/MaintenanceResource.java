@@ -0,0 +1,80 @@
+package ifmg.edu.projeto_locadora_veiculos.resources;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.ApiResponseDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.MaintenanceWindowDTO;
+import ifmg.edu.projeto_locadora_veiculos.services.MaintenanceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
+
+@RestController
+@RequestMapping(value = "/vehicle/{vehicleId}/maintenance")
+@Tag(name = "Manutenções", description = "API para bloquear veículos em manutenção")
+public class MaintenanceResource {
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Operation(summary = "Listar manutenções", description = "Retorna as janelas de manutenção do veículo")
+    @GetMapping
+    public ResponseEntity<List<MaintenanceWindowDTO>> findByVehicle(
+            @Parameter(description = "ID do veículo", example = "1") @PathVariable Long vehicleId) {
+        List<MaintenanceWindowDTO> list = maintenanceService.findByVehicle(vehicleId);
+        list.forEach(this::addHateoasLinks);
+        return ResponseEntity.ok(list);
+    }
+
+    @Operation(
+            summary = "Agendar manutenção",
+            description = "Bloqueia o veículo no período informado. Requer permissão ADMIN.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Manutenção agendada",
+                            content = @Content(schema = @Schema(implementation = MaintenanceWindowDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Veículo não encontrado", content = @Content),
+                    @ApiResponse(responseCode = "409", description = "Período com reserva, pré-reserva ou outra manutenção", content = @Content)
+            }
+    )
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDTO<MaintenanceWindowDTO>> insert(
+            @Parameter(description = "ID do veículo", example = "1") @PathVariable Long vehicleId,
+            @RequestBody MaintenanceWindowDTO dto) {
+        MaintenanceWindowDTO window = maintenanceService.insert(vehicleId, dto);
+        addHateoasLinks(window);
+
+        URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
+                .buildAndExpand(window.getId()).toUri();
+
+        return ResponseEntity.created(uri).body(new ApiResponseDTO<>("Manutenção agendada com sucesso!", window));
+    }
+
+    @Operation(summary = "Remover manutenção", description = "Libera o período bloqueado. Requer permissão ADMIN.")
+    @DeleteMapping(value = "/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDTO<String>> delete(
+            @Parameter(description = "ID do veículo", example = "1") @PathVariable Long vehicleId,
+            @Parameter(description = "ID da manutenção", example = "1") @PathVariable Long id) {
+        maintenanceService.delete(vehicleId, id);
+        return ResponseEntity.ok().body(new ApiResponseDTO<>("Manutenção removida com sucesso!", null));
+    }
+
+    private void addHateoasLinks(MaintenanceWindowDTO window) {
+        window.add(linkTo(methodOn(MaintenanceResource.class).findByVehicle(window.getVehicleId())).withRel("list"));
+        window.add(linkTo(methodOn(MaintenanceResource.class).delete(window.getVehicleId(), window.getId())).withRel("delete"));
+        window.add(linkTo(methodOn(VehicleResource.class).findById(window.getVehicleId())).withRel("vehicle"));
+    }
+}
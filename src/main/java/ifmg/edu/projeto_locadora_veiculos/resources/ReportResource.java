@@ -1,6 +1,17 @@
 package ifmg.edu.projeto_locadora_veiculos.resources;
 
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationCube.Dimension;
+import ifmg.edu.projeto_locadora_veiculos.dto.CubeRowDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.DemandForecastDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationStatsDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.UtilizationDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.VehicleCalendarDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.VehicleRankingDTO;
+import ifmg.edu.projeto_locadora_veiculos.reports.ReportFormats;
 import ifmg.edu.projeto_locadora_veiculos.services.ClientService;
+import ifmg.edu.projeto_locadora_veiculos.services.FleetReportService;
+import ifmg.edu.projeto_locadora_veiculos.services.FleetReportService.Granularity;
+import ifmg.edu.projeto_locadora_veiculos.services.FleetReportService.Ranking;
 import ifmg.edu.projeto_locadora_veiculos.services.ReservationService;
 import ifmg.edu.projeto_locadora_veiculos.services.VehicleService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,6 +21,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -20,13 +35,19 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(value = "/report")
 @Tag(name = "Relatórios", description = "API para consulta de relatórios")
 public class ReportResource {
 
+    private static final DateTimeFormatter INPUT_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
     @Autowired
     private ReservationService reservationService;
 
@@ -36,6 +57,9 @@ public class ReportResource {
     @Autowired
     private VehicleService vehicleService;
 
+    @Autowired
+    private FleetReportService fleetReportService;
+
     @Operation(
             summary = "Relatório de clientes",
             description = "Lista formatada com todos os clientes cadastrados. Requer permissão ADMIN.",
@@ -92,9 +116,11 @@ public class ReportResource {
     @GetMapping("/invoice/{clientId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
     public ResponseEntity<String> generateInvoice(
-            @Parameter(description = "ID do cliente", example = "1") @PathVariable Long clientId) {
+            @Parameter(description = "ID do cliente", example = "1") @PathVariable Long clientId,
+            @Parameter(description = "Incluir reservas arquivadas", example = "false")
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
         try {
-            String taxCoupon = reservationService.generateInvoice(clientId);
+            String taxCoupon = reservationService.generateInvoice(clientId, includeArchived);
             return ResponseEntity.ok(taxCoupon);
         } catch (IllegalArgumentException | ResponseStatusException e) {
             return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
@@ -117,6 +143,29 @@ public class ReportResource {
         return report.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
     }
 
+    @Operation(
+            summary = "Veículos mais reservados",
+            description = "Ranking dos veículos por quantidade de reservas ou por receita. Requer permissão ADMIN.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ranking retornado com sucesso"),
+                    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos", content = @Content)
+            }
+    )
+    @GetMapping("/vehicles/top")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<VehicleRankingDTO>> getTopVehicles(
+            @Parameter(description = "bookings ou revenue", example = "bookings")
+            @RequestParam(value = "by", defaultValue = "bookings") String by,
+            @Parameter(description = "Quantidade de veículos", example = "10")
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        Ranking ranking;
+        try {
+            ranking = Ranking.valueOf(by.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parâmetro by inválido. Use bookings ou revenue.");
+        }
+        return ResponseEntity.ok(fleetReportService.topVehicles(ranking, limit));
+    }
 
     @Operation(
             summary = "Calcular faturamento por período",
@@ -130,31 +179,178 @@ public class ReportResource {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<String> getRevenue(
             @RequestParam("start") String start,
-            @RequestParam("end") String end
+            @RequestParam("end") String end,
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived
     ) {
         try {
-            DateTimeFormatter inputFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-            DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-
-            LocalDateTime startDate = LocalDate.parse(start, inputFormatter).atStartOfDay();
-            LocalDateTime endDate = LocalDate.parse(end, inputFormatter).atTime(23, 59, 59);
+            LocalDateTime startDate = LocalDate.parse(start, INPUT_DATE_FORMATTER).atStartOfDay();
+            LocalDateTime endDate = LocalDate.parse(end, INPUT_DATE_FORMATTER).atTime(23, 59, 59);
 
             Instant startInstant = startDate.toInstant(ZoneOffset.UTC);
             Instant endInstant = endDate.toInstant(ZoneOffset.UTC);
 
-            double revenue = reservationService.calculateRevenueByPeriod(startInstant, endInstant);
+            long revenueCents = reservationService.calculateRevenueByPeriod(startInstant, endInstant, includeArchived);
 
-            String response = String.format(
-                    "Faturamento do período de %s à %s: R$ %.2f",
-                    outputFormatter.format(startDate),
-                    outputFormatter.format(endDate),
-                    revenue
-            );
+            StringBuilder response = new StringBuilder(64).append("Faturamento do período de ");
+            ReportFormats.appendDate(response, startInstant).append(" à ");
+            ReportFormats.appendDate(response, endInstant).append(": R$ ");
+            ReportFormats.appendMoney(response, revenueCents);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(response.toString());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Parâmetros de data inválidos. Use o formato yyyy-MM-dd.");
         }
     }
 
+    @Operation(
+            summary = "Ocupação da frota",
+            description = "Veículos reservados e percentual de ocupação da frota por dia, semana ou mês (UTC). Requer permissão ADMIN.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ocupação calculada com sucesso"),
+                    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos", content = @Content)
+            }
+    )
+    @GetMapping("/utilization")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<UtilizationDTO>> getUtilization(
+            @Parameter(description = "Data inicial (dd-MM-yyyy)", example = "01-07-2024") @RequestParam("start") String start,
+            @Parameter(description = "Data final, inclusive (dd-MM-yyyy)", example = "31-07-2024") @RequestParam("end") String end,
+            @Parameter(description = "day, week ou month", example = "day")
+            @RequestParam(value = "granularity", defaultValue = "day") String granularity) {
+        try {
+            LocalDate startDay = LocalDate.parse(start, INPUT_DATE_FORMATTER);
+            LocalDate endDay = LocalDate.parse(end, INPUT_DATE_FORMATTER);
+            Granularity unit = Granularity.valueOf(granularity.toUpperCase());
+            return ResponseEntity.ok(fleetReportService.utilization(startDay, endDay, unit));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Parâmetros inválidos. Use datas no formato dd-MM-yyyy e granularity day, week ou month.");
+        }
+    }
+
+    @Operation(
+            summary = "Análise de reservas",
+            description = "Reservas e receita agrupadas por brand, model, year, color, city e/ou month (yyyy-MM), "
+                    + "com filtros opcionais pelos mesmos campos. Requer permissão ADMIN.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Agregação calculada com sucesso"),
+                    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos", content = @Content)
+            }
+    )
+    @GetMapping("/analytics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CubeRowDTO>> getAnalytics(
+            @Parameter(description = "Dimensões de agrupamento", example = "brand")
+            @RequestParam(value = "groupBy", required = false) List<String> groupBy,
+            @RequestParam(value = "brand", required = false) List<String> brand,
+            @RequestParam(value = "model", required = false) List<String> model,
+            @RequestParam(value = "year", required = false) List<String> year,
+            @RequestParam(value = "color", required = false) List<String> color,
+            @RequestParam(value = "city", required = false) List<String> city,
+            @RequestParam(value = "month", required = false) List<String> month) {
+        List<Dimension> dimensions = new ArrayList<>();
+        try {
+            for (String name : groupBy == null ? List.<String>of() : groupBy) {
+                dimensions.add(Dimension.valueOf(name.trim().toUpperCase()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Dimensão inválida. Use brand, model, year, color, city ou month.");
+        }
+
+        Map<Dimension, List<String>> filters = new EnumMap<>(Dimension.class);
+        putFilter(filters, Dimension.BRAND, brand);
+        putFilter(filters, Dimension.MODEL, model);
+        putFilter(filters, Dimension.YEAR, year);
+        putFilter(filters, Dimension.COLOR, color);
+        putFilter(filters, Dimension.CITY, city);
+        putFilter(filters, Dimension.MONTH, month);
+
+        return ResponseEntity.ok(fleetReportService.analytics(dimensions, filters));
+    }
+
+    @Operation(
+            summary = "Estatísticas das reservas",
+            description = "Média, percentis 50/90/99 e histograma por faixas, em horas, da duração das reservas "
+                    + "e da antecedência entre a criação e o início. Requer permissão ADMIN.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso")
+            }
+    )
+    @GetMapping("/reservations/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReservationStatsDTO> getReservationStats(
+            @Parameter(description = "Relê todas as reservas antes de responder", example = "false")
+            @RequestParam(value = "rebuild", defaultValue = "false") boolean rebuild) {
+        return ResponseEntity.ok(fleetReportService.reservationStats(rebuild));
+    }
+
+    @Operation(
+            summary = "Previsão de demanda",
+            description = "Veículos reservados e previstos por dia (UTC) para cada marca/modelo nas próximas semanas, "
+                    + "a partir da média ponderada do histórico por dia da semana. Requer permissão ADMIN.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Previsão retornada com sucesso"),
+                    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos", content = @Content)
+            }
+    )
+    @GetMapping("/forecast")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<DemandForecastDTO>> getForecast(
+            @Parameter(description = "Semanas a prever a partir de hoje", example = "4")
+            @RequestParam(value = "weeks", defaultValue = "4") int weeks,
+            @RequestParam(value = "brand", required = false) String brand,
+            @RequestParam(value = "model", required = false) String model) {
+        return ResponseEntity.ok(fleetReportService.forecast(weeks, brand, model));
+    }
+
+    private static void putFilter(Map<Dimension, List<String>> filters, Dimension dimension, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(dimension, values);
+        }
+    }
+
+    @Operation(
+            summary = "Calendário da frota",
+            description = "Grade veículos × dias (UTC) com a ocupação de cada veículo, paginada por veículo. Requer permissão ADMIN.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Grade retornada com sucesso"),
+                    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos", content = @Content)
+            }
+    )
+    @GetMapping("/calendar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<VehicleCalendarDTO>> getCalendar(
+            @Parameter(description = "Data inicial (dd-MM-yyyy)", example = "01-07-2024") @RequestParam("start") String start,
+            @Parameter(description = "Data final, inclusive (dd-MM-yyyy)", example = "31-07-2024") @RequestParam("end") String end,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "50") Integer size) {
+        try {
+            LocalDate startDay = LocalDate.parse(start, INPUT_DATE_FORMATTER);
+            LocalDate endDay = LocalDate.parse(end, INPUT_DATE_FORMATTER);
+            return ResponseEntity.ok(fleetReportService.calendar(startDay, endDay, PageRequest.of(page, size, Sort.by("id"))));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parâmetros inválidos. Use datas no formato dd-MM-yyyy.");
+        }
+    }
+
+    @Operation(
+            summary = "Veículos livres",
+            description = "IDs dos veículos sem reserva nem manutenção em todos os dias informados. Requer permissão ADMIN.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Veículos livres"),
+                    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos", content = @Content)
+            }
+    )
+    @GetMapping("/calendar/free")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Long>> getFreeVehicles(
+            @Parameter(description = "Dias (dd-MM-yyyy), pode repetir", example = "01-07-2024") @RequestParam("days") List<String> days) {
+        try {
+            List<LocalDate> parsed = days.stream().map(day -> LocalDate.parse(day, INPUT_DATE_FORMATTER)).toList();
+            return ResponseEntity.ok(fleetReportService.freeVehicles(parsed));
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parâmetros inválidos. Use datas no formato dd-MM-yyyy.");
+        }
+    }
 }
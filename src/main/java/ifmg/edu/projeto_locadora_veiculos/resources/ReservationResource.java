@@ -1,24 +1,32 @@
 package ifmg.edu.projeto_locadora_veiculos.resources;
 
 import ifmg.edu.projeto_locadora_veiculos.dto.ApiResponseDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.KeysetPageDTO;
 import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationHoldDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationSearchDTO;
 import ifmg.edu.projeto_locadora_veiculos.services.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springdoc.core.annotations.ParameterObject;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -53,6 +61,27 @@ public class ReservationResource {
         return ResponseEntity.ok().body(reservations);
     }
 
+    @Operation(
+            summary = "Buscar reservas por filtros",
+            description = "Filtra por cliente, veículo, período, situação, marca e valor da diária, em ordem de ID. "
+                    + "Para a próxima página, envie o nextCursor recebido. Requer permissão ADMIN.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Página de reservas retornada com sucesso"),
+                    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos", content = @Content)
+            }
+    )
+    @GetMapping(value = "/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<KeysetPageDTO<ReservationDTO>> search(
+            @ParameterObject ReservationSearchDTO filter,
+            @Parameter(description = "Cursor devolvido pela página anterior") @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Tamanho da página", example = "20") @RequestParam(value = "size", defaultValue = "20") Integer size
+    ) {
+        KeysetPageDTO<ReservationDTO> page = reservationService.search(filter, cursor, size);
+        page.getContent().forEach(this::addHateoasLinks);
+        return ResponseEntity.ok().body(page);
+    }
+
     @Operation(
             summary = "Buscar reserva por ID",
             description = "Retorna os dados de uma reserva específica. Requer permissão ADMIN.",
@@ -68,12 +97,14 @@ public class ReservationResource {
             @Parameter(description = "ID da reserva", example = "1") @PathVariable Long id) {
         ReservationDTO dto = reservationService.findById(id);
         addHateoasLinks(dto);
-        return ResponseEntity.ok().body(dto);
+        return ResponseEntity.ok().eTag(ETags.of(dto.getVersion())).body(dto);
     }
 
     @Operation(
             summary = "Criar nova reserva",
             description = "Cria uma nova reserva. Requer permissão ADMIN/CLIENT.",
+            parameters = @Parameter(in = ParameterIn.HEADER, name = IdempotencyFilter.HEADER,
+                    description = "Chave opcional; repetições com a mesma chave recebem a resposta original"),
             responses = {
                     @ApiResponse(responseCode = "201", description = "Reserva criada com sucesso",
                             content = @Content(schema = @Schema(implementation = ReservationDTO.class))),
@@ -121,8 +152,10 @@ public class ReservationResource {
                     required = true,
                     content = @Content(schema = @Schema(implementation = ReservationDTO.class))
             )
-            @org.springframework.web.bind.annotation.RequestBody ReservationDTO dto) {
-        ReservationDTO updated = reservationService.update(id, dto);
+            @org.springframework.web.bind.annotation.RequestBody ReservationDTO dto,
+            @Parameter(description = "Versão esperada (ETag); se não for a atual, responde 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ReservationDTO updated = reservationService.update(id, dto, ETags.parseIfMatch(ifMatch));
         addHateoasLinks(updated);
 
         ApiResponseDTO<ReservationDTO> response = new ApiResponseDTO<>(
@@ -130,7 +163,7 @@ public class ReservationResource {
                 updated
         );
 
-        return ResponseEntity.ok().body(response);
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(response);
     }
 
     @Operation(
@@ -154,10 +187,126 @@ public class ReservationResource {
         return ResponseEntity.ok().body(response);
     }
 
+    @Operation(
+            summary = "Reserva em grupo",
+            description = "Cria reservas para vários veículos de uma vez: todas ou nenhuma. Requer permissão ADMIN/CLIENT.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Todas as reservas foram criadas"),
+                    @ApiResponse(responseCode = "409", description = "Algum veículo está indisponível; nada foi gravado",
+                            content = @Content)
+            }
+    )
+    @PostMapping(value = "/group")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    public ResponseEntity<ApiResponseDTO<List<ReservationDTO>>> insertGroup(
+            @RequestBody(description = "Reservas do grupo", required = true)
+            @org.springframework.web.bind.annotation.RequestBody List<ReservationDTO> items) {
+        List<ReservationDTO> created = reservationService.insertGroup(items);
+        created.forEach(this::addHateoasLinks);
+
+        ApiResponseDTO<List<ReservationDTO>> response = new ApiResponseDTO<>(
+                created.size() + " reservas criadas com sucesso!",
+                created
+        );
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @Operation(
+            summary = "Criar pré-reserva",
+            description = "Bloqueia o veículo no período por alguns minutos enquanto o pagamento é processado. "
+                    + "Requer permissão ADMIN/CLIENT.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Pré-reserva criada",
+                            content = @Content(schema = @Schema(implementation = ReservationHoldDTO.class))),
+                    @ApiResponse(responseCode = "409", description = "Período indisponível", content = @Content)
+            }
+    )
+    @PostMapping(value = "/hold")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    public ResponseEntity<ApiResponseDTO<ReservationHoldDTO>> hold(
+            @RequestBody(
+                    description = "Cliente, veículo e período a bloquear",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = ReservationDTO.class))
+            )
+            @org.springframework.web.bind.annotation.RequestBody ReservationDTO dto) {
+        ReservationHoldDTO hold = reservationService.hold(dto);
+        addHateoasLinks(hold);
+
+        URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
+                .buildAndExpand(hold.getId()).toUri();
+
+        return ResponseEntity.created(uri).body(new ApiResponseDTO<>("Pré-reserva criada com sucesso!", hold));
+    }
+
+    @Operation(
+            summary = "Buscar pré-reserva",
+            description = "Retorna uma pré-reserva ainda válida. Requer permissão de ADMIN ou ser o cliente da pré-reserva.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Pré-reserva encontrada",
+                            content = @Content(schema = @Schema(implementation = ReservationHoldDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Pré-reserva não encontrada ou expirada", content = @Content)
+            }
+    )
+    @GetMapping(value = "/hold/{holdId}")
+    @PreAuthorize("hasRole('ADMIN') or @reservationHoldService.isOwner(#holdId, authentication.name)")
+    public ResponseEntity<ReservationHoldDTO> findHold(
+            @Parameter(description = "ID da pré-reserva", example = "1") @PathVariable Long holdId) {
+        ReservationHoldDTO hold = reservationService.findHold(holdId);
+        addHateoasLinks(hold);
+        return ResponseEntity.ok(hold);
+    }
+
+    @Operation(
+            summary = "Confirmar pré-reserva",
+            description = "Converte a pré-reserva em reserva de forma atômica. Requer permissão de ADMIN ou ser o cliente da pré-reserva.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Reserva criada",
+                            content = @Content(schema = @Schema(implementation = ReservationDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Pré-reserva não encontrada", content = @Content),
+                    @ApiResponse(responseCode = "410", description = "Pré-reserva expirada", content = @Content)
+            }
+    )
+    @PostMapping(value = "/hold/{holdId}/confirm")
+    @PreAuthorize("hasRole('ADMIN') or @reservationHoldService.isOwner(#holdId, authentication.name)")
+    public ResponseEntity<ApiResponseDTO<ReservationDTO>> confirmHold(
+            @Parameter(description = "ID da pré-reserva", example = "1") @PathVariable Long holdId) {
+        ReservationDTO reservation = reservationService.confirmHold(holdId);
+        addHateoasLinks(reservation);
+
+        URI uri = ServletUriComponentsBuilder.fromCurrentContextPath().path("/reservation/{id}")
+                .buildAndExpand(reservation.getId()).toUri();
+
+        return ResponseEntity.created(uri).body(new ApiResponseDTO<>("Reserva confirmada com sucesso!", reservation));
+    }
+
+    @Operation(
+            summary = "Liberar pré-reserva",
+            description = "Remove o bloqueio antes do prazo. Requer permissão de ADMIN ou ser o cliente da pré-reserva.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Pré-reserva liberada"),
+                    @ApiResponse(responseCode = "404", description = "Pré-reserva não encontrada", content = @Content)
+            }
+    )
+    @DeleteMapping(value = "/hold/{holdId}")
+    @PreAuthorize("hasRole('ADMIN') or @reservationHoldService.isOwner(#holdId, authentication.name)")
+    public ResponseEntity<ApiResponseDTO<String>> releaseHold(
+            @Parameter(description = "ID da pré-reserva", example = "1") @PathVariable Long holdId) {
+        reservationService.releaseHold(holdId);
+        return ResponseEntity.ok().body(new ApiResponseDTO<>("Pré-reserva liberada com sucesso!", null));
+    }
+
+    private void addHateoasLinks(ReservationHoldDTO hold) {
+        hold.add(linkTo(methodOn(ReservationResource.class).findHold(hold.getId())).withSelfRel());
+        hold.add(linkTo(methodOn(ReservationResource.class).confirmHold(hold.getId())).withRel("confirm"));
+        hold.add(linkTo(methodOn(ReservationResource.class).releaseHold(hold.getId())).withRel("release"));
+    }
+
     private void addHateoasLinks(ReservationDTO reservation) {
         reservation.add(linkTo(methodOn(ReservationResource.class).findById(reservation.getId())).withSelfRel());
         reservation.add(linkTo(methodOn(ReservationResource.class).findAll(0, 10, "ASC", "id")).withRel("list"));
-        reservation.add(linkTo(methodOn(ReservationResource.class).update(reservation.getId(), null)).withRel("update"));
+        reservation.add(linkTo(methodOn(ReservationResource.class).update(reservation.getId(), null, null)).withRel("update"));
         reservation.add(linkTo(methodOn(ReservationResource.class).delete(reservation.getId())).withRel("delete"));
         reservation.add(linkTo(methodOn(ReservationResource.class).insert(null)).withRel("insert"));
     }
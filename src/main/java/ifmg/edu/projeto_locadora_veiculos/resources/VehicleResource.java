@@ -4,6 +4,8 @@ import ifmg.edu.projeto_locadora_veiculos.dto.ApiResponseDTO;
 import ifmg.edu.projeto_locadora_veiculos.dto.VehicleDTO;
 import ifmg.edu.projeto_locadora_veiculos.services.VehicleService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
@@ -12,6 +14,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -55,10 +58,12 @@ public class VehicleResource {
     public ResponseEntity<VehicleDTO> findById(@PathVariable Long id) {
         VehicleDTO dto = vehicleService.findById(id);
         addHateoasLinks(dto);
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok().eTag(ETags.of(dto.getVersion())).body(dto);
     }
 
-    @Operation(summary = "Inserir veículo", description = "Adiciona um novo veículo")
+    @Operation(summary = "Inserir veículo", description = "Adiciona um novo veículo",
+            parameters = @Parameter(in = ParameterIn.HEADER, name = IdempotencyFilter.HEADER,
+                    description = "Chave opcional; repetições com a mesma chave recebem a resposta original"))
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponseDTO<VehicleDTO>> insert(@RequestBody VehicleDTO dto) {
@@ -75,18 +80,20 @@ public class VehicleResource {
         return ResponseEntity.created(uri).body(response);
     }
 
-    @Operation(summary = "Atualizar veículo", description = "Atualiza um veículo existente")
+    @Operation(summary = "Atualizar veículo",
+            description = "Atualiza um veículo existente. Com If-Match, responde 412 se a versão não for a atual")
     @PutMapping(value = "/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponseDTO<VehicleDTO>> update(@PathVariable Long id, @RequestBody VehicleDTO dto) {
-        VehicleDTO updatedDto = vehicleService.update(id, dto);
+    public ResponseEntity<ApiResponseDTO<VehicleDTO>> update(@PathVariable Long id, @RequestBody VehicleDTO dto,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        VehicleDTO updatedDto = vehicleService.update(id, dto, ETags.parseIfMatch(ifMatch));
         addHateoasLinks(updatedDto);
         ApiResponseDTO<VehicleDTO> response = new ApiResponseDTO<>(
                 "Veículo atualizado com sucesso!",
                 updatedDto
         );
 
-        return ResponseEntity.ok().body(response);
+        return ResponseEntity.ok().eTag(ETags.of(updatedDto.getVersion())).body(response);
     }
 
     @Operation(summary = "Deletar veículo", description = "Remove um veículo do sistema")
@@ -100,7 +107,7 @@ public class VehicleResource {
     private void addHateoasLinks(VehicleDTO vehicle) {
         vehicle.add(linkTo(methodOn(VehicleResource.class).findById(vehicle.getId())).withSelfRel());
         vehicle.add(linkTo(methodOn(VehicleResource.class).findAll(0, 10, "ASC", "id")).withRel("list"));
-        vehicle.add(linkTo(methodOn(VehicleResource.class).update(vehicle.getId(), null)).withRel("update"));
+        vehicle.add(linkTo(methodOn(VehicleResource.class).update(vehicle.getId(), null, null)).withRel("update"));
         vehicle.add(linkTo(methodOn(VehicleResource.class).delete(vehicle.getId())).withRel("delete"));
         vehicle.add(linkTo(methodOn(VehicleResource.class).insert(null)).withRel("insert"));
     }
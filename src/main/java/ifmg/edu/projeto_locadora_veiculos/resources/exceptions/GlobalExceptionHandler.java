@@ -1,16 +1,20 @@
 package ifmg.edu.projeto_locadora_veiculos.resources.exceptions;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
 
+import ifmg.edu.projeto_locadora_veiculos.services.exceptions.BookingConflict;
+import ifmg.edu.projeto_locadora_veiculos.services.exceptions.PreconditionFailed;
 import ifmg.edu.projeto_locadora_veiculos.services.exceptions.ResourceNotFound;
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestControllerAdvice
@@ -25,6 +29,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(ex.getStatusCode()).body(body);
     }
 
+    @ExceptionHandler(BookingConflict.class)
+    public ResponseEntity<Map<String, Object>> handleBookingConflict(BookingConflict ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", ex.getStatusCode().toString());
+        body.put("message", ex.getReason());
+        body.put("alternatives", ex.getAlternatives());
+        return ResponseEntity.status(ex.getStatusCode()).body(body);
+    }
+
     @ExceptionHandler(ResourceNotFound.class)
     public ResponseEntity<StandardError> resourceNotFound(ResourceNotFound e, HttpServletRequest request) {
         StandardError error = new StandardError();
@@ -37,6 +50,30 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(PreconditionFailed.class)
+    public ResponseEntity<StandardError> preconditionFailed(PreconditionFailed e, HttpServletRequest request) {
+        StandardError error = new StandardError();
+        error.setTimestamp(Instant.now());
+        error.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+        error.setError("Precondition failed");
+        error.setMessage(e.getMessage());
+        error.setPath(request.getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<StandardError> concurrentUpdate(OptimisticLockingFailureException e, HttpServletRequest request) {
+        StandardError error = new StandardError();
+        error.setTimestamp(Instant.now());
+        error.setStatus(HttpStatus.CONFLICT.value());
+        error.setError("Concurrent update");
+        error.setMessage("O registro foi alterado por outra requisição, tente novamente");
+        error.setPath(request.getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, String>> handleIllegalArgumentException(
             IllegalArgumentException ex) {
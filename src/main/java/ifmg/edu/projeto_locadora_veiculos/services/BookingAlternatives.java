@@ -0,0 +1,125 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationAlternativesDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationAlternativesDTO.FreeWindow;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationAlternativesDTO.SimilarVehicle;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationHoldRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Alternativas para uma reserva recusada por conflito: as janelas livres de mesma duração
+ * mais próximas no próprio veículo (uma antes e uma depois do início pedido) e veículos da
+ * mesma marca e modelo livres no período. Roda fora do lock do veículo, então é uma
+ * sugestão, não uma garantia.
+ */
+@Component
+public class BookingAlternatives {
+
+    private record Busy(Instant start, Instant end) {
+    }
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationHoldRepository reservationHoldRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Value("${locadora.reservation.max-duration-days:365}")
+    private long maxDurationDays;
+
+    @Value("${locadora.reservation.alternatives.search-days:30}")
+    private long searchDays;
+
+    @Value("${locadora.reservation.alternatives.max-vehicles:3}")
+    private int maxVehicles;
+
+    @Transactional(readOnly = true)
+    public ReservationAlternativesDTO suggest(Long vehicleId, Instant startDate, Instant endDate) {
+        Instant now = Instant.now();
+        return vehicleRepository.findById(vehicleId)
+                .map(vehicle -> new ReservationAlternativesDTO(
+                        nearestWindows(vehicleId, startDate, endDate, now),
+                        vehicleRepository.findAvailableSimilar(vehicleId, vehicle.getBrand(), vehicle.getModel(),
+                                        startDate, endDate, startDate.minus(Duration.ofDays(maxDurationDays)), now,
+                                        PageRequest.of(0, maxVehicles))
+                                .stream()
+                                .map(SimilarVehicle::new)
+                                .toList()))
+                .orElseGet(() -> new ReservationAlternativesDTO(List.of(), List.of()));
+    }
+
+    /**
+     * Percorre uma vez, em ordem de início, os períodos ocupados no intervalo de busca. Em
+     * cada intervalo livre que comporta a duração pedida, a janela mais próxima do início
+     * pedido é a que encosta nele; a busca para na primeira janela posterior.
+     */
+    private List<FreeWindow> nearestWindows(Long vehicleId, Instant startDate, Instant endDate, Instant now) {
+        Duration duration = Duration.between(startDate, endDate);
+        Instant from = max(now, startDate.minus(Duration.ofDays(searchDays)));
+        Instant to = endDate.plus(Duration.ofDays(searchDays));
+
+        List<Busy> busy = new ArrayList<>();
+        for (Object[] row : reservationRepository.findPeriodsByVehicleBetween(
+                vehicleId, from, to, from.minus(Duration.ofDays(maxDurationDays)))) {
+            busy.add(new Busy((Instant) row[0], (Instant) row[1]));
+        }
+        for (Object[] row : reservationHoldRepository.findActivePeriodsByVehicle(vehicleId, now)) {
+            busy.add(new Busy((Instant) row[1], (Instant) row[2]));
+        }
+        // Reservas, manutenções e pré-reservas chegam sem ordem
+        busy.sort(Comparator.comparing(Busy::start));
+
+        FreeWindow before = null;
+        FreeWindow after = null;
+        Instant cursor = from;
+        for (int i = 0; i <= busy.size() && after == null; i++) {
+            Instant gapEnd = i < busy.size() ? min(busy.get(i).start(), to) : to;
+            if (Duration.between(cursor, gapEnd).compareTo(duration) >= 0) {
+                Instant latestStart = gapEnd.minus(duration);
+                Instant candidate = startDate.isBefore(cursor) ? cursor
+                        : startDate.isAfter(latestStart) ? latestStart : startDate;
+                FreeWindow window = new FreeWindow(candidate, candidate.plus(duration));
+                if (candidate.isBefore(startDate)) {
+                    before = window;
+                } else {
+                    after = window;
+                }
+            }
+            if (i < busy.size()) {
+                cursor = max(cursor, busy.get(i).end());
+            }
+        }
+
+        List<FreeWindow> windows = new ArrayList<>(2);
+        if (before != null) {
+            windows.add(before);
+        }
+        if (after != null) {
+            windows.add(after);
+        }
+        return windows;
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,658 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.analytics.DemandForecast;
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationCube;
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationStats;
+import ifmg.edu.projeto_locadora_veiculos.dto.MaintenanceWindowDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationHoldDTO;
+import ifmg.edu.projeto_locadora_veiculos.entities.Client;
+import ifmg.edu.projeto_locadora_veiculos.entities.MaintenanceWindow;
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationHold;
+import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.MaintenanceWindowRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationHoldRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Motor opcional de reservas em shards de escrita única. Cada veículo pertence a um
+ * shard; a thread do shard mantém em memória o calendário dos veículos que atende e
+ * processa criação, alteração, cancelamento, pré-reservas e manutenções em sequência, sem locks. Os
+ * comandos que chegam juntos são gravados numa única transação (group commit).
+ * <p>
+ * O calendário é local à instância e só enxerga o que ela mesma gravou. Numa única
+ * instância ele basta; com várias, é preciso o advisory lock ativo
+ * ({@code locadora.reservation.advisory-lock.enabled}): cada comando obtém o lock do veículo
+ * na transação do lote e confirma no banco que o período continua livre.
+ */
+@Slf4j
+@Component
+public class BookingShards {
+
+    private interface Command {
+        CompletableFuture<?> future();
+    }
+
+    private record Create(ReservationDTO dto, CompletableFuture<ReservationDTO> future) implements Command {
+    }
+
+    private record Update(Long id, ReservationDTO dto, Long expectedVersion,
+                          CompletableFuture<ReservationDTO> future) implements Command {
+    }
+
+    private record Cancel(Long id, CompletableFuture<Void> future) implements Command {
+    }
+
+    private record PlaceHold(ReservationDTO dto, long ttlSeconds,
+                             CompletableFuture<ReservationHoldDTO> future) implements Command {
+    }
+
+    private record ConfirmHold(Long holdId, CompletableFuture<ReservationDTO> future) implements Command {
+    }
+
+    private record Block(Long vehicleId, MaintenanceWindowDTO dto,
+                         CompletableFuture<MaintenanceWindowDTO> future) implements Command {
+    }
+
+    // Reservas com o id positivo, manutenções com o id negativo
+    private record Booked(long id, Instant start, Instant end) {
+    }
+
+    private record Held(long id, Instant start, Instant end, Instant expiresAt) {
+    }
+
+    private static final Comparator<Booked> BY_START = Comparator.comparing(Booked::start).thenComparingLong(Booked::id);
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationHoldRepository reservationHoldRepository;
+
+    @Autowired
+    private MaintenanceWindowRepository maintenanceWindowRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private ReservationLifecycleService reservationLifecycleService;
+
+    @Autowired
+    private ReservationHoldService reservationHoldService;
+
+    @Autowired
+    private OccupancyIndex occupancyIndex;
+
+    @Autowired
+    private ReservationCube reservationCube;
+
+    @Autowired
+    private ReservationStats reservationStats;
+
+    @Autowired
+    private DemandForecast demandForecast;
+
+    @Autowired
+    private ClientReservationService clientReservationService;
+
+    @Autowired
+    private VehicleAdvisoryLocks vehicleAdvisoryLocks;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${locadora.reservation.shards.enabled:false}")
+    private boolean enabled;
+
+    @Value("${locadora.reservation.shards.count:4}")
+    private int shardCount;
+
+    @Value("${locadora.reservation.shards.batch-max:64}")
+    private int batchMax;
+
+    @Value("${locadora.reservation.shards.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${locadora.reservation.shards.calendar-ttl-minutes:60}")
+    private long calendarTtlMinutes;
+
+    @Value("${locadora.reservation.shards.await-ms:10000}")
+    private long awaitMs;
+
+    @Value("${locadora.reservation.max-duration-days:365}")
+    private long maxDurationDays;
+
+    private Shard[] shards;
+    private Timer commitTimer;
+    private DistributionSummary batchSize;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        commitTimer = meterRegistry.timer("reservation.booking.shard.commit");
+        batchSize = meterRegistry.summary("reservation.booking.shard.batch.size");
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+            shards[i].thread.start();
+        }
+        if (vehicleAdvisoryLocks.isActive()) {
+            log.info("Reservas em {} shards de escrita única, confirmadas no banco sob advisory lock", shardCount);
+        } else {
+            log.warn("Reservas em {} shards de escrita única sem advisory lock: use uma única instância", shardCount);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (shards != null) {
+            for (Shard shard : shards) {
+                shard.thread.interrupt();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<ReservationDTO> create(ReservationDTO dto) {
+        CompletableFuture<ReservationDTO> future = new CompletableFuture<>();
+        submit(dto.getVehicleId(), new Create(dto, future));
+        return future;
+    }
+
+    public CompletableFuture<ReservationDTO> update(Long id, ReservationDTO dto, Long expectedVersion) {
+        CompletableFuture<ReservationDTO> future = new CompletableFuture<>();
+        submit(dto.getVehicleId(), new Update(id, dto, expectedVersion, future));
+        return future;
+    }
+
+    public CompletableFuture<Void> cancel(Long id, Long vehicleId) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        submit(vehicleId, new Cancel(id, future));
+        return future;
+    }
+
+    public CompletableFuture<ReservationHoldDTO> hold(ReservationDTO dto, long ttlSeconds) {
+        CompletableFuture<ReservationHoldDTO> future = new CompletableFuture<>();
+        submit(dto.getVehicleId(), new PlaceHold(dto, ttlSeconds, future));
+        return future;
+    }
+
+    public CompletableFuture<ReservationDTO> confirmHold(Long holdId, Long vehicleId) {
+        CompletableFuture<ReservationDTO> future = new CompletableFuture<>();
+        submit(vehicleId, new ConfirmHold(holdId, future));
+        return future;
+    }
+
+    public CompletableFuture<MaintenanceWindowDTO> block(Long vehicleId, MaintenanceWindowDTO dto) {
+        CompletableFuture<MaintenanceWindowDTO> future = new CompletableFuture<>();
+        submit(vehicleId, new Block(vehicleId, dto, future));
+        return future;
+    }
+
+    /** Descarta o calendário do veículo após uma alteração feita fora dos shards. */
+    public void invalidate(Long vehicleId) {
+        if (enabled) {
+            shardOf(vehicleId).invalidated.add(vehicleId);
+        }
+    }
+
+    /**
+     * Espera o resultado do shard por até {@code locadora.reservation.shards.await-ms}. Devolve
+     * ao chamador a exceção original do shard (404, 409...), não a ExecutionException; sem
+     * resposta no prazo, 503.
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(awaitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Serviço de reservas sem resposta, tente novamente");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Serviço de reservas interrompido");
+        }
+    }
+
+    private void submit(Long vehicleId, Command command) {
+        Shard shard = shardOf(vehicleId);
+        if (!shard.thread.isAlive()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Serviço de reservas indisponível");
+        }
+        if (!shard.queue.offer(command)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Muitas reservas em processamento, tente novamente");
+        }
+    }
+
+    private Shard shardOf(Long vehicleId) {
+        int h = vehicleId == null ? 0 : Long.hashCode(vehicleId);
+        return shards[Math.floorMod(h ^ (h >>> 16), shards.length)];
+    }
+
+    private final class Shard implements Runnable {
+
+        private final BlockingQueue<Command> queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Veículos que saíram deste shard por uma alteração processada em outro shard
+        private final Queue<Long> invalidated = new ConcurrentLinkedQueue<>();
+        private final Map<Long, Calendar> calendars = new HashMap<>();
+        private final Thread thread;
+
+        private Shard(int index) {
+            thread = new Thread(this, "booking-shard-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Command> batch = new ArrayList<>(batchMax);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, batchMax - 1);
+                Long vehicleId;
+                while ((vehicleId = invalidated.poll()) != null) {
+                    calendars.remove(vehicleId);
+                }
+                try {
+                    process(batch);
+                } catch (RuntimeException e) {
+                    log.error("Falha no shard de reservas {}", thread.getName(), e);
+                    retryOneByOne(batch, e);
+                }
+                batch.clear();
+            }
+            queue.forEach(c -> c.future().completeExceptionally(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Serviço de reservas encerrado")));
+        }
+
+        /**
+         * O lote inteiro voltou atrás por causa de um comando; cada um é refeito na sua própria
+         * transação, para que só o comando com problema receba o erro.
+         */
+        private void retryOneByOne(List<Command> batch, RuntimeException cause) {
+            if (batch.size() == 1) {
+                batch.get(0).future().completeExceptionally(cause);
+                return;
+            }
+            for (Command command : batch) {
+                try {
+                    process(List.of(command));
+                } catch (RuntimeException e) {
+                    log.error("Falha no shard de reservas {}", thread.getName(), e);
+                    command.future().completeExceptionally(e);
+                }
+            }
+        }
+
+        private void process(List<Command> batch) {
+            List<Runnable> completions = new ArrayList<>(batch.size());
+            Set<Long> touched = new HashSet<>();
+            try {
+                commitTimer.record(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    for (Command command : batch) {
+                        try {
+                            completions.add(apply(command, touched));
+                        } catch (ResponseStatusException e) {
+                            completions.add(() -> command.future().completeExceptionally(e));
+                        }
+                    }
+                }));
+            } catch (RuntimeException e) {
+                // Nada foi gravado: os calendários alterados neste lote são recarregados do banco
+                touched.forEach(calendars::remove);
+                throw e;
+            }
+            batchSize.record(batch.size());
+            completions.forEach(Runnable::run);
+        }
+
+        private Runnable apply(Command command, Set<Long> touched) {
+            if (command instanceof Create create) {
+                ReservationDTO result = insert(create.dto(), touched);
+                return () -> create.future().complete(result);
+            }
+            if (command instanceof Update update) {
+                ReservationDTO result = update(update.id(), update.dto(), update.expectedVersion(), touched);
+                return () -> update.future().complete(result);
+            }
+            if (command instanceof PlaceHold placeHold) {
+                ReservationHoldDTO result = hold(placeHold.dto(), placeHold.ttlSeconds(), touched);
+                return () -> placeHold.future().complete(result);
+            }
+            if (command instanceof ConfirmHold confirmHold) {
+                ReservationDTO result = confirmHold(confirmHold.holdId(), touched);
+                return () -> confirmHold.future().complete(result);
+            }
+            if (command instanceof Block block) {
+                MaintenanceWindowDTO result = block(block.vehicleId(), block.dto(), touched);
+                return () -> block.future().complete(result);
+            }
+            Cancel cancel = (Cancel) command;
+            delete(cancel.id(), touched);
+            return () -> cancel.future().complete(null);
+        }
+
+        private ReservationDTO insert(ReservationDTO dto, Set<Long> touched) {
+            Calendar calendar = calendar(dto.getVehicleId());
+            ensureFree(calendar, dto.getVehicleId(), dto.getStartDate(), dto.getEndDate(), null);
+
+            Reservation reservation = new Reservation(
+                    findClient(dto.getClientId()),
+                    findVehicle(dto.getVehicleId()),
+                    dto.getStartDate(),
+                    dto.getEndDate()
+            );
+            reservation = reservationRepository.save(reservation);
+
+            touched.add(dto.getVehicleId());
+            calendar.add(new Booked(reservation.getId(), reservation.getStartDate(), reservation.getEndDate()));
+            reservationLifecycleService.track(reservation);
+            reservationStats.added(reservation);
+            demandForecast.added(reservation);
+            occupancyIndex.refresh(dto.getVehicleId());
+            clientReservationService.invalidate(dto.getClientId());
+            return new ReservationDTO(reservation);
+        }
+
+        private ReservationDTO update(Long id, ReservationDTO dto, Long expectedVersion, Set<Long> touched) {
+            Reservation reservation = reservationRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reserva não encontrada"));
+            if (expectedVersion != null && reservation.getVersion() != expectedVersion) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Reserva alterada por outra requisição");
+            }
+
+            Calendar calendar = calendar(dto.getVehicleId());
+            ensureFree(calendar, dto.getVehicleId(), dto.getStartDate(), dto.getEndDate(), id);
+
+            Vehicle previousVehicle = reservation.getVehicle();
+            long previousVehicleId = previousVehicle.getId();
+            Instant previousStart = reservation.getStartDate();
+            Instant previousEnd = reservation.getEndDate();
+            long previousClientId = reservation.getClient().getId();
+
+            // Um 404 aqui não pode deixar a reserva alterada no lote, que ainda será gravado
+            Client client = findClient(dto.getClientId());
+            Vehicle vehicle = findVehicle(dto.getVehicleId());
+
+            reservation.setClient(client);
+            reservation.setVehicle(vehicle);
+            reservation.setStartDate(dto.getStartDate());
+            reservation.setEndDate(dto.getEndDate());
+            reservation.capturePrice();
+            reservation.refreshStatus(Instant.now());
+            reservation = reservationRepository.saveAndFlush(reservation);
+
+            forget(previousVehicleId, id, touched);
+            touched.add(dto.getVehicleId());
+            calendar.add(new Booked(reservation.getId(), reservation.getStartDate(), reservation.getEndDate()));
+            reservationLifecycleService.track(reservation);
+            reservationStats.removed(reservation.getCreatedAt(), previousStart, previousEnd);
+            reservationStats.added(reservation);
+            demandForecast.removed(previousVehicle, previousStart, previousEnd);
+            demandForecast.added(reservation);
+            occupancyIndex.refresh(previousVehicleId);
+            occupancyIndex.refresh(dto.getVehicleId());
+            clientReservationService.invalidate(previousClientId);
+            clientReservationService.invalidate(dto.getClientId());
+            return new ReservationDTO(reservation);
+        }
+
+        private ReservationHoldDTO hold(ReservationDTO dto, long ttlSeconds, Set<Long> touched) {
+            Calendar calendar = calendar(dto.getVehicleId());
+            ensureFree(calendar, dto.getVehicleId(), dto.getStartDate(), dto.getEndDate(), null);
+
+            ReservationHold hold = reservationHoldRepository.save(new ReservationHold(
+                    findClient(dto.getClientId()),
+                    findVehicle(dto.getVehicleId()),
+                    dto.getStartDate(),
+                    dto.getEndDate(),
+                    Instant.now().plusSeconds(ttlSeconds)
+            ));
+
+            touched.add(dto.getVehicleId());
+            calendar.holds.put(hold.getId(), new Held(hold.getId(), hold.getStartDate(), hold.getEndDate(), hold.getExpiresAt()));
+            reservationHoldService.track(hold);
+            return new ReservationHoldDTO(hold);
+        }
+
+        private ReservationDTO confirmHold(Long holdId, Set<Long> touched) {
+            ReservationHold hold = reservationHoldRepository.findById(holdId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pré-reserva não encontrada"));
+            if (hold.isExpired(Instant.now())) {
+                throw new ResponseStatusException(HttpStatus.GONE, "Pré-reserva expirada");
+            }
+
+            Reservation reservation = reservationRepository.save(
+                    new Reservation(hold.getClient(), hold.getVehicle(), hold.getStartDate(), hold.getEndDate()));
+            reservationHoldRepository.delete(hold);
+
+            long vehicleId = hold.getVehicle().getId();
+            Calendar calendar = calendar(vehicleId);
+            touched.add(vehicleId);
+            calendar.holds.remove(holdId);
+            calendar.add(new Booked(reservation.getId(), reservation.getStartDate(), reservation.getEndDate()));
+            reservationHoldService.untrack(holdId);
+            reservationLifecycleService.track(reservation);
+            reservationStats.added(reservation);
+            demandForecast.added(reservation);
+            occupancyIndex.refresh(vehicleId);
+            clientReservationService.invalidate(reservation.getClient().getId());
+            return new ReservationDTO(reservation);
+        }
+
+        private MaintenanceWindowDTO block(Long vehicleId, MaintenanceWindowDTO dto, Set<Long> touched) {
+            Calendar calendar = calendar(vehicleId);
+            ensureFree(calendar, vehicleId, dto.getStartDate(), dto.getEndDate(), null);
+
+            MaintenanceWindow window = maintenanceWindowRepository.save(new MaintenanceWindow(
+                    findVehicle(vehicleId), dto.getStartDate(), dto.getEndDate(), dto.getDescription()));
+
+            touched.add(vehicleId);
+            calendar.add(new Booked(-window.getId(), window.getStartDate(), window.getEndDate()));
+            occupancyIndex.refresh(vehicleId);
+            return new MaintenanceWindowDTO(window);
+        }
+
+        private void delete(Long id, Set<Long> touched) {
+            Reservation reservation = reservationRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reserva não encontrada"));
+            reservationRepository.delete(reservation);
+            forget(reservation.getVehicle().getId(), id, touched);
+            reservationLifecycleService.untrack(id);
+            reservationStats.removed(reservation.getCreatedAt(), reservation.getStartDate(), reservation.getEndDate());
+            demandForecast.removed(reservation.getVehicle(), reservation.getStartDate(), reservation.getEndDate());
+            occupancyIndex.refresh(reservation.getVehicle().getId());
+            reservationCube.evict(id);
+            clientReservationService.invalidate(reservation.getClient().getId());
+        }
+
+        private void forget(long vehicleId, long reservationId, Set<Long> touched) {
+            Shard owner = shardOf(vehicleId);
+            if (owner != this) {
+                owner.invalidated.add(vehicleId);
+                return;
+            }
+            Calendar calendar = calendars.get(vehicleId);
+            if (calendar != null) {
+                touched.add(vehicleId);
+                calendar.remove(reservationId);
+            }
+        }
+
+        private void ensureFree(Calendar calendar, Long vehicleId, Instant start, Instant end, Long ignoredId) {
+            if (conflicts(calendar, vehicleId, start, end, ignoredId)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, ReservationService.BOOKED_CONFLICT);
+            }
+            if (calendar.holdOverlaps(start, end, Instant.now())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, ReservationService.HOLD_CONFLICT);
+            }
+            if (vehicleAdvisoryLocks.lock(vehicleId)) {
+                ensureFreeInDatabase(vehicleId, start, end, ignoredId);
+            }
+        }
+
+        /**
+         * Outra instância pode ter gravado o período depois da carga do calendário; com o lock
+         * do veículo, o banco decide. Um conflito encontrado só aqui descarta o calendário.
+         */
+        private void ensureFreeInDatabase(Long vehicleId, Instant start, Instant end, Long ignoredId) {
+            Instant earliestStart = start.minus(Duration.ofDays(maxDurationDays));
+            boolean booked = ignoredId == null
+                    ? reservationRepository.existsByVehicleIdAndDateRange(vehicleId, start, end, earliestStart)
+                    : reservationRepository.existsOtherByVehicleIdAndDateRange(ignoredId, vehicleId, start, end, earliestStart);
+            if (booked) {
+                calendars.remove(vehicleId);
+                throw new ResponseStatusException(HttpStatus.CONFLICT, ReservationService.BOOKED_CONFLICT);
+            }
+            if (reservationHoldRepository.existsActiveByVehicleIdAndDateRange(vehicleId, start, end, Instant.now())) {
+                calendars.remove(vehicleId);
+                throw new ResponseStatusException(HttpStatus.CONFLICT, ReservationService.HOLD_CONFLICT);
+            }
+        }
+
+        private boolean conflicts(Calendar calendar, Long vehicleId, Instant start, Instant end, Long ignoredId) {
+            Instant earliestStart = start.minus(Duration.ofDays(maxDurationDays));
+            if (start.isBefore(calendar.horizon)) {
+                // O calendário só guarda reservas que terminam depois da carga; períodos
+                // anteriores são verificados no banco
+                return ignoredId == null
+                        ? reservationRepository.existsByVehicleIdAndDateRange(vehicleId, start, end, earliestStart)
+                        : reservationRepository.existsOtherByVehicleIdAndDateRange(ignoredId, vehicleId, start, end, earliestStart);
+            }
+            return calendar.overlaps(start, end, earliestStart, ignoredId);
+        }
+
+        private Client findClient(Long clientId) {
+            return clientRepository.findById(clientId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado"));
+        }
+
+        private Vehicle findVehicle(Long vehicleId) {
+            return vehicleRepository.findById(vehicleId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Veículo não encontrado"));
+        }
+
+        private Calendar calendar(Long vehicleId) {
+            Calendar calendar = calendars.get(vehicleId);
+            Instant now = Instant.now();
+            if (calendar == null || calendar.horizon.isBefore(now.minus(Duration.ofMinutes(calendarTtlMinutes)))) {
+                calendar = new Calendar(now);
+                for (Object[] row : reservationRepository.findPeriodsByVehicleEndingAfter(
+                        vehicleId, now, now.minus(Duration.ofDays(maxDurationDays)))) {
+                    calendar.add(new Booked((Long) row[0], (Instant) row[1], (Instant) row[2]));
+                }
+                for (Object[] row : reservationHoldRepository.findActivePeriodsByVehicle(vehicleId, now)) {
+                    Held held = new Held((Long) row[0], (Instant) row[1], (Instant) row[2], (Instant) row[3]);
+                    calendar.holds.put(held.id(), held);
+                }
+                calendars.put(vehicleId, calendar);
+            }
+            return calendar;
+        }
+    }
+
+    /**
+     * Reservas e manutenções de um veículo que terminam depois de {@code horizon}, ordenadas
+     * pelo início, e as pré-reservas ativas (poucas por veículo, percorridas em sequência).
+     */
+    private static final class Calendar {
+        private final Instant horizon;
+        private final NavigableSet<Booked> byStart = new TreeSet<>(BY_START);
+        private final Map<Long, Booked> byId = new HashMap<>();
+        private final Map<Long, Held> holds = new HashMap<>();
+
+        private Calendar(Instant horizon) {
+            this.horizon = horizon;
+        }
+
+        void add(Booked booked) {
+            remove(booked.id());
+            byStart.add(booked);
+            byId.put(booked.id(), booked);
+        }
+
+        void remove(long id) {
+            Booked booked = byId.remove(id);
+            if (booked != null) {
+                byStart.remove(booked);
+            }
+        }
+
+        boolean holdOverlaps(Instant start, Instant end, Instant now) {
+            holds.values().removeIf(held -> !held.expiresAt().isAfter(now));
+            for (Held held : holds.values()) {
+                if (held.start().isBefore(end) && held.end().isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean overlaps(Instant start, Instant end, Instant earliestStart, Long ignoredId) {
+            // Percorre, do mais recente para trás, as reservas que começam antes do fim pedido
+            for (Booked booked : byStart.headSet(new Booked(Long.MIN_VALUE, end, end), false).descendingSet()) {
+                if (booked.start().isBefore(earliestStart)) {
+                    return false;
+                }
+                if (booked.end().isAfter(start) && (ignoredId == null || booked.id() != ignoredId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.ClientReservationSummaryDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.KeysetPageDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static ifmg.edu.projeto_locadora_veiculos.services.TransactionCallbacks.afterCommit;
+
+/**
+ * Histórico de reservas de um cliente, paginado por (start_date, id) do mais recente para
+ * o mais antigo, e o resumo do cliente. O resumo fica em memória até a próxima gravação
+ * de reserva do cliente, até o próximo início ou fim de reserva (quando as contagens por
+ * situação mudam) ou até {@code ttl-seconds}, o que vier antes.
+ */
+@Service
+public class ClientReservationService {
+
+    private static final char CURSOR_SEPARATOR = '_';
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Value("${locadora.client.history.max-size:100}")
+    private int maxPageSize;
+
+    // Limite para alterações feitas por outras instâncias
+    @Value("${locadora.client.summary.ttl-seconds:600}")
+    private long summaryTtlSeconds;
+
+    private record CachedSummary(ClientReservationSummaryDTO summary, Instant expiresAt) {
+    }
+
+    private final Map<Long, CachedSummary> summaries = new ConcurrentHashMap<>();
+    // Incrementada a cada invalidação; um resumo calculado antes dela não entra no cache
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    /** Uma página do histórico; o cursor é o {@code nextCursor} da página anterior. */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<ReservationDTO> history(Long clientId, String cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O tamanho da página deve estar entre 1 e " + maxPageSize);
+        }
+        ensureClientExists(clientId);
+
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Reservation> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = reservationRepository.findHistoryByClient(clientId, limit);
+        } else {
+            int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+            try {
+                Instant beforeStart = Instant.parse(cursor.substring(0, Math.max(0, separator)));
+                long beforeId = Long.parseLong(cursor.substring(separator + 1));
+                rows = reservationRepository.findHistoryByClientBefore(clientId, beforeStart, beforeId, limit);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<Reservation> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Reservation last = page.get(page.size() - 1);
+            nextCursor = last.getStartDate().toString() + CURSOR_SEPARATOR + last.getId();
+        }
+        return new KeysetPageDTO<>(page.stream().map(ReservationDTO::new).toList(), nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public ClientReservationSummaryDTO summary(Long clientId) {
+        Instant now = Instant.now();
+        CachedSummary cached = summaries.get(clientId);
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            return cached.summary();
+        }
+        ensureClientExists(clientId);
+
+        long generation = generations.getOrDefault(clientId, 0L);
+        Object[] row = reservationRepository.summarizeByClient(clientId, now).get(0);
+        Instant nextStart = (Instant) row[4];
+        Instant nextEnd = (Instant) row[5];
+        ReservationDTO next = nextStart == null ? null
+                : reservationRepository.findUpcomingByClient(clientId, now, PageRequest.of(0, 1)).stream()
+                        .findFirst().map(ReservationDTO::new).orElse(null);
+
+        ClientReservationSummaryDTO summary = new ClientReservationSummaryDTO(clientId,
+                ((Number) row[0]).longValue(),
+                ((Number) row[1]).longValue(),
+                ((Number) row[2]).longValue(),
+                ((Number) row[3]).longValue(),
+                next);
+
+        Instant expiresAt = now.plus(Duration.ofSeconds(summaryTtlSeconds));
+        if (nextStart != null && nextStart.isBefore(expiresAt)) {
+            expiresAt = nextStart;
+        }
+        // Uma reserva ativa passa a concluída logo depois do fim
+        if (nextEnd != null && nextEnd.plusNanos(1000).isBefore(expiresAt)) {
+            expiresAt = nextEnd.plusNanos(1000);
+        }
+        CachedSummary fresh = new CachedSummary(summary, expiresAt);
+        summaries.compute(clientId, (id, current) ->
+                generations.getOrDefault(id, 0L) == generation ? fresh : current);
+        return summary;
+    }
+
+    /** Descarta o resumo do cliente depois do commit da transação corrente. */
+    public void invalidate(Long clientId) {
+        if (clientId == null) {
+            return;
+        }
+        // Também agora: uma leitura concorrente não deve ver o resumo antigo até o commit terminar
+        discard(clientId);
+        afterCommit(() -> discard(clientId));
+    }
+
+    private void discard(Long clientId) {
+        generations.merge(clientId, 1L, Long::sum);
+        summaries.remove(clientId);
+    }
+
+    /** Usado no {@code @PreAuthorize}: o cliente autenticado é o dono do ID. */
+    public boolean isSelf(Long clientId, String email) {
+        return clientId != null && email != null && clientRepository.findByEmail(email)
+                .map(client -> client.getId() == clientId)
+                .orElse(false);
+    }
+
+    private void ensureClientExists(Long clientId) {
+        if (!clientRepository.existsById(clientId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado");
+        }
+    }
+}
@@ -3,8 +3,10 @@ package ifmg.edu.projeto_locadora_veiculos.services;
 import ifmg.edu.projeto_locadora_veiculos.dto.ClientDTO;
 import ifmg.edu.projeto_locadora_veiculos.entities.Client;
 import ifmg.edu.projeto_locadora_veiculos.entities.Role;
+import ifmg.edu.projeto_locadora_veiculos.reports.ReportTemplate;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
 import ifmg.edu.projeto_locadora_veiculos.services.exceptions.DatabaseException;
+import ifmg.edu.projeto_locadora_veiculos.services.exceptions.PreconditionFailed;
 import ifmg.edu.projeto_locadora_veiculos.services.exceptions.ResourceNotFound;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -25,12 +27,26 @@ import java.util.List;
 @Slf4j
 @Service
 public class ClientService {
+    private static final ReportTemplate<Client> CUSTOMER_LINE = ReportTemplate.<Client>compile(
+                    "Cliente - Código: {id}  - Nome: {name} - Endereço: {address} - Celular: {phone}")
+            .number("id", Client::getId)
+            .text("name", c -> safe(c.getName()))
+            .text("address", c -> safe(c.getAddress()))
+            .text("phone", c -> safe(c.getPhone()))
+            .build();
+
     @Autowired
     private ClientRepository clientRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private ClientReservationService clientReservationService;
+
     @GetMapping(produces = "application/json")
     @Operation(
             description = "Obtenha todos os clientes",
@@ -65,10 +81,20 @@ public class ClientService {
         return new ClientDTO(entity);
     }
 
-    @Transactional
     public ClientDTO update(Long id, ClientDTO dto) {
+        return update(id, dto, null);
+    }
+
+    public ClientDTO update(Long id, ClientDTO dto, Long expectedVersion) {
+        return optimisticRetry.execute(expectedVersion, () -> doUpdate(id, dto, expectedVersion));
+    }
+
+    private ClientDTO doUpdate(Long id, ClientDTO dto, Long expectedVersion) {
         try {
             Client entity = clientRepository.getReferenceById(id);
+            if (expectedVersion != null && entity.getVersion() != expectedVersion) {
+                throw new PreconditionFailed("Cliente alterado por outra requisição: " + id);
+            }
             entity.setName(dto.getName());
             entity.setEmail(dto.getEmail());
 
@@ -79,7 +105,7 @@ public class ClientService {
             entity.setAddress(dto.getAddress());
             entity.setCity(dto.getCity());
             entity.setPhone(dto.getPhone());
-            entity = clientRepository.save(entity);
+            entity = clientRepository.saveAndFlush(entity);
             return new ClientDTO(entity);
         } catch (EntityNotFoundException e) {
             throw new ResourceNotFound("Cliente não encontrado: " + id);
@@ -93,6 +119,7 @@ public class ClientService {
         }
         try {
             clientRepository.deleteById(id);
+            clientReservationService.invalidate(id);
         } catch (DataIntegrityViolationException e) {
             throw new DatabaseException("Integridade violada");
         }
@@ -100,19 +127,10 @@ public class ClientService {
 
     public List<String> customerList() {
         List<Client> clients = clientRepository.findAll();
-
-        return clients.stream()
-                .map(c -> String.format(
-                        "Cliente - Código: %d  - Nome: %s - Endereço: %s - Celular: %s",
-                        c.getId(),
-                        safe(c.getName()),
-                        safe(c.getAddress()),
-                        safe(c.getPhone())
-                ))
-                .toList();
+        return CUSTOMER_LINE.renderAll(clients);
     }
 
-    private String safe(String value) {
+    private static String safe(String value) {
         return value == null ? "N/A" : value;
     }
 }
@@ -0,0 +1,113 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto imutável de dias (epoch day), um bit por dia, comprimido no estilo Roaring:
+ * a parte alta do dia escolhe um bloco de 64 dias e só os blocos com algum bit ligado
+ * são guardados, com as chaves ordenadas. A interseção de dois conjuntos percorre as
+ * chaves dos dois em paralelo e faz um AND por bloco.
+ */
+public final class DayBitmap {
+
+    public static final DayBitmap EMPTY = new DayBitmap(new int[0], new long[0]);
+
+    private final int[] keys;
+    private final long[] words;
+
+    private DayBitmap(int[] keys, long[] words) {
+        this.keys = keys;
+        this.words = words;
+    }
+
+    public boolean contains(long epochDay) {
+        int index = Arrays.binarySearch(keys, key(epochDay));
+        return index >= 0 && (words[index] & bit(epochDay)) != 0;
+    }
+
+    public boolean intersects(DayBitmap other) {
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                if ((words[i] & other.words[j]) != 0) {
+                    return true;
+                }
+                i++;
+                j++;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static int key(long epochDay) {
+        return (int) (epochDay >> 6);
+    }
+
+    private static long bit(long epochDay) {
+        return 1L << (epochDay & 63);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int[] keys = new int[8];
+        private long[] words = new long[8];
+        private int size;
+
+        public Builder add(long epochDay) {
+            return addRange(epochDay, epochDay);
+        }
+
+        /** Liga os dias de {@code first} a {@code last}, inclusive. */
+        public Builder addRange(long first, long last) {
+            for (long day = first; day <= last; ) {
+                long blockEnd = Math.min(last, (day | 63));
+                long mask = blockEnd - day == 63 ? -1L : ((1L << (blockEnd - day + 1)) - 1) << (day & 63);
+                or(key(day), mask);
+                day = blockEnd + 1;
+            }
+            return this;
+        }
+
+        private void or(int key, long mask) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                words[index] |= mask;
+                return;
+            }
+            int at = -index - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                words = Arrays.copyOf(words, size * 2);
+            }
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(words, at, words, at + 1, size - at);
+            keys[at] = key;
+            words[at] = mask;
+            size++;
+        }
+
+        public DayBitmap build() {
+            return size == 0 ? EMPTY : new DayBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(words, size));
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.analytics.DemandForecast;
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationCube;
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationCube.Dimension;
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationStats;
+import ifmg.edu.projeto_locadora_veiculos.dto.CubeRowDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.DemandForecastDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationStatsDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.UtilizationDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.VehicleCalendarDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.VehicleRankingDTO;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relatórios da frota calculados a partir de uma única leitura ordenada das reservas.
+ */
+@Service
+public class FleetReportService {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        // Início do intervalo que contém o dia
+        LocalDate bucketOf(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+            };
+        }
+    }
+
+    public enum Ranking {
+        BOOKINGS, REVENUE
+    }
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private OccupancyIndex occupancyIndex;
+
+    @Autowired
+    private ReservationCube reservationCube;
+
+    @Autowired
+    private ReservationStats reservationStats;
+
+    @Autowired
+    private DemandForecast demandForecast;
+
+    @Value("${locadora.reservation.max-duration-days:365}")
+    private long maxDurationDays;
+
+    @Value("${locadora.report.utilization.max-days:1096}")
+    private long maxReportDays;
+
+    @Value("${locadora.report.calendar.max-days:92}")
+    private long maxCalendarDays;
+
+    @Value("${locadora.report.top.max-limit:100}")
+    private int maxTopLimit;
+
+    @Value("${locadora.forecast.max-weeks:26}")
+    private int maxForecastWeeks;
+
+    /**
+     * Ocupação da frota dia a dia (UTC) entre {@code startDay} e {@code endDay}, inclusive.
+     * Um veículo conta como reservado no dia se alguma reserva sua cobre parte dele. As
+     * reservas chegam ordenadas por veículo e início: as de um mesmo veículo que se tocam
+     * viram um único trecho, e cada trecho soma +1 no primeiro dia e -1 depois do último
+     * num vetor de diferenças; a soma acumulada dá os veículos reservados em cada dia.
+     */
+    @Transactional(readOnly = true)
+    public List<UtilizationDTO> utilization(LocalDate startDay, LocalDate endDay, Granularity granularity) {
+        if (startDay == null || endDay == null || endDay.isBefore(startDay)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido");
+        }
+        long span = ChronoUnit.DAYS.between(startDay, endDay) + 1;
+        if (span > maxReportDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O período não pode exceder " + maxReportDays + " dias");
+        }
+        int days = (int) span;
+
+        Instant from = startDay.atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = from.plus(Duration.ofDays(days));
+        int[] delta = new int[days + 1];
+
+        long currentVehicle = 0;
+        int first = -1;
+        int last = -1;
+        for (Object[] row : reservationRepository.findPeriodsBetweenOrderByVehicle(
+                from, to, from.minus(Duration.ofDays(maxDurationDays)))) {
+            long vehicleId = (Long) row[0];
+            int startIndex = Math.max(0, dayIndex(from, (Instant) row[1], false));
+            int endIndex = Math.min(days - 1, dayIndex(from, (Instant) row[2], true));
+
+            if (first >= 0 && vehicleId == currentVehicle && startIndex <= last + 1) {
+                last = Math.max(last, endIndex);
+                continue;
+            }
+            if (first >= 0) {
+                delta[first]++;
+                delta[last + 1]--;
+            }
+            currentVehicle = vehicleId;
+            first = startIndex;
+            last = endIndex;
+        }
+        if (first >= 0) {
+            delta[first]++;
+            delta[last + 1]--;
+        }
+
+        long fleetSize = vehicleRepository.count();
+        List<UtilizationDTO> result = new ArrayList<>();
+        LocalDate bucket = null;
+        LocalDate bucketEnd = null;
+        int peak = 0;
+        long vehicleDays = 0;
+        int bucketDays = 0;
+        int booked = 0;
+        for (int i = 0; i < days; i++) {
+            LocalDate day = startDay.plusDays(i);
+            LocalDate dayBucket = granularity.bucketOf(day);
+            if (!dayBucket.equals(bucket)) {
+                if (bucket != null) {
+                    result.add(row(max(bucket, startDay), bucketEnd, peak, fleetSize, vehicleDays, bucketDays));
+                }
+                bucket = dayBucket;
+                peak = 0;
+                vehicleDays = 0;
+                bucketDays = 0;
+            }
+            booked += delta[i];
+            peak = Math.max(peak, booked);
+            vehicleDays += booked;
+            bucketDays++;
+            bucketEnd = day;
+        }
+        if (bucket != null) {
+            result.add(row(max(bucket, startDay), bucketEnd, peak, fleetSize, vehicleDays, bucketDays));
+        }
+        return result;
+    }
+
+    /**
+     * Os {@code limit} veículos com mais reservas ou mais receita. Agrupamento, ordenação e
+     * corte são feitos pelo banco.
+     */
+    @Transactional(readOnly = true)
+    public List<VehicleRankingDTO> topVehicles(Ranking ranking, int limit) {
+        if (limit < 1 || limit > maxTopLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O limite deve estar entre 1 e " + maxTopLimit);
+        }
+        PageRequest page = PageRequest.of(0, limit);
+        List<Object[]> rows = ranking == Ranking.REVENUE
+                ? reservationRepository.findVehicleRankingByRevenue(page)
+                : reservationRepository.findVehicleRankingByBookings(page);
+        return rows.stream().map(VehicleRankingDTO::new).toList();
+    }
+
+    /** Reservas e receita agrupadas e filtradas pelas dimensões do cubo em memória. */
+    public List<CubeRowDTO> analytics(List<Dimension> groupBy, Map<Dimension, List<String>> filters) {
+        if (!reservationCube.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Cubo de análise desligado");
+        }
+        try {
+            return reservationCube.query(groupBy, filters);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /** Distribuição de duração e antecedência; {@code rebuild} relê a tabela antes. */
+    public ReservationStatsDTO reservationStats(boolean rebuild) {
+        if (rebuild) {
+            reservationStats.rebuild();
+        }
+        return reservationStats.stats();
+    }
+
+    /** Demanda diária prevista por marca/modelo, mantida em memória pelo {@link DemandForecast}. */
+    public List<DemandForecastDTO> forecast(int weeks, String brand, String model) {
+        if (weeks < 1 || weeks > maxForecastWeeks) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O número de semanas deve estar entre 1 e " + maxForecastWeeks);
+        }
+        return demandForecast.forecast(weeks, brand, model);
+    }
+
+    /**
+     * Grade veículos × dias para a página de veículos pedida. Só os dados dos veículos vêm
+     * do banco; a ocupação sai do {@link OccupancyIndex}.
+     */
+    @Transactional(readOnly = true)
+    public Page<VehicleCalendarDTO> calendar(LocalDate startDay, LocalDate endDay, Pageable pageable) {
+        if (startDay == null || endDay == null || endDay.isBefore(startDay)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido");
+        }
+        long days = ChronoUnit.DAYS.between(startDay, endDay) + 1;
+        if (days > maxCalendarDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O período não pode exceder " + maxCalendarDays + " dias");
+        }
+        checkIndexed(startDay);
+
+        long first = startDay.toEpochDay();
+        return vehicleRepository.findAll(pageable).map(vehicle -> {
+            DayBitmap occupancy = occupancyIndex.occupancy(vehicle.getId());
+            StringBuilder occupied = new StringBuilder((int) days);
+            for (long day = first; day < first + days; day++) {
+                occupied.append(occupancy.contains(day) ? '1' : '0');
+            }
+            return new VehicleCalendarDTO(vehicle.getId(), vehicle.getPlate(), vehicle.getBrand(), vehicle.getModel(),
+                    occupied.toString());
+        });
+    }
+
+    /** Veículos livres em todos os dias informados, consultados só no índice em memória. */
+    public List<Long> freeVehicles(Collection<LocalDate> days) {
+        if (days == null || days.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe ao menos um dia");
+        }
+        days.stream().min(LocalDate::compareTo).ifPresent(this::checkIndexed);
+        return occupancyIndex.freeOn(days);
+    }
+
+    private void checkIndexed(LocalDate day) {
+        LocalDate first = LocalDate.ofEpochDay(occupancyIndex.firstDay());
+        if (day.isBefore(first)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A ocupação só está disponível a partir de " + first);
+        }
+    }
+
+    private static UtilizationDTO row(LocalDate start, LocalDate end, int peak, long fleetSize,
+                                      long vehicleDays, int bucketDays) {
+        double utilization = fleetSize == 0 ? 0
+                : Math.round(vehicleDays * 10_000.0 / (fleetSize * bucketDays)) / 100.0;
+        return new UtilizationDTO(start, end, peak, fleetSize, utilization);
+    }
+
+    // Dia (a partir de 0) que contém o instante; o fim de uma reserva é exclusivo
+    private static int dayIndex(Instant from, Instant instant, boolean exclusiveEnd) {
+        Instant point = exclusiveEnd ? instant.minusNanos(1) : instant;
+        long index = Math.floorDiv(Duration.between(from, point).getSeconds(), SECONDS_PER_DAY);
+        return (int) Math.max(-1, Math.min(Integer.MAX_VALUE - 1, index));
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,86 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Roda de temporização com hash: cada prazo cai no slot {@code tick % tamanho}. Agendar e
+ * cancelar custam O(1); avançar a roda só visita os slots dos ticks decorridos. Entradas
+ * que estão a mais de uma volta de distância ficam no mesmo slot e são ignoradas até que o
+ * tick delas chegue.
+ */
+public class HashedTimingWheel<K> {
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final int mask;
+    private final Map<K, Long>[] slots;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, Instant origin) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis deve ser positivo");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.originMillis = origin.toEpochMilli();
+        this.mask = size - 1;
+        this.slots = new Map[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new LinkedHashMap<>();
+        }
+    }
+
+    /** Agenda (ou reagenda) {@code key} para expirar em {@code deadline}. */
+    public synchronized void schedule(K key, Instant deadline) {
+        cancel(key);
+        long elapsed = deadline.toEpochMilli() - originMillis;
+        // Arredonda para cima: nunca expira antes do prazo
+        long tick = Math.max(currentTick + 1, Math.floorDiv(elapsed + tickMillis - 1, tickMillis));
+        slots[(int) (tick & mask)].put(key, tick);
+        deadlines.put(key, tick);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Long tick = deadlines.remove(key);
+        if (tick == null) {
+            return false;
+        }
+        slots[(int) (tick & mask)].remove(key);
+        return true;
+    }
+
+    /** Avança até {@code now} e devolve as chaves cujo prazo passou. */
+    public synchronized List<K> advance(Instant now) {
+        long target = Math.floorDiv(now.toEpochMilli() - originMillis, tickMillis);
+        if (target <= currentTick) {
+            return List.of();
+        }
+        List<K> expired = new ArrayList<>();
+        long last = Math.min(target, currentTick + slots.length);
+        for (long tick = currentTick + 1; tick <= last; tick++) {
+            Iterator<Map.Entry<K, Long>> it = slots[(int) (tick & mask)].entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Long> entry = it.next();
+                if (entry.getValue() <= target) {
+                    it.remove();
+                    deadlines.remove(entry.getKey());
+                    expired.add(entry.getKey());
+                }
+            }
+        }
+        currentTick = target;
+        return expired;
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+}
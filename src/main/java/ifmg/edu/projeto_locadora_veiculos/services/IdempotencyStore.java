@@ -0,0 +1,152 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.IdempotencyRecord;
+import ifmg.edu.projeto_locadora_veiculos.repositories.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respostas já produzidas para uma Idempotency-Key, guardadas por um TTL. Por padrão
+ * ficam em memória; com {@code locadora.idempotency.persistent=true} vão para a tabela
+ * idempotency_key e valem entre instâncias. Enquanto a requisição original executa a
+ * chave fica reservada por um prazo curto, para que uma queda não a prenda até o TTL.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public enum Outcome { ACQUIRED, REPLAY, IN_PROGRESS, MISMATCH }
+
+    public record StoredResponse(int status, String contentType, String location, String etag, byte[] body) {
+    }
+
+    public record Claim(Outcome outcome, StoredResponse response) {
+    }
+
+    private record Entry(String fingerprint, StoredResponse response, Instant expiresAt) {
+    }
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${locadora.idempotency.persistent:false}")
+    private boolean persistent;
+
+    @Value("${locadora.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${locadora.idempotency.lease-seconds:30}")
+    private long leaseSeconds;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private Counter replayCounter;
+
+    @PostConstruct
+    public void init() {
+        replayCounter = meterRegistry.counter("idempotency.replays");
+        meterRegistry.gauge("idempotency.store.size", entries, Map::size);
+    }
+
+    @Transactional
+    public Claim claim(String id, String fingerprint) {
+        Instant now = Instant.now();
+        Instant leaseUntil = now.plusSeconds(leaseSeconds);
+        Claim claim = persistent ? claimInDatabase(id, fingerprint, now, leaseUntil)
+                : claimInMemory(id, fingerprint, now, leaseUntil);
+        if (claim.outcome() == Outcome.REPLAY) {
+            replayCounter.increment();
+        }
+        return claim;
+    }
+
+    @Transactional
+    public void complete(String id, StoredResponse response) {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(ttlHours));
+        if (persistent) {
+            idempotencyRecordRepository.complete(id, response.status(), response.contentType(), response.location(),
+                    response.etag(), new String(response.body(), StandardCharsets.UTF_8), expiresAt);
+        } else {
+            entries.computeIfPresent(id, (key, entry) -> new Entry(entry.fingerprint(), response, expiresAt));
+        }
+    }
+
+    /** Libera a chave sem gravar resposta (falha do servidor): o cliente pode tentar de novo. */
+    @Transactional
+    public void release(String id) {
+        if (persistent) {
+            idempotencyRecordRepository.release(id);
+        } else {
+            entries.computeIfPresent(id, (key, entry) -> entry.response() == null ? null : entry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${locadora.idempotency.sweep-ms:60000}")
+    @Transactional
+    public void evictExpired() {
+        Instant now = Instant.now();
+        entries.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+        if (persistent) {
+            int removed = idempotencyRecordRepository.deleteExpired(now);
+            if (removed > 0) {
+                log.debug("Idempotency keys expiradas removidas: {}", removed);
+            }
+        }
+    }
+
+    private Claim claimInMemory(String id, String fingerprint, Instant now, Instant leaseUntil) {
+        Entry[] previous = new Entry[1];
+        entries.compute(id, (key, entry) -> {
+            if (entry == null || entry.expiresAt().isBefore(now)) {
+                return new Entry(fingerprint, null, leaseUntil);
+            }
+            previous[0] = entry;
+            return entry;
+        });
+        Entry entry = previous[0];
+        if (entry == null) {
+            return new Claim(Outcome.ACQUIRED, null);
+        }
+        return existing(fingerprint, entry.fingerprint(), entry.response());
+    }
+
+    private Claim claimInDatabase(String id, String fingerprint, Instant now, Instant leaseUntil) {
+        if (idempotencyRecordRepository.claim(id, fingerprint, now, leaseUntil) > 0) {
+            return new Claim(Outcome.ACQUIRED, null);
+        }
+        return idempotencyRecordRepository.findById(id)
+                .map(record -> existing(fingerprint, record.getFingerprint(), toResponse(record)))
+                .orElseGet(() -> new Claim(Outcome.IN_PROGRESS, null));
+    }
+
+    private static Claim existing(String fingerprint, String storedFingerprint, StoredResponse response) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            return new Claim(Outcome.MISMATCH, null);
+        }
+        return response == null ? new Claim(Outcome.IN_PROGRESS, null) : new Claim(Outcome.REPLAY, response);
+    }
+
+    private static StoredResponse toResponse(IdempotencyRecord record) {
+        if (record.getStatus() == 0) {
+            return null;
+        }
+        byte[] body = record.getBody() == null ? new byte[0] : record.getBody().getBytes(StandardCharsets.UTF_8);
+        return new StoredResponse(record.getStatus(), record.getContentType(), record.getLocation(),
+                record.getEtag(), body);
+    }
+}
@@ -0,0 +1,123 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.MaintenanceWindowDTO;
+import ifmg.edu.projeto_locadora_veiculos.entities.MaintenanceWindow;
+import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import ifmg.edu.projeto_locadora_veiculos.repositories.MaintenanceWindowRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationHoldRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Janelas de manutenção dos veículos. A criação passa pelos mesmos locks (ou pelo mesmo
+ * shard) das reservas, então uma reserva e uma manutenção nunca se sobrepõem.
+ */
+@Service
+public class MaintenanceService {
+
+    @Autowired
+    private MaintenanceWindowRepository maintenanceWindowRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationHoldRepository reservationHoldRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private VehicleBookingLocks vehicleBookingLocks;
+
+    @Autowired
+    private VehicleAdvisoryLocks vehicleAdvisoryLocks;
+
+    @Autowired
+    private BookingShards bookingShards;
+
+    @Autowired
+    private OccupancyIndex occupancyIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${locadora.reservation.max-duration-days:365}")
+    private long maxDurationDays;
+
+    @Transactional(readOnly = true)
+    public List<MaintenanceWindowDTO> findByVehicle(Long vehicleId) {
+        if (!vehicleRepository.existsById(vehicleId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Veículo não encontrado");
+        }
+        return maintenanceWindowRepository.findByVehicleIdOrderByStartDate(vehicleId).stream()
+                .map(MaintenanceWindowDTO::new)
+                .toList();
+    }
+
+    public MaintenanceWindowDTO insert(Long vehicleId, MaintenanceWindowDTO dto) {
+        validatePeriod(dto.getStartDate(), dto.getEndDate());
+
+        if (bookingShards.isEnabled()) {
+            return bookingShards.await(bookingShards.block(vehicleId, dto));
+        }
+        return vehicleBookingLocks.withLock(vehicleId,
+                () -> new TransactionTemplate(transactionManager).execute(status -> doInsert(vehicleId, dto)));
+    }
+
+    private MaintenanceWindowDTO doInsert(Long vehicleId, MaintenanceWindowDTO dto) {
+        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Veículo não encontrado"));
+
+        checkConflict(vehicleId, dto.getStartDate(), dto.getEndDate());
+        if (vehicleAdvisoryLocks.lock(vehicleId)) {
+            checkConflict(vehicleId, dto.getStartDate(), dto.getEndDate());
+        }
+
+        MaintenanceWindow window = maintenanceWindowRepository.save(
+                new MaintenanceWindow(vehicle, dto.getStartDate(), dto.getEndDate(), dto.getDescription()));
+        occupancyIndex.refresh(vehicleId);
+        return new MaintenanceWindowDTO(window);
+    }
+
+    // Remover uma manutenção só libera o período; o calendário do shard é recarregado do banco
+    public void delete(Long vehicleId, Long id) {
+        MaintenanceWindow window = maintenanceWindowRepository.findByIdAndVehicleId(id, vehicleId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Manutenção não encontrada"));
+        maintenanceWindowRepository.delete(window);
+        bookingShards.invalidate(vehicleId);
+        occupancyIndex.refresh(vehicleId);
+    }
+
+    private void checkConflict(Long vehicleId, Instant startDate, Instant endDate) {
+        if (reservationRepository.existsByVehicleIdAndDateRange(
+                vehicleId, startDate, endDate, startDate.minus(Duration.ofDays(maxDurationDays)))) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ReservationService.BOOKED_CONFLICT);
+        }
+        if (reservationHoldRepository.existsActiveByVehicleIdAndDateRange(vehicleId, startDate, endDate, Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ReservationService.HOLD_CONFLICT);
+        }
+    }
+
+    // Mesmo limite de duração das reservas, que as consultas de sobreposição assumem
+    private void validatePeriod(Instant startDate, Instant endDate) {
+        if (startDate == null || endDate == null || !endDate.isAfter(startDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A data de término deve ser posterior à data de início");
+        }
+        if (Duration.between(startDate, endDate).compareTo(Duration.ofDays(maxDurationDays)) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A manutenção não pode exceder " + maxDurationDays + " dias");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static ifmg.edu.projeto_locadora_veiculos.services.TransactionCallbacks.afterCommit;
+
+/**
+ * Ocupação diária (UTC) de cada veículo num {@link DayBitmap}, a partir de
+ * {@code past-days} atrás. Reservas e manutenções contam como ocupação. Cada alteração
+ * de reserva recarrega, depois do commit, só o veículo afetado; a reconstrução periódica
+ * recupera alterações feitas por outras instâncias.
+ */
+@Slf4j
+@Service
+public class OccupancyIndex {
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${locadora.occupancy.past-days:90}")
+    private long pastDays;
+
+    @Value("${locadora.reservation.max-duration-days:365}")
+    private long maxDurationDays;
+
+    private final Map<Long, DayBitmap> bitmaps = new ConcurrentHashMap<>();
+    // Veículos recarregados um a um desde o início da última reconstrução
+    private final Set<Long> reloaded = ConcurrentHashMap.newKeySet();
+    private volatile long firstDay = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${locadora.occupancy.rebuild-ms:300000}",
+            initialDelayString = "${locadora.occupancy.rebuild-ms:300000}")
+    public synchronized void rebuild() {
+        reloaded.clear();
+        long first = LocalDate.now(ZoneOffset.UTC).toEpochDay() - pastDays;
+        Instant after = instantOf(first);
+        Map<Long, DayBitmap.Builder> builders = new HashMap<>();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (Long vehicleId : vehicleRepository.findAllIds()) {
+                builders.put(vehicleId, DayBitmap.builder());
+            }
+            for (Object[] row : reservationRepository.findAllPeriodsEndingAfter(after, earliestStart(after))) {
+                DayBitmap.Builder builder = builders.get((Long) row[0]);
+                if (builder != null) {
+                    addPeriod(builder, (Instant) row[1], (Instant) row[2], first);
+                }
+            }
+        });
+
+        firstDay = first;
+        builders.forEach((vehicleId, builder) -> bitmaps.put(vehicleId, builder.build()));
+        bitmaps.keySet().retainAll(builders.keySet());
+
+        // A leitura em bloco pode ser anterior a uma recarga feita durante a reconstrução;
+        // esses veículos são lidos de novo para não voltar a ocupação antiga
+        for (Long vehicleId : List.copyOf(reloaded)) {
+            reloaded.remove(vehicleId);
+            load(vehicleId);
+        }
+        log.debug("Índice de ocupação reconstruído: {} veículos", builders.size());
+    }
+
+    /** Recarrega a ocupação do veículo. Dentro de uma transação, só depois do commit. */
+    public void refresh(Long vehicleId) {
+        if (vehicleId != null) {
+            afterCommit(() -> reload(vehicleId));
+        }
+    }
+
+    public void forget(Long vehicleId) {
+        afterCommit(() -> {
+            bitmaps.remove(vehicleId);
+            reloaded.add(vehicleId);
+        });
+    }
+
+    /** Primeiro dia (epoch day) presente no índice. */
+    public long firstDay() {
+        return firstDay;
+    }
+
+    public DayBitmap occupancy(Long vehicleId) {
+        return bitmaps.getOrDefault(vehicleId, DayBitmap.EMPTY);
+    }
+
+    /** Veículos sem reserva nem manutenção em nenhum dos dias, em ordem de id. */
+    public List<Long> freeOn(Collection<LocalDate> days) {
+        DayBitmap.Builder builder = DayBitmap.builder();
+        days.forEach(day -> builder.add(day.toEpochDay()));
+        DayBitmap wanted = builder.build();
+
+        List<Long> free = new ArrayList<>();
+        bitmaps.forEach((vehicleId, occupied) -> {
+            if (!occupied.intersects(wanted)) {
+                free.add(vehicleId);
+            }
+        });
+        free.sort(Comparator.naturalOrder());
+        return free;
+    }
+
+    private void reload(Long vehicleId) {
+        load(vehicleId);
+        // Marcado depois de gravar: uma recarga que termina antes da reconstrução começar
+        // leu o banco antes dela
+        reloaded.add(vehicleId);
+    }
+
+    private void load(Long vehicleId) {
+        if (!vehicleRepository.existsById(vehicleId)) {
+            bitmaps.remove(vehicleId);
+            return;
+        }
+        long first = firstDay;
+        DayBitmap.Builder builder = DayBitmap.builder();
+        Instant after = instantOf(first);
+        for (Object[] row : reservationRepository.findPeriodsByVehicleEndingAfter(vehicleId, after, earliestStart(after))) {
+            addPeriod(builder, (Instant) row[1], (Instant) row[2], first);
+        }
+        bitmaps.put(vehicleId, builder.build());
+    }
+
+    // Nenhum período dura mais que max-duration-days: limita o início e as partições lidas
+    private Instant earliestStart(Instant after) {
+        return after.minus(Duration.ofDays(maxDurationDays));
+    }
+
+    // Dias tocados pelo período; o fim é exclusivo
+    private static void addPeriod(DayBitmap.Builder builder, Instant start, Instant end, long first) {
+        long from = Math.max(first, Math.floorDiv(start.getEpochSecond(), 86_400L));
+        long to = Math.floorDiv(end.minusNanos(1).getEpochSecond(), 86_400L);
+        if (to >= from) {
+            builder.addRange(from, to);
+        }
+    }
+
+    private static Instant instantOf(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,85 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.services.exceptions.PreconditionFailed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Executa uma alteração em transação própria. Se outra transação mudar o mesmo registro
+ * antes do commit (falha de {@code @Version}), a alteração é refeita com backoff
+ * exponencial. Com If-Match não há nova tentativa: o cliente pediu uma versão específica.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${locadora.optimistic-retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${locadora.optimistic-retry.backoff-ms:20}")
+    private long backoffMs;
+
+    private Counter retryCounter;
+
+    @PostConstruct
+    public void init() {
+        retryCounter = meterRegistry.counter("optimistic.update.retries");
+    }
+
+    public <T> T execute(Long expectedVersion, Supplier<T> action) {
+        return execute(expectedVersion, Supplier::get, action);
+    }
+
+    /**
+     * Como {@link #execute(Long, Supplier)}, mas cada tentativa, com a sua transação, roda
+     * dentro de {@code around}. Um lock tomado ali vale só durante a tentativa e fica livre
+     * durante o backoff.
+     */
+    public <T> T execute(Long expectedVersion, Function<Supplier<T>, T> around, Supplier<T> action) {
+        int attempts = expectedVersion == null ? Math.max(1, maxAttempts) : 1;
+        Supplier<T> transactional = () -> new TransactionTemplate(transactionManager).execute(status -> action.get());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return around.apply(transactional);
+            } catch (OptimisticLockingFailureException e) {
+                if (expectedVersion != null) {
+                    throw new PreconditionFailed("O registro foi alterado por outra requisição");
+                }
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                retryCounter.increment();
+                log.debug("Conflito de versão, tentativa {} de {}", attempt + 1, attempts);
+                sleep(attempt);
+            }
+        }
+    }
+
+    private void sleep(int attempt) {
+        long delay = (backoffMs << (attempt - 1)) + ThreadLocalRandom.current().nextLong(backoffMs + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Atualização interrompida", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationCube;
+import ifmg.edu.projeto_locadora_veiculos.archive.ArchivedReservation;
+import ifmg.edu.projeto_locadora_veiculos.archive.ReservationArchive;
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Move, em lotes, as reservas concluídas há mais de {@code locadora.archive.horizon-days}
+ * da tabela reservation para o {@link ReservationArchive}.
+ */
+@Slf4j
+@Service
+public class ReservationArchiveService {
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationArchive reservationArchive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClientReservationService clientReservationService;
+
+    @Autowired
+    private ReservationCube reservationCube;
+
+    @Value("${locadora.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${locadora.archive.horizon-days:730}")
+    private long horizonDays;
+
+    @Value("${locadora.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${locadora.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveCompleted();
+        }
+    }
+
+    public int archiveCompleted() {
+        return archiveCompletedBefore(Instant.now().minus(Duration.ofDays(horizonDays)));
+    }
+
+    public int archiveCompletedBefore(Instant cutoff) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int moved;
+        do {
+            moved = transaction.execute(status -> archiveChunk(cutoff));
+            total += moved;
+        } while (moved == chunkSize);
+
+        if (total > 0) {
+            log.info("{} reservas concluídas antes de {} foram arquivadas", total, cutoff);
+        }
+        return total;
+    }
+
+    private int archiveChunk(Instant cutoff) {
+        List<Reservation> chunk = reservationRepository.findCompletedBefore(cutoff, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            reservationArchive.append(chunk.stream().map(ArchivedReservation::new).toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o arquivo de reservas", e);
+        }
+
+        List<Long> ids = chunk.stream().map(Reservation::getId).toList();
+        reservationRepository.deleteAllByIdInBatch(ids);
+        reservationCube.evictAll(ids);
+        chunk.stream().map(r -> r.getClient().getId()).distinct().forEach(clientReservationService::invalidate);
+        return chunk.size();
+    }
+}
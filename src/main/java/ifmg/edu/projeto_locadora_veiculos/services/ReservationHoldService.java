@@ -0,0 +1,103 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationHold;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationHoldRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static ifmg.edu.projeto_locadora_veiculos.services.TransactionCallbacks.afterCommit;
+
+/**
+ * Expiração das pré-reservas. Os prazos ficam numa {@link HashedTimingWheel} em memória e
+ * o banco só é tocado quando algum bloqueio vence. A verificação de conflito já ignora
+ * bloqueios vencidos, então a remoção aqui é limpeza: se a instância que criou o bloqueio
+ * cair, a próxima a subir remove os que venceram.
+ */
+@Slf4j
+@Service
+public class ReservationHoldService {
+
+    @Autowired
+    private ReservationHoldRepository reservationHoldRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${locadora.reservation.hold.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${locadora.reservation.hold.wheel-size:512}")
+    private int wheelSize;
+
+    private HashedTimingWheel<Long> wheel;
+    private Counter expiredCounter;
+
+    @PostConstruct
+    public void init() {
+        wheel = new HashedTimingWheel<>(tickMs, wheelSize, Instant.now());
+        expiredCounter = meterRegistry.counter("reservation.hold.expired");
+        meterRegistry.gauge("reservation.hold.pending", wheel, HashedTimingWheel::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        Instant now = Instant.now();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int removed = reservationHoldRepository.deleteAllExpired(now);
+            if (removed > 0) {
+                log.info("Pré-reservas vencidas removidas na inicialização: {}", removed);
+            }
+            for (Object[] row : reservationHoldRepository.findActiveExpirations(now)) {
+                wheel.schedule((Long) row[0], (Instant) row[2]);
+            }
+        });
+    }
+
+    /** Agenda a expiração de um bloqueio. Dentro de uma transação, só vale depois do commit. */
+    public void track(ReservationHold hold) {
+        long id = hold.getId();
+        Instant expiresAt = hold.getExpiresAt();
+        afterCommit(() -> wheel.schedule(id, expiresAt));
+    }
+
+    public void untrack(long holdId) {
+        afterCommit(() -> wheel.cancel(holdId));
+    }
+
+    /**
+     * Usado no {@code @PreAuthorize}: a pré-reserva não é de outro cliente. Uma que já não
+     * existe passa, e o serviço responde 404 como para o dono.
+     */
+    public boolean isOwner(Long holdId, String email) {
+        return holdId != null && email != null && !reservationHoldRepository.existsByIdAndOtherClient(holdId, email);
+    }
+
+    @Scheduled(fixedDelayString = "${locadora.reservation.hold.tick-ms:1000}")
+    public void tick() {
+        Instant now = Instant.now();
+        List<Long> expired = wheel.advance(now);
+        if (expired.isEmpty()) {
+            return;
+        }
+        Integer removed = new TransactionTemplate(transactionManager)
+                .execute(status -> reservationHoldRepository.deleteExpired(expired, now));
+        expiredCounter.increment(removed == null ? 0 : removed);
+        log.debug("Pré-reservas expiradas: {}", removed);
+    }
+}
@@ -0,0 +1,275 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import static ifmg.edu.projeto_locadora_veiculos.services.TransactionCallbacks.afterCommit;
+
+/**
+ * Mantém a coluna status das reservas (SCHEDULED -> ACTIVE -> COMPLETED) e o conjunto em
+ * memória das reservas ativas. As próximas fronteiras (início e fim) ficam numa fila
+ * ordenada por instante; a cada tick as transições vencidas atualizam o conjunto e são
+ * aplicadas no banco em lote. Uma varredura periódica corrige qualquer linha que tenha
+ * ficado para trás e recarrega a janela seguinte; o conjunto de ativas vem das linhas com
+ * status ACTIVE. Com várias instâncias, cada uma só enxerga na hora as reservas que ela
+ * mesma gravou; o conjunto é recarregado do banco a cada
+ * {@code locadora.reservation.lifecycle.refresh-ms} para incluir as das outras, que cada
+ * instância marca como ACTIVE no próprio tick.
+ */
+@Slf4j
+@Service
+public class ReservationLifecycleService {
+
+    /**
+     * Cópia dos dados exibidos no relatório de reservas ativas. Alterações no nome do
+     * cliente ou nos dados do veículo só aparecem na próxima recarga.
+     */
+    public record ActiveReservation(long id, String clientName, String brand, String model, String year,
+                                    Instant startDate, Instant endDate) {
+
+        static ActiveReservation of(Reservation reservation) {
+            return new ActiveReservation(
+                    reservation.getId(),
+                    reservation.getClient().getName(),
+                    reservation.getVehicle().getBrand(),
+                    reservation.getVehicle().getModel(),
+                    reservation.getVehicle().getYear(),
+                    reservation.getStartDate(),
+                    reservation.getEndDate());
+        }
+    }
+
+    private record Transition(Instant at, ActiveReservation reservation, ReservationStatus target) {
+    }
+
+    private final PriorityBlockingQueue<Transition> queue =
+            new PriorityBlockingQueue<>(64, Comparator.comparing(Transition::at));
+
+    // Alterado só sob o monitor; recargas montam um mapa novo e trocam a referência
+    private volatile NavigableMap<Long, ActiveReservation> active = new ConcurrentSkipListMap<>();
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${locadora.reservation.lifecycle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locadora.reservation.lifecycle.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${locadora.reservation.max-duration-days:365}")
+    private long maxDurationDays;
+
+    private volatile Instant loadedUntil = Instant.EPOCH;
+
+    private Counter activatedCounter;
+    private Counter completedCounter;
+    private Timer batchTimer;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        activatedCounter = meterRegistry.counter("reservation.lifecycle.transitions", "status", "ACTIVE");
+        completedCounter = meterRegistry.counter("reservation.lifecycle.transitions", "status", "COMPLETED");
+        batchTimer = meterRegistry.timer("reservation.lifecycle.batch");
+        meterRegistry.gauge("reservation.lifecycle.queue.size", queue, PriorityBlockingQueue::size);
+        meterRegistry.gauge("reservation.lifecycle.active.size", this, service -> service.active.size());
+
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Reservas ativas neste instante, em ordem de id. Com o ciclo de vida desligado a coluna
+     * status não é mantida, então a consulta vai ao banco pelas datas.
+     */
+    public Collection<ActiveReservation> activeReservations() {
+        if (!enabled) {
+            Instant now = Instant.now();
+            return new TransactionTemplate(transactionManager).execute(status ->
+                    reservationRepository.findActiveAtWithDetails(now, earliestStart(now)).stream()
+                            .map(ActiveReservation::of)
+                            .toList());
+        }
+        return active.values();
+    }
+
+    /**
+     * Registra uma reserva criada ou alterada. Dentro de uma transação, só vale depois do commit.
+     */
+    public void track(Reservation reservation) {
+        ActiveReservation snapshot = ActiveReservation.of(reservation);
+        afterCommit(() -> {
+            synchronized (this) {
+                forget(snapshot.id());
+                Instant now = Instant.now();
+                if (ReservationStatus.at(snapshot.startDate(), snapshot.endDate(), now) == ReservationStatus.ACTIVE) {
+                    active.put(snapshot.id(), snapshot);
+                }
+                Instant until = loadedUntil;
+                enqueue(snapshot, snapshot.startDate(), ReservationStatus.ACTIVE, until);
+                enqueue(snapshot, snapshot.endDate(), ReservationStatus.COMPLETED, until);
+            }
+        });
+    }
+
+    public void untrack(long reservationId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                forget(reservationId);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${locadora.reservation.lifecycle.tick-ms:1000}")
+    public void tick() {
+        if (!enabled || batchTimer == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        if (!now.isBefore(loadedUntil.minus(Duration.ofMinutes(windowMinutes / 2)))) {
+            sweep();
+            return;
+        }
+
+        List<Long> toActivate = new ArrayList<>();
+        List<Long> toComplete = new ArrayList<>();
+        synchronized (this) {
+            Transition next;
+            while ((next = queue.peek()) != null && !next.at().isAfter(now)) {
+                queue.poll();
+                long id = next.reservation().id();
+                if (next.target() == ReservationStatus.ACTIVE) {
+                    if (!next.reservation().endDate().isBefore(now)) {
+                        active.put(id, next.reservation());
+                    }
+                    toActivate.add(id);
+                } else {
+                    active.remove(id);
+                    toComplete.add(id);
+                }
+            }
+        }
+        if (toActivate.isEmpty() && toComplete.isEmpty()) {
+            return;
+        }
+
+        batchTimer.record(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // O fim de uma reserva é sempre posterior ao início; aplicar nessa ordem evita
+            // deixar como ACTIVE uma reserva curta que começou e terminou no mesmo tick
+            if (!toActivate.isEmpty()) {
+                activatedCounter.increment(reservationRepository.activate(toActivate, now));
+            }
+            if (!toComplete.isEmpty()) {
+                completedCounter.increment(reservationRepository.complete(toComplete, now));
+            }
+        }));
+    }
+
+    /**
+     * Troca o conjunto de reservas ativas pelo que está no banco agora, incluindo as gravadas
+     * ou removidas por outras instâncias. O conjunto novo é montado à parte e trocado de uma
+     * vez, então o relatório nunca vê um conjunto pela metade. Roda sob o mesmo monitor de
+     * {@link #track}, então uma alteração local confirmada durante a consulta é aplicada
+     * depois da troca.
+     */
+    @Scheduled(fixedDelayString = "${locadora.reservation.lifecycle.refresh-ms:5000}",
+            initialDelayString = "${locadora.reservation.lifecycle.refresh-ms:5000}")
+    public synchronized void refreshActive() {
+        if (!enabled || batchTimer == null) {
+            return;
+        }
+        active = toMap(loadActive(Instant.now()));
+    }
+
+    /**
+     * Aplica em lote todas as transições vencidas, recarrega o conjunto de reservas ativas
+     * e a fila com as fronteiras da próxima janela.
+     */
+    public synchronized void sweep() {
+        Instant now = Instant.now();
+        Instant until = now.plus(Duration.ofMinutes(windowMinutes));
+
+        List<ActiveReservation> current = new ArrayList<>();
+        List<ActiveReservation> upcoming = new ArrayList<>();
+        batchTimer.record(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            reservationRepository.scheduleAllPending(now);
+            activatedCounter.increment(reservationRepository.activateAllDue(now));
+            completedCounter.increment(reservationRepository.completeAllDue(now));
+            reservationRepository.findActiveWithDetails(now, earliestStart(now))
+                    .forEach(r -> current.add(ActiveReservation.of(r)));
+            reservationRepository.findByBoundaryBetween(now, until, earliestStart(now))
+                    .forEach(r -> upcoming.add(ActiveReservation.of(r)));
+        }));
+
+        queue.clear();
+        active = toMap(current);
+        loadedUntil = until;
+        for (ActiveReservation r : upcoming) {
+            enqueue(r, r.startDate(), ReservationStatus.ACTIVE, until);
+            enqueue(r, r.endDate(), ReservationStatus.COMPLETED, until);
+        }
+        log.debug("Ciclo de vida das reservas: {} ativas, {} fronteiras até {}", active.size(), queue.size(), until);
+    }
+
+    private List<ActiveReservation> loadActive(Instant now) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                reservationRepository.findActiveWithDetails(now, earliestStart(now)).stream()
+                        .map(ActiveReservation::of)
+                        .toList());
+    }
+
+    // Nenhuma reserva dura mais que max-duration-days: limita as partições lidas
+    private Instant earliestStart(Instant now) {
+        return now.minus(Duration.ofDays(maxDurationDays));
+    }
+
+    private static NavigableMap<Long, ActiveReservation> toMap(List<ActiveReservation> reservations) {
+        NavigableMap<Long, ActiveReservation> map = new ConcurrentSkipListMap<>();
+        reservations.forEach(r -> map.put(r.id(), r));
+        return map;
+    }
+
+    private void forget(long reservationId) {
+        queue.removeIf(t -> t.reservation().id() == reservationId);
+        active.remove(reservationId);
+    }
+
+    private void enqueue(ActiveReservation reservation, Instant at, ReservationStatus target, Instant until) {
+        if (at == null || at.isAfter(until)) {
+            return;
+        }
+        // O fim é inclusivo: a reserva só fica COMPLETED depois do instante final
+        Instant due = target == ReservationStatus.COMPLETED ? at.plusMillis(1) : at;
+        queue.add(new Transition(due, reservation, target));
+    }
+}
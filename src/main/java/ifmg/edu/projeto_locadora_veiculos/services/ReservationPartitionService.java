@@ -0,0 +1,228 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Particionamento mensal (RANGE em start_date) da tabela reservation no PostgreSQL.
+ * Cria as partições dos próximos meses e desanexa as que saíram da retenção, depois de
+ * arquivadas. A conversão da tabela roda na subida, antes do servidor web aceitar
+ * requisições, e cada passo segura um advisory lock para que instâncias subindo juntas
+ * não convertam nem criem partições ao mesmo tempo.
+ */
+@Slf4j
+@Service
+public class ReservationPartitionService implements SmartInitializingSingleton {
+
+    static final String TABLE = "reservation";
+    static final String DEFAULT_PARTITION = "reservation_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("reservation_y(\\d{4})m(\\d{2})");
+    // Primeira chave do par (int, int) do advisory lock, como em VehicleAdvisoryLocks
+    private static final int LOCK_NAMESPACE = 0x50415254;
+
+    // Índices declarados em Reservation: o CREATE TABLE ... LIKE não copia nenhum
+    private static final List<String> INDEXES = List.of(
+            "idx_reservation_period_value ON " + TABLE + " (start_date, end_date, daily_value_cents)",
+            "idx_reservation_vehicle_period ON " + TABLE + " (vehicle_id, start_date, end_date)",
+            "idx_reservation_client_period ON " + TABLE + " (client_id, start_date, end_date)",
+            "idx_reservation_status_period ON " + TABLE + " (status, start_date)",
+            "idx_reservation_daily_value ON " + TABLE + " (daily_value_cents)",
+            "idx_reservation_updated ON " + TABLE + " (updated_at, id)",
+            "idx_reservation_client_id ON " + TABLE + " (client_id, id)",
+            "idx_reservation_vehicle_id ON " + TABLE + " (vehicle_id, id)",
+            "idx_reservation_status_id ON " + TABLE + " (status, id)"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${locadora.reservation.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${locadora.reservation.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${locadora.reservation.partitioning.retention-months:24}")
+    private int retentionMonths;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        onStartup();
+    }
+
+    public void onStartup() {
+        if (!isActive()) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> convertToPartitionedTable());
+        transaction.executeWithoutResult(status -> maintainPartitions());
+    }
+
+    @Scheduled(cron = "${locadora.reservation.partitioning.cron:0 0 3 * * *}")
+    public void scheduledMaintenance() {
+        if (isActive()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> maintainPartitions());
+        }
+    }
+
+    public void maintainPartitions() {
+        lockPartitioning();
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (String partition : attachedPartitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (matcher.matches()) {
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                if (month.isBefore(oldestKept)) {
+                    detachIfArchived(partition);
+                }
+            }
+        }
+    }
+
+    public List<String> attachedPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?
+                ORDER BY c.relname
+                """, String.class, TABLE);
+    }
+
+    static String partitionName(YearMonth month) {
+        int m = month.getMonthValue();
+        return "reservation_y" + month.getYear() + "m" + (m < 10 ? "0" + m : String.valueOf(m));
+    }
+
+    /**
+     * Reservas feitas além de {@code months-ahead} caem na partição default, e o PostgreSQL
+     * recusa criar o mês enquanto a default tiver linhas nesse intervalo. Nesse caso a default
+     * é desanexada, o mês é criado, as linhas são movidas para ele e a default volta.
+     */
+    private void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        if (exists(name)) {
+            return;
+        }
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String create = "CREATE TABLE " + name + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+
+        String inRange = " WHERE start_date >= '" + from + "' AND start_date < '" + to + "'";
+        boolean defaultHasRows = exists(DEFAULT_PARTITION) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + inRange + ")", Boolean.class));
+        if (!defaultHasRows) {
+            jdbcTemplate.execute(create);
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + DEFAULT_PARTITION);
+        jdbcTemplate.execute(create);
+        int moved = jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT * FROM " + DEFAULT_PARTITION + inRange);
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + inRange);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+        log.info("{} reservas movidas da partição {} para {}", moved, DEFAULT_PARTITION, name);
+    }
+
+    /**
+     * O arquivamento remove do banco as reservas que grava em disco; uma partição antiga que
+     * ainda tem linhas não foi arquivada e continua anexada, para não sumir dos relatórios.
+     */
+    private void detachIfArchived(String partition) {
+        Boolean hasRows = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+        if (Boolean.TRUE.equals(hasRows)) {
+            log.warn("Partição {} fora da retenção mantida: ainda há reservas não arquivadas", partition);
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+        log.info("Partição {} desanexada da tabela {}", partition, TABLE);
+    }
+
+    private boolean exists(String relation) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation);
+    }
+
+    public void convertToPartitionedTable() {
+        // Antes de olhar o relkind: a segunda instância espera e encontra a tabela já convertida
+        lockPartitioning();
+        String kind = jdbcTemplate.query(
+                "SELECT relkind FROM pg_class WHERE relname = ? AND relkind IN ('r', 'p')",
+                rs -> rs.next() ? rs.getString(1) : null, TABLE);
+        if (kind == null || "p".equals(kind)) {
+            return;
+        }
+
+        log.info("Convertendo a tabela {} para particionamento mensal por start_date", TABLE);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO reservation_unpartitioned");
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE reservation_unpartitioned INCLUDING DEFAULTS INCLUDING IDENTITY)" +
+                " PARTITION BY RANGE (start_date)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD PRIMARY KEY (id, start_date)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD FOREIGN KEY (client_id) REFERENCES client (id)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD FOREIGN KEY (vehicle_id) REFERENCES vehicle (id)");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+
+        List<LocalDate> months = jdbcTemplate.queryForList(
+                "SELECT DISTINCT CAST(date_trunc('month', start_date) AS date) FROM reservation_unpartitioned",
+                LocalDate.class);
+        months.forEach(month -> createPartition(YearMonth.from(month)));
+
+        jdbcTemplate.execute("INSERT INTO " + TABLE + " SELECT * FROM reservation_unpartitioned");
+        jdbcTemplate.execute("DROP TABLE reservation_unpartitioned");
+        INDEXES.forEach(index -> jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index));
+        jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('" + TABLE + "', 'id'), " +
+                "COALESCE((SELECT MAX(id) FROM " + TABLE + "), 0) + 1, false)");
+    }
+
+    // Liberado no commit ou rollback da transação corrente
+    private void lockPartitioning() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_NAMESPACE + ", 0)");
+    }
+
+    private boolean isActive() {
+        if (!enabled) {
+            return false;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                log.warn("Particionamento de reservas ignorado: banco {} não suportado", product);
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            log.warn("Particionamento de reservas ignorado: {}", e.getMessage());
+            return false;
+        }
+    }
+}
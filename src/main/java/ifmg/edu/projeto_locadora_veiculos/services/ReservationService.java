@@ -1,45 +1,189 @@
 package ifmg.edu.projeto_locadora_veiculos.services;
 
+import ifmg.edu.projeto_locadora_veiculos.analytics.DemandForecast;
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationCube;
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationStats;
+import ifmg.edu.projeto_locadora_veiculos.archive.ArchivedReservation;
+import ifmg.edu.projeto_locadora_veiculos.archive.ReservationArchive;
+import ifmg.edu.projeto_locadora_veiculos.dto.KeysetPageDTO;
 import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationHoldDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationSearchDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.VehicleRankingDTO;
 import ifmg.edu.projeto_locadora_veiculos.entities.Client;
 import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationHold;
 import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import ifmg.edu.projeto_locadora_veiculos.reports.ReportFormats;
+import ifmg.edu.projeto_locadora_veiculos.reports.ReportTemplate;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationHoldRepository;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationSpecifications;
 import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import ifmg.edu.projeto_locadora_veiculos.services.ReservationLifecycleService.ActiveReservation;
+import ifmg.edu.projeto_locadora_veiculos.services.exceptions.BookingConflict;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class ReservationService {
 
+    private static final String INVOICE_SEPARATOR = "===============================\n";
+    static final String BOOKED_CONFLICT = "Já existe uma reserva ou manutenção nesse período";
+    static final String HOLD_CONFLICT = "O veículo está bloqueado por uma pré-reserva nesse período";
+    private static final int ARCHIVE_LOOKUP_BATCH = 1000;
+
+    private static final ReportTemplate<Reservation> RESERVATION_LINE = ReportTemplate.<Reservation>compile(
+                    "Reserva: Cliente: {client} - Veículo: {model} {brand} {year} - Período: {start} à {end}")
+            .text("client", r -> r.getClient().getName())
+            .text("model", r -> r.getVehicle().getModel())
+            .text("brand", r -> r.getVehicle().getBrand())
+            .text("year", r -> r.getVehicle().getYear())
+            .date("start", Reservation::getStartDate)
+            .date("end", Reservation::getEndDate)
+            .build();
+
+    private static final ReportTemplate<ActiveReservation> ACTIVE_RESERVATION_LINE = ReportTemplate.<ActiveReservation>compile(
+                    "Reserva ativa - Cliente: {client} | Veículo: {brand} {model} {year} | Período: {start} à {end}")
+            .text("client", ActiveReservation::clientName)
+            .text("brand", ActiveReservation::brand)
+            .text("model", ActiveReservation::model)
+            .text("year", ActiveReservation::year)
+            .date("start", ActiveReservation::startDate)
+            .date("end", ActiveReservation::endDate)
+            .build();
+
+    private static final ReportTemplate<VehicleRankingDTO> RESERVATIONS_PER_VEHICLE_LINE =
+            ReportTemplate.<VehicleRankingDTO>compile("Veículo: {brand} {model} {year} ({plate}) | Total de reservas: {count}")
+                    .text("brand", VehicleRankingDTO::getBrand)
+                    .text("model", VehicleRankingDTO::getModel)
+                    .text("year", VehicleRankingDTO::getYear)
+                    .text("plate", VehicleRankingDTO::getPlate)
+                    .number("count", VehicleRankingDTO::getBookings)
+                    .build();
+
+    private static final ReportTemplate<Client> INVOICE_HEADER = ReportTemplate.<Client>compile(
+                    INVOICE_SEPARATOR +
+                    "         NOTA FISCAL\n" +
+                    INVOICE_SEPARATOR +
+                    "Nome: {name}\n" +
+                    "Endereço: {address}\n" +
+                    "Cidade: {city}\n" +
+                    INVOICE_SEPARATOR +
+                    "        ==== VEÍCULOS ====\n")
+            .text("name", Client::getName)
+            .text("address", Client::getAddress)
+            .text("city", Client::getCity)
+            .build();
+
+    private static final ReportTemplate<InvoiceLine> INVOICE_LINE = ReportTemplate.<InvoiceLine>compile(
+                    "Veículo: {model} | Diárias: {days} | Valor diário: R$ {daily} | Total: R$ {total}\n")
+            .text("model", l -> l.model)
+            .number("days", l -> l.days)
+            .money("daily", l -> l.dailyCents)
+            .money("total", l -> l.totalCents)
+            .build();
+
     @Autowired
     private ReservationRepository reservationRepository;
 
+    @Autowired
+    private ReservationHoldRepository reservationHoldRepository;
+
     @Autowired
     private ClientRepository clientRepository;
 
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private ReservationArchive reservationArchive;
+
+    @Autowired
+    private ReservationLifecycleService reservationLifecycleService;
+
+    @Autowired
+    private ReservationHoldService reservationHoldService;
+
+    @Autowired
+    private VehicleBookingLocks vehicleBookingLocks;
+
+    @Autowired
+    private BookingAlternatives bookingAlternatives;
+
+    @Autowired
+    private BookingShards bookingShards;
+
+    @Autowired
+    private VehicleAdvisoryLocks vehicleAdvisoryLocks;
+
+    @Autowired
+    private OccupancyIndex occupancyIndex;
+
+    @Autowired
+    private ReservationCube reservationCube;
+
+    @Autowired
+    private ReservationStats reservationStats;
+
+    @Autowired
+    private DemandForecast demandForecast;
+
+    @Autowired
+    private ClientReservationService clientReservationService;
+
+    @Autowired
+    private RevenuePartitions revenuePartitions;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${locadora.reservation.max-duration-days:365}")
+    private long maxDurationDays;
+
+    @Value("${locadora.reservation.hold.ttl-seconds:600}")
+    private long holdTtlSeconds;
+
+    @Value("${locadora.reservation.group.max-size:50}")
+    private int groupMaxSize;
+
+    @Value("${locadora.reservation.search.max-size:100}")
+    private int searchMaxSize;
+
     @GetMapping(produces = "application/json")
     @Operation(
             description = "Obtenha todas as reservas",
@@ -53,6 +197,45 @@ public class ReservationService {
         return page.map(ReservationDTO::new);
     }
 
+    /**
+     * Busca com filtros opcionais, em ordem de id. A próxima página começa depois do id do
+     * cursor, sem OFFSET nem contagem total; uma linha a mais indica se há próxima página.
+     * Quais filtros dispensam a ordenação está em {@link ReservationSpecifications}.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<ReservationDTO> search(ReservationSearchDTO filter, String cursor, int size) {
+        if (size < 1 || size > searchMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O tamanho da página deve estar entre 1 e " + searchMaxSize);
+        }
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getTo().isAfter(filter.getFrom())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido");
+        }
+        Long afterId;
+        try {
+            afterId = cursor == null || cursor.isBlank() ? null : Long.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
+
+        Specification<Reservation> spec = Specification.where(ReservationSpecifications.withDetails())
+                .and(ReservationSpecifications.clientIs(filter.getClientId()))
+                .and(ReservationSpecifications.vehicleIs(filter.getVehicleId()))
+                .and(ReservationSpecifications.overlaps(filter.getFrom(), filter.getTo(),
+                        filter.getFrom() == null ? null : earliestOverlappingStart(filter.getFrom())))
+                .and(ReservationSpecifications.statusIs(filter.getStatus()))
+                .and(ReservationSpecifications.brandIs(filter.getBrand()))
+                .and(ReservationSpecifications.dailyValueBetween(filter.getMinDailyValueCents(), filter.getMaxDailyValueCents()))
+                .and(ReservationSpecifications.idAfter(afterId));
+
+        List<Reservation> rows = reservationRepository.findBy(spec,
+                query -> query.sortBy(Sort.by("id")).limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        List<ReservationDTO> content = rows.stream().limit(size).map(ReservationDTO::new).toList();
+        String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getId()) : null;
+        return new KeysetPageDTO<>(content, nextCursor);
+    }
+
     @Transactional(readOnly = true)
     public ReservationDTO findById(Long id) {
         Reservation reservation = reservationRepository.findById(id)
@@ -60,17 +243,27 @@ public class ReservationService {
         return new ReservationDTO(reservation);
     }
 
-    @Transactional
+    /**
+     * A verificação de conflito e o commit ficam dentro do lock do veículo; por isso a
+     * transação é aberta aqui e não com {@code @Transactional}. Um conflito responde 409
+     * com as alternativas livres mais próximas, calculadas depois de liberar o lock.
+     */
     public ReservationDTO insert(ReservationDTO dto) {
-        boolean exists = reservationRepository.existsByVehicleIdAndDateRange(
-                dto.getVehicleId(),
-                dto.getStartDate(),
-                dto.getEndDate()
-        );
+        validatePeriod(dto.getStartDate(), dto.getEndDate());
 
-        if (exists) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Já existe uma reserva nesse período");
+        try {
+            if (bookingShards.isEnabled()) {
+                return bookingShards.await(bookingShards.create(dto));
+            }
+            return vehicleBookingLocks.withLock(dto.getVehicleId(),
+                    () -> new TransactionTemplate(transactionManager).execute(status -> doInsert(dto)));
+        } catch (ResponseStatusException e) {
+            throw withAlternatives(e, dto);
         }
+    }
+
+    private ReservationDTO doInsert(ReservationDTO dto) {
+        ensureAvailable(dto, null);
 
         Client client = clientRepository.findById(dto.getClientId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado"));
@@ -86,23 +279,252 @@ public class ReservationService {
         );
 
         reservation = reservationRepository.save(reservation);
+        reservationLifecycleService.track(reservation);
+        reservationStats.added(reservation);
+        demandForecast.added(reservation);
+        occupancyIndex.refresh(vehicle.getId());
+        clientReservationService.invalidate(client.getId());
         return new ReservationDTO(reservation);
     }
 
-    @Transactional
-    public ReservationDTO update(Long id, ReservationDTO dto) {
+    /**
+     * Reserva vários veículos de uma vez: todas as reservas são gravadas ou nenhuma. Os
+     * locks de todos os veículos são obtidos em ordem fixa, a disponibilidade é verificada
+     * numa única consulta e as inserções vão numa única transação.
+     */
+    public List<ReservationDTO> insertGroup(List<ReservationDTO> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe ao menos uma reserva");
+        }
+        if (items.size() > groupMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Uma reserva em grupo aceita no máximo " + groupMaxSize + " veículos");
+        }
+        for (ReservationDTO item : items) {
+            if (item.getClientId() == null || item.getVehicleId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cliente e veículo são obrigatórios em cada reserva");
+            }
+            validatePeriod(item.getStartDate(), item.getEndDate());
+        }
+        List<Long> clashing = overlappingWithinGroup(items);
+        if (!clashing.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Períodos sobrepostos no próprio pedido para os veículos: " + clashing);
+        }
+        if (bookingShards.isEnabled()) {
+            // Cada veículo pertence a um shard e não há commit atômico entre shards
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED,
+                    "Reserva em grupo indisponível com os shards de reserva ativos");
+        }
+
+        Set<Long> vehicleIds = items.stream().map(ReservationDTO::getVehicleId).collect(Collectors.toSet());
+        return vehicleBookingLocks.withLocks(vehicleIds,
+                () -> new TransactionTemplate(transactionManager).execute(status -> doInsertGroup(items, vehicleIds)));
+    }
+
+    private List<ReservationDTO> doInsertGroup(List<ReservationDTO> items, Set<Long> vehicleIds) {
+        vehicleAdvisoryLocks.lockAll(vehicleIds);
+
+        Instant from = items.stream().map(ReservationDTO::getStartDate).min(Instant::compareTo).orElseThrow();
+        Instant to = items.stream().map(ReservationDTO::getEndDate).max(Instant::compareTo).orElseThrow();
+        Map<Long, List<Instant[]>> busy = new HashMap<>();
+        for (Object[] row : reservationRepository.findBusyPeriodsByVehicles(
+                vehicleIds, from, to, earliestOverlappingStart(from), Instant.now())) {
+            busy.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(new Instant[]{(Instant) row[1], (Instant) row[2]});
+        }
+
+        List<Long> unavailable = items.stream()
+                .filter(item -> busy.getOrDefault(item.getVehicleId(), List.of()).stream()
+                        .anyMatch(period -> period[0].isBefore(item.getEndDate()) && period[1].isAfter(item.getStartDate())))
+                .map(ReservationDTO::getVehicleId)
+                .distinct()
+                .sorted()
+                .toList();
+        if (!unavailable.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Já existe reserva ou manutenção nesse período para os veículos: " + unavailable);
+        }
+
+        Map<Long, Client> clients = clientRepository.findAllById(
+                        items.stream().map(ReservationDTO::getClientId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+        Map<Long, Vehicle> vehicles = vehicleRepository.findAllById(vehicleIds).stream()
+                .collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+
+        List<Reservation> reservations = new ArrayList<>(items.size());
+        for (ReservationDTO item : items) {
+            Client client = clients.get(item.getClientId());
+            if (client == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado: " + item.getClientId());
+            }
+            Vehicle vehicle = vehicles.get(item.getVehicleId());
+            if (vehicle == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Veículo não encontrado: " + item.getVehicleId());
+            }
+            reservations.add(new Reservation(client, vehicle, item.getStartDate(), item.getEndDate()));
+        }
+
+        reservations = reservationRepository.saveAll(reservations);
+        reservations.forEach(reservationLifecycleService::track);
+        reservations.forEach(reservationStats::added);
+        reservations.forEach(demandForecast::added);
+        vehicleIds.forEach(occupancyIndex::refresh);
+        clients.keySet().forEach(clientReservationService::invalidate);
+        return reservations.stream().map(ReservationDTO::new).toList();
+    }
+
+    // Veículos que aparecem mais de uma vez no pedido com períodos sobrepostos
+    private static List<Long> overlappingWithinGroup(List<ReservationDTO> items) {
+        Map<Long, List<ReservationDTO>> byVehicle = items.stream()
+                .collect(Collectors.groupingBy(ReservationDTO::getVehicleId));
+        List<Long> clashing = new ArrayList<>();
+        byVehicle.forEach((vehicleId, list) -> {
+            if (list.size() < 2) {
+                return;
+            }
+            List<ReservationDTO> sorted = list.stream().sorted(Comparator.comparing(ReservationDTO::getStartDate)).toList();
+            for (int i = 1; i < sorted.size(); i++) {
+                if (sorted.get(i).getStartDate().isBefore(sorted.get(i - 1).getEndDate())) {
+                    clashing.add(vehicleId);
+                    return;
+                }
+            }
+        });
+        clashing.sort(Comparator.naturalOrder());
+        return clashing;
+    }
+
+    /**
+     * Bloqueia o veículo no período por {@code locadora.reservation.hold.ttl-seconds}. O
+     * bloqueio conta como conflito para outras reservas e pré-reservas até expirar ou ser
+     * confirmado.
+     */
+    public ReservationHoldDTO hold(ReservationDTO dto) {
+        validatePeriod(dto.getStartDate(), dto.getEndDate());
+
         try {
-            boolean exists = reservationRepository.existsByVehicleIdAndDateRange(
-                    dto.getVehicleId(),
-                    dto.getStartDate(),
-                    dto.getEndDate()
-            );
-
-            if (exists) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Já existe uma reserva nesse período");
+            if (bookingShards.isEnabled()) {
+                return bookingShards.await(bookingShards.hold(dto, holdTtlSeconds));
             }
+            return vehicleBookingLocks.withLock(dto.getVehicleId(),
+                    () -> new TransactionTemplate(transactionManager).execute(status -> doHold(dto)));
+        } catch (ResponseStatusException e) {
+            throw withAlternatives(e, dto);
+        }
+    }
+
+    private ReservationHoldDTO doHold(ReservationDTO dto) {
+        ensureAvailable(dto, null);
+
+        Client client = clientRepository.findById(dto.getClientId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado"));
+
+        Vehicle vehicle = vehicleRepository.findById(dto.getVehicleId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Veículo não encontrado"));
+
+        ReservationHold hold = reservationHoldRepository.save(new ReservationHold(client, vehicle,
+                dto.getStartDate(), dto.getEndDate(), Instant.now().plusSeconds(holdTtlSeconds)));
+        reservationHoldService.track(hold);
+        return new ReservationHoldDTO(hold);
+    }
+
+    @Transactional(readOnly = true)
+    public ReservationHoldDTO findHold(Long holdId) {
+        ReservationHold hold = reservationHoldRepository.findById(holdId)
+                .filter(h -> !h.isExpired(Instant.now()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pré-reserva não encontrada"));
+        return new ReservationHoldDTO(hold);
+    }
+
+    /**
+     * Converte a pré-reserva em reserva: a reserva é gravada e o bloqueio removido na mesma
+     * transação, dentro do lock do veículo. Um bloqueio vencido responde 410.
+     */
+    public ReservationDTO confirmHold(Long holdId) {
+        Long vehicleId = reservationHoldRepository.findById(holdId)
+                .map(h -> h.getVehicle().getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pré-reserva não encontrada"));
+
+        if (bookingShards.isEnabled()) {
+            return bookingShards.await(bookingShards.confirmHold(holdId, vehicleId));
+        }
+        return vehicleBookingLocks.withLock(vehicleId,
+                () -> new TransactionTemplate(transactionManager).execute(status -> doConfirmHold(holdId, vehicleId)));
+    }
+
+    private ReservationDTO doConfirmHold(Long holdId, Long vehicleId) {
+        // Outra instância pode estar reservando o mesmo veículo assim que o bloqueio vencer
+        vehicleAdvisoryLocks.lock(vehicleId);
+
+        ReservationHold hold = reservationHoldRepository.findById(holdId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pré-reserva não encontrada"));
+        if (hold.isExpired(Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Pré-reserva expirada");
+        }
+
+        Reservation reservation = reservationRepository.save(
+                new Reservation(hold.getClient(), hold.getVehicle(), hold.getStartDate(), hold.getEndDate()));
+        reservationHoldRepository.delete(hold);
+
+        reservationHoldService.untrack(holdId);
+        reservationLifecycleService.track(reservation);
+        reservationStats.added(reservation);
+        demandForecast.added(reservation);
+        occupancyIndex.refresh(vehicleId);
+        clientReservationService.invalidate(reservation.getClient().getId());
+        return new ReservationDTO(reservation);
+    }
+
+    public void releaseHold(Long holdId) {
+        Long vehicleId = reservationHoldRepository.findById(holdId)
+                .map(h -> h.getVehicle().getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pré-reserva não encontrada"));
+
+        vehicleBookingLocks.withLock(vehicleId,
+                () -> new TransactionTemplate(transactionManager).execute(status -> doReleaseHold(holdId, vehicleId)));
+        bookingShards.invalidate(vehicleId);
+    }
+
+    private Void doReleaseHold(Long holdId, Long vehicleId) {
+        vehicleAdvisoryLocks.lock(vehicleId);
+
+        ReservationHold hold = reservationHoldRepository.findById(holdId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pré-reserva não encontrada"));
+        reservationHoldRepository.delete(hold);
+        reservationHoldService.untrack(holdId);
+        return null;
+    }
 
+    public ReservationDTO update(Long id, ReservationDTO dto) {
+        return update(id, dto, null);
+    }
+
+    public ReservationDTO update(Long id, ReservationDTO dto, Long expectedVersion) {
+        validatePeriod(dto.getStartDate(), dto.getEndDate());
+
+        if (bookingShards.isEnabled()) {
+            return bookingShards.await(bookingShards.update(id, dto, expectedVersion));
+        }
+        // O lock do veículo é tomado a cada tentativa, não durante a espera entre elas
+        return optimisticRetry.execute(expectedVersion,
+                attempt -> vehicleBookingLocks.withLock(dto.getVehicleId(), attempt),
+                () -> doUpdate(id, dto, expectedVersion));
+    }
+
+    private ReservationDTO doUpdate(Long id, ReservationDTO dto, Long expectedVersion) {
+        try {
             Reservation reservation = reservationRepository.getReferenceById(id);
+            if (expectedVersion != null && reservation.getVersion() != expectedVersion) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Reserva alterada por outra requisição");
+            }
+
+            ensureAvailable(dto, id);
+            Vehicle previousVehicle = reservation.getVehicle();
+            Long previousVehicleId = previousVehicle.getId();
+            Instant previousStart = reservation.getStartDate();
+            Instant previousEnd = reservation.getEndDate();
+            Long previousClientId = reservation.getClient().getId();
 
             Client client = clientRepository.findById(dto.getClientId())
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado"));
@@ -114,42 +536,108 @@ public class ReservationService {
             reservation.setVehicle(vehicle);
             reservation.setStartDate(dto.getStartDate());
             reservation.setEndDate(dto.getEndDate());
-
-            return new ReservationDTO(reservationRepository.save(reservation));
+            reservation.capturePrice();
+            reservation.refreshStatus(Instant.now());
+
+            reservation = reservationRepository.saveAndFlush(reservation);
+            reservationLifecycleService.track(reservation);
+            reservationStats.removed(reservation.getCreatedAt(), previousStart, previousEnd);
+            reservationStats.added(reservation);
+            demandForecast.removed(previousVehicle, previousStart, previousEnd);
+            demandForecast.added(reservation);
+            occupancyIndex.refresh(previousVehicleId);
+            occupancyIndex.refresh(vehicle.getId());
+            clientReservationService.invalidate(previousClientId);
+            clientReservationService.invalidate(client.getId());
+            return new ReservationDTO(reservation);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Reserva não encontrada");
         }
     }
 
+    /**
+     * Um conflito já gravado responde 409 sem esperar lock. Com o advisory lock, a consulta
+     * é refeita depois de obtê-lo, pois outra instância pode ter gravado nesse intervalo.
+     */
+    private void ensureAvailable(ReservationDTO dto, Long reservationId) {
+        checkConflict(dto, reservationId);
+        if (vehicleAdvisoryLocks.lock(dto.getVehicleId())) {
+            checkConflict(dto, reservationId);
+        }
+    }
+
+    // Na alteração, a própria reserva não conta como conflito
+    private void checkConflict(ReservationDTO dto, Long reservationId) {
+        Instant earliestStart = earliestOverlappingStart(dto.getStartDate());
+        boolean exists = reservationId == null
+                ? reservationRepository.existsByVehicleIdAndDateRange(
+                        dto.getVehicleId(), dto.getStartDate(), dto.getEndDate(), earliestStart)
+                : reservationRepository.existsOtherByVehicleIdAndDateRange(
+                        reservationId, dto.getVehicleId(), dto.getStartDate(), dto.getEndDate(), earliestStart);
+
+        if (exists) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, BOOKED_CONFLICT);
+        }
+        if (reservationHoldRepository.existsActiveByVehicleIdAndDateRange(
+                dto.getVehicleId(), dto.getStartDate(), dto.getEndDate(), Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, HOLD_CONFLICT);
+        }
+    }
+
+    private ResponseStatusException withAlternatives(ResponseStatusException e, ReservationDTO dto) {
+        if (e.getStatusCode().value() != HttpStatus.CONFLICT.value() || e instanceof BookingConflict) {
+            return e;
+        }
+        return new BookingConflict(e.getReason(),
+                bookingAlternatives.suggest(dto.getVehicleId(), dto.getStartDate(), dto.getEndDate()));
+    }
+
+    private void validatePeriod(Instant startDate, Instant endDate) {
+        if (startDate == null || endDate == null || !endDate.isAfter(startDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A data de término deve ser posterior à data de início");
+        }
+        if (Duration.between(startDate, endDate).compareTo(Duration.ofDays(maxDurationDays)) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A reserva não pode exceder " + maxDurationDays + " dias");
+        }
+    }
+
+    /**
+     * Menor data de início que uma reserva sobreposta a {@code startDate} pode ter. Limitar
+     * start_date pelos dois lados permite ao PostgreSQL descartar as partições fora do intervalo.
+     */
+    private Instant earliestOverlappingStart(Instant startDate) {
+        return startDate.minus(Duration.ofDays(maxDurationDays));
+    }
+
     public void delete(Long id) {
-        if (!reservationRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Reserva não encontrada");
+        if (bookingShards.isEnabled()) {
+            Long vehicleId = reservationRepository.findById(id)
+                    .map(r -> r.getVehicle().getId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reserva não encontrada"));
+            bookingShards.await(bookingShards.cancel(id, vehicleId));
+            return;
         }
+        Reservation reservation = reservationRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reserva não encontrada"));
         reservationRepository.deleteById(id);
+        reservationLifecycleService.untrack(id);
+        reservationStats.removed(reservation.getCreatedAt(), reservation.getStartDate(), reservation.getEndDate());
+        demandForecast.removed(reservation.getVehicle(), reservation.getStartDate(), reservation.getEndDate());
+        occupancyIndex.refresh(reservation.getVehicle().getId());
+        reservationCube.evict(id);
+        clientReservationService.invalidate(reservation.getClient().getId());
     }
 
     public List<String> reservationList() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy").withZone(ZoneOffset.UTC);
-
         List<Reservation> reservations = reservationRepository.findAll();
-
-        return reservations.stream()
-                .map(r -> {
-                    Instant startInstant = r.getStartDate();
-                    Instant endInstant = r.getEndDate();
-
-                    return String.format("Reserva: Cliente: %s - Veículo: %s %s %s - Período: %s à %s",
-                            r.getClient().getName(),
-                            r.getVehicle().getModel(),
-                            r.getVehicle().getBrand(),
-                            r.getVehicle().getYear(),
-                            formatter.format(startInstant),
-                            formatter.format(endInstant));
-                })
-                .toList();
+        return RESERVATION_LINE.renderAll(reservations);
     }
 
     public String generateInvoice(Long clientId) {
+        return generateInvoice(clientId, false);
+    }
+
+    public String generateInvoice(Long clientId, boolean includeArchived) {
         Client client = clientRepository.findById(clientId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado"));
 
@@ -160,129 +648,155 @@ public class ReservationService {
         }
 
         List<Reservation> reservations = reservationRepository.findByClientId(clientId);
+        if (includeArchived) {
+            Set<Long> liveIds = reservations.stream().map(Reservation::getId).collect(Collectors.toSet());
+            reservations = new ArrayList<>(reservations);
+            reservations.addAll(archivedReservationsOf(client, liveIds));
+        }
 
         List<Reservation> validReservations = reservations.stream()
                 .filter(r -> r.getVehicle() != null &&
                         r.getVehicle().getDescription() != null &&
                         !r.getVehicle().getDescription().isBlank() &&
-                        r.getVehicle().getDailyValue() != 0)
+                        r.getDailyValueCents() != 0)
                 .toList();
 
         if (validReservations.isEmpty()) {
             throw new IllegalArgumentException("Deve haver pelo menos uma estadia com descrição e valor informados.");
         }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("===============================\n");
-        sb.append("         NOTA FISCAL\n");
-        sb.append("===============================\n");
-        sb.append("Nome: ").append(client.getName()).append("\n");
-        sb.append("Endereço: ").append(client.getAddress()).append("\n");
-        sb.append("Cidade: ").append(client.getCity()).append("\n");
-        sb.append("===============================\n");
-        sb.append("        ==== VEÍCULOS ====\n");
+        StringBuilder sb = new StringBuilder(512 + validReservations.size() * 96);
+        INVOICE_HEADER.appendTo(sb, client);
 
-        double total = 0.0;
+        InvoiceLine line = new InvoiceLine();
+        long totalCents = 0;
         for (Reservation reservation : validReservations) {
-            long days = ChronoUnit.DAYS.between(
-                    reservation.getStartDate().atZone(ZoneId.systemDefault()).toLocalDate(),
-                    reservation.getEndDate().atZone(ZoneId.systemDefault()).toLocalDate()) + 1;
-
-            double dailyValue = reservation.getVehicle().getDailyValue();
-            double reservationTotal = days * dailyValue;
+            line.model = reservation.getVehicle().getModel();
+            line.days = reservation.getBillableDays();
+            line.dailyCents = reservation.getDailyValueCents();
+            line.totalCents = reservation.getTotalValueCents();
 
-            sb.append("Veículo: ").append(reservation.getVehicle().getModel())
-                    .append(" | Diárias: ").append(days)
-                    .append(" | Valor diário: R$ ").append(String.format("%.2f", dailyValue))
-                    .append(" | Total: R$ ").append(String.format("%.2f", reservationTotal))
-                    .append("\n");
-
-            total += reservationTotal;
+            INVOICE_LINE.appendTo(sb, line);
+            totalCents = Math.addExact(totalCents, line.totalCents);
         }
 
-        sb.append("===============================\n");
-        sb.append("Total geral: R$ ").append(String.format("%.2f", total)).append("\n");
+        sb.append(INVOICE_SEPARATOR);
+        ReportFormats.appendMoney(sb.append("Total geral: R$ "), totalCents).append('\n');
         sb.append("===============================");
 
         return sb.toString();
     }
 
+    // As que ainda estão em liveIds já foram listadas a partir do banco
+    private List<Reservation> archivedReservationsOf(Client client, Set<Long> liveIds) {
+        List<ArchivedReservation> archived;
+        try {
+            archived = reservationArchive.findByClientId(client.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o arquivo de reservas", e);
+        }
+        archived = archived.stream().filter(a -> !liveIds.contains(a.id())).toList();
+        if (archived.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Vehicle> vehicles = vehicleRepository.findAllById(
+                        archived.stream().map(ArchivedReservation::vehicleId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+
+        List<Reservation> result = new ArrayList<>(archived.size());
+        for (ArchivedReservation a : archived) {
+            Reservation reservation = new Reservation();
+            reservation.setId(a.id());
+            reservation.setClient(client);
+            reservation.setVehicle(vehicles.get(a.vehicleId()));
+            reservation.setStartDate(a.startDate());
+            reservation.setEndDate(a.endDate());
+            reservation.setDailyValueCents(a.dailyValueCents());
+            reservation.setTotalValueCents(a.totalValueCents());
+            reservation.setCreatedAt(a.createdAt());
+            result.add(reservation);
+        }
+        return result;
+    }
+
+    private static final class InvoiceLine {
+        private String model;
+        private long days;
+        private long dailyCents;
+        private long totalCents;
+    }
+
     private boolean isNullOrEmpty(String s) {
         return s == null || s.isBlank();
     }
 
     public List<String> activeReservationsReport() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy").withZone(ZoneOffset.UTC);
-        Instant now = Instant.now();
-
-        List<Reservation> active = reservationRepository.findAll().stream()
-                .filter(r -> {
-                    Instant start = r.getStartDate();
-                    Instant end = r.getEndDate();
-                    return !now.isBefore(start) && !now.isAfter(end);
-                })
-                .toList();
-
-        return active.stream()
-                .map(r -> String.format(
-                        "Reserva ativa - Cliente: %s | Veículo: %s %s %s | Período: %s à %s",
-                        r.getClient().getName(),
-                        r.getVehicle().getBrand(),
-                        r.getVehicle().getModel(),
-                        r.getVehicle().getYear(),
-                        formatter.format(r.getStartDate()),
-                        formatter.format(r.getEndDate())))
-                .toList();
+        return ACTIVE_RESERVATION_LINE.renderAll(reservationLifecycleService.activeReservations());
     }
 
+    // Agrupado por veículo no banco: a memória usada depende da frota, não do histórico
+    @Transactional(readOnly = true)
     public List<String> reservationsPerVehicleReport() {
-        List<Reservation> reservations = reservationRepository.findAll();
+        return RESERVATIONS_PER_VEHICLE_LINE.renderAll(reservationRepository.findVehicleRankingByBookings(Pageable.unpaged())
+                .stream()
+                .map(VehicleRankingDTO::new)
+                .toList());
+    }
 
-        return reservations.stream()
-                .collect(
-                        java.util.stream.Collectors.groupingBy(
-                                r -> String.format("%s %s %s",
-                                        r.getVehicle().getBrand(),
-                                        r.getVehicle().getModel(),
-                                        r.getVehicle().getYear()
-                                ),
-                                java.util.stream.Collectors.counting()
-                        )
-                )
-                .entrySet().stream()
-                .map(entry -> String.format("Veículo: %s | Total de reservas: %d", entry.getKey(), entry.getValue()))
-                .toList();
+    public long calculateRevenueByPeriod(Instant startPeriod, Instant endPeriod) {
+        return calculateRevenueByPeriod(startPeriod, endPeriod, false);
     }
 
-    public double calculateRevenueByPeriod(Instant startPeriod, Instant endPeriod) {
+    public long calculateRevenueByPeriod(Instant startPeriod, Instant endPeriod, boolean includeArchived) {
         if (startPeriod == null || endPeriod == null || endPeriod.isBefore(startPeriod)) {
             throw new IllegalArgumentException("Período inválido.");
         }
 
-        List<Reservation> reservations = reservationRepository.findAll().stream()
-                .filter(r -> {
-                    Instant start = r.getStartDate();
-                    Instant end = r.getEndDate();
-                    return !(end.isBefore(startPeriod) || start.isAfter(endPeriod));
-                })
-                .toList();
+        long totalRevenueCents = revenuePartitions.revenue(
+                startPeriod, endPeriod, earliestOverlappingStart(startPeriod));
+
+        if (includeArchived) {
+            try {
+                List<ArchivedReservation> archived = reservationArchive.findOverlapping(startPeriod, endPeriod);
+                Set<Long> liveIds = stillLive(archived);
+                for (ArchivedReservation a : archived) {
+                    if (a.dailyValueCents() > 0 && !liveIds.contains(a.id())) {
+                        totalRevenueCents = Math.addExact(totalRevenueCents,
+                                revenueInPeriod(a.startDate(), a.endDate(), a.dailyValueCents(), startPeriod, endPeriod));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao ler o arquivo de reservas", e);
+            }
+        }
 
-        double totalRevenue = 0.0;
+        return totalRevenueCents;
+    }
 
-        for (Reservation reservation : reservations) {
-            Vehicle vehicle = reservation.getVehicle();
-            if (vehicle != null && vehicle.getDailyValue() > 0) {
-                Instant effectiveStart = reservation.getStartDate().isBefore(startPeriod) ? startPeriod : reservation.getStartDate();
-                Instant effectiveEnd = reservation.getEndDate().isAfter(endPeriod) ? endPeriod : reservation.getEndDate();
+    /**
+     * Ids arquivados que continuam na tabela: o lote foi gravado no arquivo, mas a remoção
+     * no banco falhou. Já entram na soma pelo banco e não podem ser contados de novo.
+     */
+    private Set<Long> stillLive(List<ArchivedReservation> archived) {
+        Set<Long> live = new HashSet<>();
+        List<Long> ids = archived.stream().map(ArchivedReservation::id).toList();
+        for (int from = 0; from < ids.size(); from += ARCHIVE_LOOKUP_BATCH) {
+            live.addAll(reservationRepository.findExistingIds(
+                    ids.subList(from, Math.min(ids.size(), from + ARCHIVE_LOOKUP_BATCH))));
+        }
+        return live;
+    }
 
-                long days = Math.max(1,
-                        java.time.Duration.between(effectiveStart, effectiveEnd).toDays() + 1);
+    static long revenueInPeriod(Instant start, Instant end, long dailyValueCents,
+                                        Instant startPeriod, Instant endPeriod) {
+        Instant effectiveStart = start.isBefore(startPeriod) ? startPeriod : start;
+        Instant effectiveEnd = end.isAfter(endPeriod) ? endPeriod : end;
 
-                totalRevenue += days * vehicle.getDailyValue();
-            }
-        }
+        long days = Math.max(1, Duration.between(effectiveStart, effectiveEnd).toDays() + 1);
 
-        return totalRevenue;
+        return Math.multiplyExact(days, dailyValueCents);
     }
 
 }
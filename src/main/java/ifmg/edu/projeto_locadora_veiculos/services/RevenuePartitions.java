@@ -0,0 +1,155 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Faturamento calculado por mês de início da reserva (UTC), o mesmo corte das partições
+ * da tabela reservation. Cada mês é uma tarefa num {@link ForkJoinPool} próprio, com sua
+ * transação somente leitura, sua conexão e seu cursor; os totais são somados no fim.
+ * O paralelismo não deve passar do tamanho do pool de conexões.
+ */
+@Component
+public class RevenuePartitions {
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${locadora.report.revenue.parallelism:4}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private TransactionTemplate readOnly;
+    private Timer timer;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        timer = Timer.builder("report.revenue.partitioned")
+                .tag("parallelism", String.valueOf(Math.max(1, parallelism)))
+                .register(meterRegistry);
+        if (parallelism > 1) {
+            pool = new ForkJoinPool(parallelism, p -> {
+                var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("revenue-report-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Soma o faturamento de [startPeriod, endPeriod] das reservas com início a partir de
+     * {@code earliestStart}. Com paralelismo 1 os meses são lidos em sequência na thread
+     * que chamou.
+     */
+    public long revenue(Instant startPeriod, Instant endPeriod, Instant earliestStart) {
+        List<Instant> bounds = monthBounds(earliestStart, endPeriod);
+        long start = System.nanoTime();
+        try {
+            MonthTask task = new MonthTask(startPeriod, endPeriod, bounds, 0, bounds.size() - 1);
+            return pool == null ? task.compute() : pool.invoke(task);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Limites dos meses que cobrem [from, to]; o primeiro e o último são cortados no período
+    static List<Instant> monthBounds(Instant from, Instant to) {
+        List<Instant> bounds = new ArrayList<>();
+        bounds.add(from);
+        YearMonth month = YearMonth.from(from.atZone(ZoneOffset.UTC)).plusMonths(1);
+        Instant next = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        while (!next.isAfter(to)) {
+            bounds.add(next);
+            month = month.plusMonths(1);
+            next = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        // Fim exclusivo: inclui reservas que começam exatamente em "to"
+        bounds.add(to.plusNanos(1));
+        return bounds;
+    }
+
+    private long sumPartition(Instant startPeriod, Instant endPeriod, Instant partitionStart, Instant partitionEnd) {
+        Long total = readOnly.execute(status -> {
+            long sum = 0;
+            try (Stream<Object[]> rows = reservationRepository.streamRevenueRowsByPartition(
+                    startPeriod, endPeriod, partitionStart, partitionEnd)) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    sum = Math.addExact(sum, ReservationService.revenueInPeriod(
+                            (Instant) row[0], (Instant) row[1], (Long) row[2], startPeriod, endPeriod));
+                }
+            }
+            return sum;
+        });
+        return total == null ? 0 : total;
+    }
+
+    // Divide a lista de meses ao meio até sobrar um mês por tarefa
+    private class MonthTask extends RecursiveTask<Long> {
+
+        private final Instant startPeriod;
+        private final Instant endPeriod;
+        private final List<Instant> bounds;
+        private final int from;
+        private final int to;
+
+        MonthTask(Instant startPeriod, Instant endPeriod, List<Instant> bounds, int from, int to) {
+            this.startPeriod = startPeriod;
+            this.endPeriod = endPeriod;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= 1 || pool == null) {
+                long sum = 0;
+                for (int i = from; i < to; i++) {
+                    sum = Math.addExact(sum, sumPartition(startPeriod, endPeriod, bounds.get(i), bounds.get(i + 1)));
+                }
+                return sum;
+            }
+            int middle = (from + to) >>> 1;
+            MonthTask left = new MonthTask(startPeriod, endPeriod, bounds, from, middle);
+            MonthTask right = new MonthTask(startPeriod, endPeriod, bounds, middle, to);
+            left.fork();
+            long rightSum = right.compute();
+            return Math.addExact(left.join(), rightSum);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Ajustes de dados que o {@code ddl-auto=update} não faz. Cada passo roda uma única vez,
+ * quando os beans ficam prontos: antes do servidor web aceitar requisições e dos caches
+ * carregados na subida. Fica registrado na tabela schema_migration; com várias instâncias
+ * subindo juntas, só a primeira a gravar o registro executa o passo.
+ */
+@Slf4j
+@Service
+public class SchemaMigrations implements SmartInitializingSingleton {
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        onStartup();
+    }
+
+    public void onStartup() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_migration (" +
+                "name VARCHAR(100) PRIMARY KEY, applied_at TIMESTAMP NOT NULL)");
+        apply("vehicle-daily-value-cents", this::vehicleDailyValueToCents);
+        apply("reservation-price-snapshot", this::backfillReservationPrices);
+        // Coberto por idx_reservation_status_period (status, start_date); o ddl-auto não remove índices
+        apply("drop-reservation-status-index",
+                () -> jdbcTemplate.execute("DROP INDEX IF EXISTS idx_reservation_status"));
+    }
+
+    private void apply(String name, Runnable step) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                jdbcTemplate.update("INSERT INTO schema_migration (name, applied_at) VALUES (?, CURRENT_TIMESTAMP)", name);
+            } catch (DuplicateKeyException e) {
+                status.setRollbackOnly();
+                return;
+            }
+            step.run();
+            log.info("Migração {} aplicada", name);
+        });
+    }
+
+    // A diária era gravada em reais (double) na coluna daily_value, que deixou de ser mapeada
+    private void vehicleDailyValueToCents() {
+        Integer legacy = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_name = 'vehicle' AND column_name = 'daily_value'
+                """, Integer.class);
+        if (legacy == null || legacy == 0) {
+            return;
+        }
+        int updated = jdbcTemplate.update(
+                "UPDATE vehicle SET daily_value_cents = ROUND(daily_value * 100) " +
+                        "WHERE daily_value_cents = 0 AND daily_value IS NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE vehicle DROP COLUMN daily_value");
+        log.info("Diária convertida para centavos em {} veículos", updated);
+    }
+
+    /**
+     * Reservas anteriores ao snapshot de preço ficaram com diária e total zerados e sumiram
+     * do faturamento. Recebem a diária atual do veículo, a única disponível, calculada pela
+     * própria entidade para contar as diárias como nas reservas novas.
+     */
+    private void backfillReservationPrices() {
+        long afterId = 0;
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM reservation WHERE daily_value_cents = 0 AND id > ? ORDER BY id LIMIT " + CHUNK_SIZE,
+                    Long.class, afterId);
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Reservation reservation : reservationRepository.findAllById(ids)) {
+                reservation.capturePrice();
+            }
+            entityManager.flush();
+            entityManager.clear();
+            afterId = ids.get(ids.size() - 1);
+            total += ids.size();
+        } while (ids.size() == CHUNK_SIZE);
+
+        if (total > 0) {
+            log.info("Diária e total recalculados em {} reservas", total);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializa as reservas de um veículo entre instâncias da aplicação com
+ * {@code pg_try_advisory_xact_lock}. O lock pertence à transação corrente e é liberado
+ * no commit ou rollback; a espera é limitada e, se estourar, a requisição recebe 429.
+ * Em bancos que não são PostgreSQL não faz nada.
+ */
+@Slf4j
+@Component
+public class VehicleAdvisoryLocks {
+
+    // Primeira chave do par (int, int), para não colidir com outros usos de advisory lock
+    private static final int LOCK_NAMESPACE = 0x56454843;
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${locadora.reservation.advisory-lock.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locadora.reservation.advisory-lock.wait-ms:2000}")
+    private long waitMs;
+
+    private boolean active;
+    private Timer waitTimer;
+    private Counter timeoutCounter;
+
+    @PostConstruct
+    public void init() {
+        waitTimer = meterRegistry.timer("reservation.booking.advisory.wait");
+        timeoutCounter = meterRegistry.counter("reservation.booking.advisory.timeouts");
+        active = enabled && isPostgres();
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Obtém o lock do veículo na transação corrente. Devolve {@code false} quando o
+     * recurso está desligado.
+     */
+    public boolean lock(Long vehicleId) {
+        if (!active) {
+            return false;
+        }
+        int key = Long.hashCode(vehicleId);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        long backoff = TimeUnit.MILLISECONDS.toNanos(1);
+
+        while (true) {
+            Boolean acquired = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(?, ?)", Boolean.class, LOCK_NAMESPACE, key);
+            long now = System.nanoTime();
+            if (Boolean.TRUE.equals(acquired)) {
+                waitTimer.record(now - start, TimeUnit.NANOSECONDS);
+                return true;
+            }
+            if (now >= deadline) {
+                waitTimer.record(now - start, TimeUnit.NANOSECONDS);
+                timeoutCounter.increment();
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Há muitas reservas simultâneas para este veículo, tente novamente");
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.min(backoff, deadline - now));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reserva interrompida");
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    /** Obtém os locks de vários veículos sempre na mesma ordem (pela chave do lock). */
+    public boolean lockAll(Collection<Long> vehicleIds) {
+        if (!active) {
+            return false;
+        }
+        vehicleIds.stream()
+                .distinct()
+                .sorted(Comparator.comparingInt((Long id) -> Long.hashCode(id)).thenComparing(Comparator.naturalOrder()))
+                .forEach(this::lock);
+        return true;
+    }
+
+    private boolean isPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("Advisory locks de reserva desligados: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Locks por veículo distribuídos em faixas fixas: reservas do mesmo veículo são
+ * serializadas, reservas de veículos diferentes só disputam o lock quando caem na
+ * mesma faixa.
+ */
+@Component
+public class VehicleBookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final Timer waitTimer;
+
+    @Autowired
+    public VehicleBookingLocks(@Value("${locadora.reservation.lock-stripes:64}") int stripeCount,
+                               MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.waitTimer = meterRegistry.timer("reservation.booking.lock.wait");
+    }
+
+    public <T> T withLock(Long vehicleId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripe(vehicleId)];
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Trava as faixas de todos os veículos em ordem crescente de índice, para que duas
+     * reservas em grupo nunca esperem uma pela outra em ordem inversa.
+     */
+    public <T> T withLocks(Collection<Long> vehicleIds, Supplier<T> action) {
+        int[] order = vehicleIds.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+        long start = System.nanoTime();
+        int locked = 0;
+        try {
+            for (int index : order) {
+                stripes[index].lock();
+                locked++;
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+        }
+    }
+
+    private int stripe(Long vehicleId) {
+        if (vehicleId == null) {
+            return 0;
+        }
+        int h = Long.hashCode(vehicleId);
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -2,8 +2,10 @@ package ifmg.edu.projeto_locadora_veiculos.services;
 
 import ifmg.edu.projeto_locadora_veiculos.dto.VehicleDTO;
 import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import ifmg.edu.projeto_locadora_veiculos.reports.ReportTemplate;
 import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
 import ifmg.edu.projeto_locadora_veiculos.services.exceptions.DatabaseException;
+import ifmg.edu.projeto_locadora_veiculos.services.exceptions.PreconditionFailed;
 import ifmg.edu.projeto_locadora_veiculos.services.exceptions.ResourceNotFound;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
@@ -21,9 +23,24 @@ import java.util.List;
 @Service
 public class VehicleService {
 
+    private static final ReportTemplate<Vehicle> VEHICLE_LINE = ReportTemplate.<Vehicle>compile(
+                    "Carro - Placa: {plate}  - Modelo: {model} - Marca: {brand} - Cor: {color} - Ano: {year}")
+            .text("plate", v -> safe(v.getPlate()))
+            .text("model", v -> safe(v.getModel()))
+            .text("brand", v -> safe(v.getBrand()))
+            .text("color", v -> safe(v.getColor()))
+            .text("year", v -> safe(v.getYear()))
+            .build();
+
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private OccupancyIndex occupancyIndex;
+
     @Transactional(readOnly = true)
     public Page<VehicleDTO> findAll(Pageable pageable) {
         return vehicleRepository.findAll(pageable).map(VehicleDTO::new);
@@ -41,15 +58,26 @@ public class VehicleService {
         Vehicle entity = new Vehicle();
         copyDtoToEntity(dto, entity);
         entity = vehicleRepository.save(entity);
+        occupancyIndex.refresh(entity.getId());
         return new VehicleDTO(entity);
     }
 
-    @Transactional
     public VehicleDTO update(Long id, VehicleDTO dto) {
+        return update(id, dto, null);
+    }
+
+    public VehicleDTO update(Long id, VehicleDTO dto, Long expectedVersion) {
+        return optimisticRetry.execute(expectedVersion, () -> doUpdate(id, dto, expectedVersion));
+    }
+
+    private VehicleDTO doUpdate(Long id, VehicleDTO dto, Long expectedVersion) {
         try {
             Vehicle entity = vehicleRepository.getReferenceById(id);
+            if (expectedVersion != null && entity.getVersion() != expectedVersion) {
+                throw new PreconditionFailed("Veículo alterado por outra requisição: " + id);
+            }
             copyDtoToEntity(dto, entity);
-            entity = vehicleRepository.save(entity);
+            entity = vehicleRepository.saveAndFlush(entity);
             return new VehicleDTO(entity);
         } catch (EntityNotFoundException e) {
             throw new ResourceNotFound("Veículo não encontrado: " + id);
@@ -63,6 +91,7 @@ public class VehicleService {
         }
         try {
             vehicleRepository.deleteById(id);
+            occupancyIndex.forget(id);
         } catch (DataIntegrityViolationException e) {
             throw new DatabaseException("Integridade violada");
         }
@@ -76,25 +105,15 @@ public class VehicleService {
         entity.setColor(dto.getColor());
         entity.setDescription(dto.getDescription());
         entity.setImgUrl(dto.getImgUrl());
-        entity.setDailyValue(dto.getDailyValue());
+        entity.setDailyValueCents(dto.getDailyValueCents());
     }
 
     public List<String> vehicleList() {
         List<Vehicle> vehicles = vehicleRepository.findAll();
-
-        return vehicles.stream()
-                .map(v -> String.format(
-                        "Carro - Placa: %s  - Modelo: %s - Marca: %s - Cor: %s - Ano: %s",
-                        safe(v.getPlate()),
-                        safe(v.getModel()),
-                        safe(v.getBrand()),
-                        safe(v.getColor()),
-                        safe(v.getYear())
-                ))
-                .toList();
+        return VEHICLE_LINE.renderAll(vehicles);
     }
 
-    private String safe(String value) {
+    private static String safe(String value) {
         return value == null ? "N/A" : value;
     }
 }
@@ -0,0 +1,22 @@
+package ifmg.edu.projeto_locadora_veiculos.services.exceptions;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationAlternativesDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 409 de reserva acompanhado das alternativas livres mais próximas.
+ */
+public class BookingConflict extends ResponseStatusException {
+
+    private final ReservationAlternativesDTO alternatives;
+
+    public BookingConflict(String reason, ReservationAlternativesDTO alternatives) {
+        super(HttpStatus.CONFLICT, reason);
+        this.alternatives = alternatives;
+    }
+
+    public ReservationAlternativesDTO getAlternatives() {
+        return alternatives;
+    }
+}
@@ -0,0 +1,11 @@
+package ifmg.edu.projeto_locadora_veiculos.services.exceptions;
+
+public class PreconditionFailed extends RuntimeException {
+    public PreconditionFailed() {
+        super();
+    }
+
+    public PreconditionFailed(String msg) {
+        super(msg);
+    }
+}
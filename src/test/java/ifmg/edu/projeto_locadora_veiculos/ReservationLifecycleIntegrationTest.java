@@ -0,0 +1,153 @@
+package ifmg.edu.projeto_locadora_veiculos;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
+import ifmg.edu.projeto_locadora_veiculos.entities.Client;
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationStatus;
+import ifmg.edu.projeto_locadora_veiculos.entities.Role;
+import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import ifmg.edu.projeto_locadora_veiculos.services.ReservationLifecycleService;
+import ifmg.edu.projeto_locadora_veiculos.services.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reservas curtas passando por SCHEDULED -> ACTIVE -> COMPLETED pelo tick, pela varredura
+ * e pelo registro feito depois de uma alteração.
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "locadora.reservation.lifecycle.tick-ms=100")
+class ReservationLifecycleIntegrationTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationLifecycleService reservationLifecycleService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private Client client;
+    private Vehicle vehicle;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        vehicleRepository.deleteAll();
+        clientRepository.deleteAll();
+
+        client = new Client();
+        client.setName("Client Lifecycle");
+        client.setEmail("client.lifecycle@test.com");
+        client.setPassword("123456");
+        client.setRole(Role.CLIENT);
+        client = clientRepository.save(client);
+
+        vehicle = new Vehicle();
+        vehicle.setPlate("LIF-001");
+        vehicle.setBrand("Lifecycle Brand");
+        vehicle.setModel("Lifecycle Model");
+        vehicle.setYear("2024");
+        vehicle = vehicleRepository.save(vehicle);
+    }
+
+    @Test
+    void shouldActivateAndCompleteBookedReservationOnTick() throws Exception {
+        Instant start = Instant.now().plusMillis(1500);
+        long id = reservationService.insert(dto(start, start.plusMillis(1500))).getId();
+        assertEquals(ReservationStatus.SCHEDULED, statusOf(id));
+
+        awaitStatus(id, ReservationStatus.ACTIVE);
+        assertTrue(isActive(id));
+
+        awaitStatus(id, ReservationStatus.COMPLETED);
+        assertFalse(isActive(id));
+    }
+
+    @Test
+    void shouldFollowNewPeriodAfterUpdate() throws Exception {
+        // Fora da janela carregada: só entra na fila pelo registro da alteração
+        Instant far = Instant.now().plus(30, ChronoUnit.DAYS);
+        long id = reservationService.insert(dto(far, far.plus(2, ChronoUnit.DAYS))).getId();
+
+        Instant start = Instant.now().plusMillis(1000);
+        reservationService.update(id, dto(start, start.plusMillis(1500)));
+        assertEquals(ReservationStatus.SCHEDULED, statusOf(id));
+
+        awaitStatus(id, ReservationStatus.ACTIVE);
+        assertTrue(isActive(id));
+
+        awaitStatus(id, ReservationStatus.COMPLETED);
+        assertFalse(isActive(id));
+    }
+
+    @Test
+    void shouldActivateOnSweepAndCompleteOnTick() throws Exception {
+        // Gravada sem passar pelo serviço, como por outra instância: a fila deste nó não a conhece
+        Instant start = Instant.now().plusMillis(300);
+        Reservation reservation = reservationRepository.save(
+                new Reservation(client, vehicle, start, start.plusMillis(2000)));
+        long id = reservation.getId();
+        assertEquals(ReservationStatus.SCHEDULED, statusOf(id));
+
+        Thread.sleep(Math.max(0, start.toEpochMilli() - System.currentTimeMillis()) + 100);
+        reservationLifecycleService.sweep();
+        assertEquals(ReservationStatus.ACTIVE, statusOf(id));
+        assertTrue(isActive(id));
+
+        // A varredura enfileira o fim; o tick conclui a reserva
+        awaitStatus(id, ReservationStatus.COMPLETED);
+        assertFalse(isActive(id));
+    }
+
+    private ReservationDTO dto(Instant start, Instant end) {
+        ReservationDTO dto = new ReservationDTO();
+        dto.setClientId(client.getId());
+        dto.setVehicleId(vehicle.getId());
+        dto.setStartDate(start);
+        dto.setEndDate(end);
+        return dto;
+    }
+
+    private ReservationStatus statusOf(long id) {
+        return reservationRepository.findById(id).orElseThrow().getStatus();
+    }
+
+    private boolean isActive(long id) {
+        return reservationLifecycleService.activeReservations().stream().anyMatch(r -> r.id() == id);
+    }
+
+    private void awaitStatus(long id, ReservationStatus expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (statusOf(id) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, statusOf(id));
+    }
+}
@@ -0,0 +1,169 @@
+package ifmg.edu.projeto_locadora_veiculos;
+
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
+import ifmg.edu.projeto_locadora_veiculos.entities.Client;
+import ifmg.edu.projeto_locadora_veiculos.entities.Role;
+import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import ifmg.edu.projeto_locadora_veiculos.services.ReservationService;
+import ifmg.edu.projeto_locadora_veiculos.services.VehicleAdvisoryLocks;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Duas instâncias da aplicação no mesmo banco: os locks locais de cada JVM não se
+ * enxergam, só o advisory lock do PostgreSQL impede a reserva dupla.
+ */
+class ReservationMultiInstanceIntegrationTest {
+
+    private ConfigurableApplicationContext first;
+    private ConfigurableApplicationContext second;
+    private Client client;
+    private Vehicle vehicle;
+
+    @BeforeEach
+    void setUp() {
+        first = start();
+        assumeTrue(first.getBean(VehicleAdvisoryLocks.class).isActive(), "Requer PostgreSQL");
+        second = start();
+
+        first.getBean(ReservationRepository.class).deleteAll();
+
+        client = new Client();
+        client.setName("Client Multi Instance");
+        client.setEmail("client.multi@test.com");
+        client.setPassword("123456");
+        client.setRole(Role.CLIENT);
+        client = first.getBean(ClientRepository.class).save(client);
+
+        vehicle = new Vehicle();
+        vehicle.setPlate("MUL-001");
+        vehicle.setBrand("Multi Brand");
+        vehicle.setModel("Multi Model");
+        vehicle.setYear("2024");
+        vehicle = first.getBean(VehicleRepository.class).save(vehicle);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (first != null) {
+            first.getBean(ReservationRepository.class).deleteAll();
+            if (vehicle != null) {
+                first.getBean(VehicleRepository.class).deleteById(vehicle.getId());
+            }
+            if (client != null) {
+                first.getBean(ClientRepository.class).deleteById(client.getId());
+            }
+            first.close();
+        }
+        if (second != null) {
+            second.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String... args) {
+        List<String> all = new ArrayList<>(List.of("--server.port=0", "--locadora.reservation.lifecycle.enabled=false"));
+        all.addAll(List.of(args));
+        return new SpringApplicationBuilder(ProjetoLocadoraVeiculosApplication.class)
+                .profiles("test")
+                .run(all.toArray(String[]::new));
+    }
+
+    @Test
+    void shouldNotDoubleBookAcrossInstances() throws Exception {
+        int created = bookConcurrently(List.of(
+                first.getBean(ReservationService.class),
+                second.getBean(ReservationService.class)));
+
+        assertEquals(1, created);
+        assertEquals(1, first.getBean(ReservationRepository.class).count());
+    }
+
+    @Test
+    void shouldNotDoubleBookAcrossShardedInstances() throws Exception {
+        // Cada instância carrega o próprio calendário do veículo, sem as reservas da outra
+        String shards = "--locadora.reservation.shards.enabled=true";
+        try (ConfigurableApplicationContext firstSharded = start(shards);
+             ConfigurableApplicationContext secondSharded = start(shards)) {
+            int created = bookConcurrently(List.of(
+                    firstSharded.getBean(ReservationService.class),
+                    secondSharded.getBean(ReservationService.class)));
+
+            assertEquals(1, created);
+            assertEquals(1, first.getBean(ReservationRepository.class).count());
+        }
+    }
+
+    private int bookConcurrently(List<ReservationService> instances) throws Exception {
+        Instant base = Instant.now().plus(10, ChronoUnit.DAYS);
+        int requests = 16;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            ReservationService service = instances.get(i % instances.size());
+            ReservationDTO dto = new ReservationDTO();
+            dto.setClientId(client.getId());
+            dto.setVehicleId(vehicle.getId());
+            dto.setStartDate(base.plus(i % 4, ChronoUnit.HOURS));
+            dto.setEndDate(base.plus(2, ChronoUnit.DAYS));
+
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    service.insert(dto);
+                    return 201;
+                } catch (ResponseStatusException e) {
+                    return e.getStatusCode().value();
+                }
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        for (Future<Integer> result : results) {
+            int status = result.get(60, TimeUnit.SECONDS);
+            if (status == 201) {
+                created++;
+            }
+        }
+        executor.shutdown();
+        return created;
+    }
+
+    @Test
+    void shouldReportActiveReservationBookedOnOtherInstance() {
+        ReservationDTO dto = new ReservationDTO();
+        dto.setClientId(client.getId());
+        dto.setVehicleId(vehicle.getId());
+        dto.setStartDate(Instant.now().minus(1, ChronoUnit.DAYS));
+        dto.setEndDate(Instant.now().plus(2, ChronoUnit.DAYS));
+        second.getBean(ReservationService.class).insert(dto);
+
+        // Com o ciclo de vida desligado a coluna status não muda; o relatório usa as datas
+        List<String> report = first.getBean(ReservationService.class).activeReservationsReport();
+        assertEquals(1, report.size());
+        assertTrue(report.get(0).contains("Client Multi Instance"));
+    }
+}
@@ -0,0 +1,137 @@
+package ifmg.edu.projeto_locadora_veiculos;
+
+import ifmg.edu.projeto_locadora_veiculos.entities.Client;
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.entities.Role;
+import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import ifmg.edu.projeto_locadora_veiculos.services.SchemaMigrations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Banco criado antes da diária em centavos: o preço do veículo está só na coluna antiga
+ * daily_value e as reservas não têm diária nem total gravados.
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@ActiveProfiles("test")
+class SchemaMigrationsIntegrationTest {
+
+    @Autowired
+    private SchemaMigrations schemaMigrations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private Client client;
+    private Vehicle vehicle;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        vehicleRepository.deleteAll();
+        clientRepository.deleteAll();
+
+        client = new Client();
+        client.setName("Client Migration");
+        client.setEmail("client.migration@test.com");
+        client.setPassword("123456");
+        client.setRole(Role.CLIENT);
+        client = clientRepository.save(client);
+
+        vehicle = new Vehicle();
+        vehicle.setPlate("MIG-001");
+        vehicle.setBrand("Migration Brand");
+        vehicle.setModel("Migration Model");
+        vehicle.setYear("2024");
+        vehicle = vehicleRepository.save(vehicle);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("ALTER TABLE vehicle DROP COLUMN IF EXISTS daily_value");
+    }
+
+    @Test
+    void shouldConvertLegacyDailyValue() {
+        jdbcTemplate.execute("ALTER TABLE vehicle ADD COLUMN daily_value DOUBLE PRECISION");
+        jdbcTemplate.update("UPDATE vehicle SET daily_value = 150.75 WHERE id = ?", vehicle.getId());
+        jdbcTemplate.update("DELETE FROM schema_migration");
+
+        schemaMigrations.onStartup();
+
+        assertEquals(15075, vehicleRepository.findById(vehicle.getId()).orElseThrow().getDailyValueCents());
+        assertEquals(0, jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_name = 'vehicle' AND column_name = 'daily_value'
+                """, Integer.class));
+    }
+
+    @Test
+    void shouldBackfillReservationPricesFromConvertedVehiclePrice() {
+        jdbcTemplate.execute("ALTER TABLE vehicle ADD COLUMN daily_value DOUBLE PRECISION");
+        jdbcTemplate.update("UPDATE vehicle SET daily_value = 150.75 WHERE id = ?", vehicle.getId());
+        Reservation reservation = reservationRepository.save(new Reservation(client, vehicle,
+                Instant.parse("2025-07-01T10:00:00Z"), Instant.parse("2025-07-05T10:00:00Z")));
+        assertEquals(0, reservation.getDailyValueCents());
+        jdbcTemplate.update("DELETE FROM schema_migration");
+
+        schemaMigrations.onStartup();
+
+        Reservation migrated = reservationRepository.findById(reservation.getId()).orElseThrow();
+        assertEquals(15075, migrated.getDailyValueCents());
+        assertEquals(15075L * migrated.getBillableDays(), migrated.getTotalValueCents());
+    }
+
+    @Test
+    void shouldNotBackfillReservationsAgain() {
+        schemaMigrations.onStartup();
+
+        // Reserva de um veículo sem diária, que depois passa a ter preço
+        Reservation reservation = reservationRepository.save(new Reservation(client, vehicle,
+                Instant.parse("2025-07-01T10:00:00Z"), Instant.parse("2025-07-05T10:00:00Z")));
+        vehicle.setDailyValueCents(10_000);
+        vehicleRepository.save(vehicle);
+
+        schemaMigrations.onStartup();
+
+        assertEquals(0, reservationRepository.findById(reservation.getId()).orElseThrow().getDailyValueCents());
+    }
+
+    @Test
+    void shouldApplyEachStepOnlyOnce() {
+        schemaMigrations.onStartup();
+
+        // A coluna antiga volta com outro valor: a conversão já registrada não roda de novo
+        jdbcTemplate.execute("ALTER TABLE vehicle ADD COLUMN daily_value DOUBLE PRECISION");
+        jdbcTemplate.update("UPDATE vehicle SET daily_value = 99.90 WHERE id = ?", vehicle.getId());
+
+        schemaMigrations.onStartup();
+
+        assertEquals(0, vehicleRepository.findById(vehicle.getId()).orElseThrow().getDailyValueCents());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM schema_migration WHERE name = 'vehicle-daily-value-cents'", Integer.class));
+    }
+}
@@ -0,0 +1,90 @@
+package ifmg.edu.projeto_locadora_veiculos.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogHistogramTest {
+
+    @Test
+    void shouldKeepExactPositionsBelow128() {
+        assertEquals(0, LogHistogram.indexOf(0));
+        assertEquals(127, LogHistogram.indexOf(127));
+        assertEquals(127, LogHistogram.lowestOf(127));
+        assertEquals(127, LogHistogram.highestOf(127));
+    }
+
+    @Test
+    void shouldSplitEachPowerOfTwoIn64Ranges() {
+        // 128..255: faixas de 2 valores
+        assertEquals(128, LogHistogram.indexOf(128));
+        assertEquals(128, LogHistogram.indexOf(129));
+        assertEquals(129, LogHistogram.indexOf(130));
+        assertEquals(191, LogHistogram.indexOf(255));
+        assertEquals(128, LogHistogram.lowestOf(128));
+        assertEquals(129, LogHistogram.highestOf(128));
+        assertEquals(255, LogHistogram.highestOf(191));
+
+        // 256..511: faixas de 4 valores
+        assertEquals(192, LogHistogram.indexOf(256));
+        assertEquals(192, LogHistogram.indexOf(259));
+        assertEquals(193, LogHistogram.indexOf(260));
+        assertEquals(256, LogHistogram.lowestOf(192));
+        assertEquals(259, LogHistogram.highestOf(192));
+    }
+
+    @Test
+    void shouldMapBothEdgesOfEveryRangeBackToIt() {
+        for (int index = 0; index < 2_000; index++) {
+            long lowest = LogHistogram.lowestOf(index);
+            long highest = LogHistogram.highestOf(index);
+            assertEquals(index, LogHistogram.indexOf(lowest));
+            assertEquals(index, LogHistogram.indexOf(highest));
+            assertEquals(highest + 1, LogHistogram.lowestOf(index + 1));
+        }
+    }
+
+    @Test
+    void shouldReturnMiddleOfTheRangeAsPercentile() {
+        LogHistogram histogram = new LogHistogram(1_000);
+        histogram.record(127);
+        histogram.record(128);
+
+        LogHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(127, snapshot.percentile(0));
+        assertEquals(127, snapshot.percentile(50));
+        assertEquals(128, snapshot.percentile(50.1));
+        assertEquals(128, snapshot.percentile(100));
+    }
+
+    @Test
+    void shouldStayWithinRelativeErrorAndClampAboveMax() {
+        LogHistogram histogram = new LogHistogram(100_000);
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+        long p99 = histogram.snapshot().percentile(99);
+        assertTrue(Math.abs(p99 - 9_900) <= 9_900 / 64, "p99 = " + p99);
+
+        LogHistogram clamped = new LogHistogram(1_000);
+        clamped.record(5_000);
+        clamped.record(-1);
+        LogHistogram.Snapshot snapshot = clamped.snapshot();
+        assertEquals(0, snapshot.percentile(50));
+        assertEquals(LogHistogram.indexOf(1_000), LogHistogram.indexOf(snapshot.percentile(100)));
+        assertEquals(500.0, snapshot.mean());
+    }
+
+    @Test
+    void shouldAnswerZeroWhenEmptyOrEverythingRemoved() {
+        LogHistogram histogram = new LogHistogram(1_000);
+        assertEquals(0, histogram.snapshot().percentile(50));
+
+        histogram.record(300);
+        histogram.remove(300);
+        LogHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.percentile(99));
+    }
+}
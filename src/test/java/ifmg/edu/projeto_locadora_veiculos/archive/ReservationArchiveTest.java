@@ -0,0 +1,63 @@
+package ifmg.edu.projeto_locadora_veiculos.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReservationArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private ReservationArchive open() throws IOException {
+        ReservationArchive archive = new ReservationArchive();
+        ReflectionTestUtils.setField(archive, "directory", directory.toString());
+        ReflectionTestUtils.setField(archive, "segmentMaxBytes", 1L << 20);
+        archive.load();
+        return archive;
+    }
+
+    private static ArchivedReservation reservation(long id, long clientId) {
+        return new ArchivedReservation(id, clientId, 1L,
+                Instant.parse("2020-03-01T10:00:00Z"), Instant.parse("2020-03-02T10:00:00Z"),
+                10_000, 20_000, Instant.parse("2020-02-01T10:00:00Z"));
+    }
+
+    @Test
+    void shouldReloadChunksFromIndex() throws IOException {
+        ReservationArchive archive = open();
+        archive.append(List.of(reservation(1, 7), reservation(2, 8)));
+        archive.append(List.of(reservation(3, 7)));
+
+        ReservationArchive reloaded = open();
+        assertEquals(3, reloaded.count());
+        assertEquals(List.of(1L, 3L), reloaded.findByClientId(7).stream().map(ArchivedReservation::id).toList());
+    }
+
+    @Test
+    void shouldDropTornLastIndexEntryOnLoad() throws IOException {
+        ReservationArchive archive = open();
+        archive.append(List.of(reservation(1, 7)));
+        Path index = directory.resolve("index.bin");
+        long complete = Files.size(index);
+
+        // Queda no meio da gravação da próxima entrada
+        Files.write(index, new byte[]{0, 0, 0, 1, 0, 0}, StandardOpenOption.APPEND);
+
+        ReservationArchive reloaded = open();
+        assertEquals(1, reloaded.count());
+        assertEquals(complete, Files.size(index));
+
+        reloaded.append(List.of(reservation(2, 7)));
+        assertEquals(2, open().count());
+    }
+}
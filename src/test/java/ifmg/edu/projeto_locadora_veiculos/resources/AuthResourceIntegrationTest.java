@@ -6,6 +6,8 @@ import ifmg.edu.projeto_locadora_veiculos.dto.LoginRequestDTO;
 import ifmg.edu.projeto_locadora_veiculos.entities.Client;
 import ifmg.edu.projeto_locadora_veiculos.entities.Role;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationHoldRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,11 +37,19 @@ public class AuthResourceIntegrationTest {
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private ReservationHoldRepository reservationHoldRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
     @BeforeEach
     void setUp() {
+        reservationHoldRepository.deleteAll();
+        reservationRepository.deleteAll();
         clientRepository.deleteAll();
         
         // Create test user for login
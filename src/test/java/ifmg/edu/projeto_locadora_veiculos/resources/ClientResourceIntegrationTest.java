@@ -1,11 +1,15 @@
 package ifmg.edu.projeto_locadora_veiculos.resources;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import ifmg.edu.projeto_locadora_veiculos.dto.ClientDTO;
 import ifmg.edu.projeto_locadora_veiculos.dto.LoginRequestDTO;
 import ifmg.edu.projeto_locadora_veiculos.dto.LoginResponseDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
 import ifmg.edu.projeto_locadora_veiculos.entities.Client;
+import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
 import ifmg.edu.projeto_locadora_veiculos.entities.Role;
+import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
 import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
@@ -21,6 +25,12 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -217,6 +227,126 @@ public class ClientResourceIntegrationTest {
                 .andExpect(content().string("Cliente deletado com sucesso."));
     }
 
+    @Test
+    void shouldPageClientReservationHistoryAndCacheSummary() throws Exception {
+        Client owner = new Client();
+        owner.setName("History Owner");
+        owner.setEmail("history@test.com");
+        owner.setPassword(passwordEncoder.encode("123456"));
+        owner.setPhone("11555555555");
+        owner.setRole(Role.CLIENT);
+        owner = clientRepository.save(owner);
+
+        Client other = new Client();
+        other.setName("History Other");
+        other.setEmail("other.history@test.com");
+        other.setPassword(passwordEncoder.encode("123456"));
+        other.setPhone("11444444444");
+        other.setRole(Role.CLIENT);
+        other = clientRepository.save(other);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setPlate("HIS-001");
+        vehicle.setBrand("History Brand");
+        vehicle.setModel("History Model");
+        vehicle.setYear("2024");
+        vehicle.setDailyValueCents(10_000);
+        vehicle = vehicleRepository.save(vehicle);
+
+        Instant now = Instant.now();
+        Reservation past = reservationRepository.save(new Reservation(owner, vehicle,
+                Instant.parse("2024-07-01T00:00:00Z"), Instant.parse("2024-07-03T00:00:00Z")));
+        Reservation older = reservationRepository.save(new Reservation(owner, vehicle,
+                Instant.parse("2024-05-01T00:00:00Z"), Instant.parse("2024-05-02T00:00:00Z")));
+        Reservation active = reservationRepository.save(new Reservation(owner, vehicle,
+                now.minus(1, ChronoUnit.DAYS), now.plus(1, ChronoUnit.DAYS)));
+        Reservation upcoming = reservationRepository.save(new Reservation(owner, vehicle,
+                now.plus(10, ChronoUnit.DAYS), now.plus(12, ChronoUnit.DAYS)));
+        reservationRepository.save(new Reservation(other, vehicle,
+                now.plus(20, ChronoUnit.DAYS), now.plus(22, ChronoUnit.DAYS)));
+
+        // Do início mais recente para o mais antigo, página a página pelo cursor
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            MvcResult result = mockMvc.perform(get("/client/{id}/reservations", owner.getId())
+                            .header("Authorization", "Bearer " + adminToken)
+                            .param("size", "3")
+                            .param("cursor", cursor == null ? "" : cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.path("content").forEach(item -> seen.add(item.path("id").asLong()));
+            cursor = page.path("nextCursor").isNull() ? null : page.path("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(List.of(upcoming.getId(), active.getId(), past.getId(), older.getId()), seen);
+
+        long spent = past.getTotalValueCents() + older.getTotalValueCents() + active.getTotalValueCents();
+        String ownerToken = login("history@test.com");
+        mockMvc.perform(get("/client/{id}/reservations/summary", owner.getId())
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalReservations").value(4))
+                .andExpect(jsonPath("$.scheduled").value(1))
+                .andExpect(jsonPath("$.active").value(1))
+                .andExpect(jsonPath("$.completed").value(2))
+                .andExpect(jsonPath("$.totalSpentCents").value(spent))
+                .andExpect(jsonPath("$.nextReservation.id").value(upcoming.getId()));
+
+        // Uma reserva nova pela API descarta o resumo guardado
+        ReservationDTO dto = new ReservationDTO();
+        dto.setClientId(owner.getId());
+        dto.setVehicleId(vehicle.getId());
+        dto.setStartDate(now.plus(5, ChronoUnit.DAYS));
+        dto.setEndDate(now.plus(6, ChronoUnit.DAYS));
+        MvcResult created = mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long createdId = objectMapper.readTree(created.getResponse().getContentAsString()).path("data").path("id").asLong();
+
+        mockMvc.perform(get("/client/{id}/reservations/summary", owner.getId())
+                        .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalReservations").value(5))
+                .andExpect(jsonPath("$.scheduled").value(2))
+                .andExpect(jsonPath("$.nextReservation.id").value(createdId));
+
+        mockMvc.perform(delete("/reservation/{id}", createdId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(get("/client/{id}/reservations/summary", owner.getId())
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalReservations").value(4))
+                .andExpect(jsonPath("$.nextReservation.id").value(upcoming.getId()));
+
+        // Outro cliente não vê o histórico; cursor inválido responde 400
+        String otherToken = login("other.history@test.com");
+        mockMvc.perform(get("/client/{id}/reservations", owner.getId())
+                        .header("Authorization", "Bearer " + otherToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/client/{id}/reservations/summary", owner.getId())
+                        .header("Authorization", "Bearer " + otherToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/client/{id}/reservations", owner.getId())
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .param("cursor", "invalido"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequestDTO(email, "123456"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), LoginResponseDTO.class).getToken();
+    }
+
     @Test
     void shouldReturnNotFoundForNonExistentClient() throws Exception {
         mockMvc.perform(get("/client/{id}", 99999L)
@@ -1,8 +1,14 @@
 package ifmg.edu.projeto_locadora_veiculos.resources;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import ifmg.edu.projeto_locadora_veiculos.analytics.DemandForecast;
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationCube;
+import ifmg.edu.projeto_locadora_veiculos.analytics.ReservationStats;
+import ifmg.edu.projeto_locadora_veiculos.archive.ArchivedReservation;
+import ifmg.edu.projeto_locadora_veiculos.archive.ReservationArchive;
 import ifmg.edu.projeto_locadora_veiculos.dto.LoginRequestDTO;
 import ifmg.edu.projeto_locadora_veiculos.dto.LoginResponseDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
 import ifmg.edu.projeto_locadora_veiculos.entities.Client;
 import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
 import ifmg.edu.projeto_locadora_veiculos.entities.Role;
@@ -10,6 +16,9 @@ import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
 import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import ifmg.edu.projeto_locadora_veiculos.services.OccupancyIndex;
+import ifmg.edu.projeto_locadora_veiculos.services.ReservationArchiveService;
+import ifmg.edu.projeto_locadora_veiculos.services.ReservationLifecycleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,13 +28,20 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -33,6 +49,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @AutoConfigureMockMvc
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @ActiveProfiles("test")
+@TestPropertySource(properties = "locadora.archive.dir=target/test-archive/${random.uuid}")
 public class ReportResourceIntegrationTest {
 
     @Autowired
@@ -53,6 +70,27 @@ public class ReportResourceIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ReservationArchiveService reservationArchiveService;
+
+    @Autowired
+    private ReservationArchive reservationArchive;
+
+    @Autowired
+    private OccupancyIndex occupancyIndex;
+
+    @Autowired
+    private ReservationLifecycleService reservationLifecycleService;
+
+    @Autowired
+    private ReservationCube reservationCube;
+
+    @Autowired
+    private ReservationStats reservationStats;
+
+    @Autowired
+    private DemandForecast demandForecast;
+
     private String adminToken;
     private String clientToken;
     private Client testClient;
@@ -88,7 +126,7 @@ public class ReportResourceIntegrationTest {
         testVehicle.setBrand("Report Brand");
         testVehicle.setModel("Report Model");
         testVehicle.setYear("2024");
-        testVehicle.setDailyValue(100.0);
+        testVehicle.setDailyValueCents(10_000);
         testVehicle.setDescription("A vehicle for reports");
         testVehicle = vehicleRepository.save(testVehicle);
     }
@@ -143,8 +181,34 @@ public class ReportResourceIntegrationTest {
 
     @Test
     void shouldGetActiveReservationsReport() throws Exception {
-        Reservation activeReservation = new Reservation(testClient, testVehicle, Instant.now().minus(1, ChronoUnit.DAYS), Instant.now().plus(3, ChronoUnit.DAYS));
-        reservationRepository.save(activeReservation);
+        createReservationThroughApi(Instant.now().minus(1, ChronoUnit.DAYS), Instant.now().plus(3, ChronoUnit.DAYS));
+
+        mockMvc.perform(get("/report/reservations/active")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Reserva ativa - Cliente: Client Report")));
+    }
+
+    @Test
+    void shouldRemoveDeletedReservationFromActiveReport() throws Exception {
+        long id = createReservationThroughApi(Instant.now().minus(1, ChronoUnit.DAYS), Instant.now().plus(3, ChronoUnit.DAYS));
+
+        mockMvc.perform(delete("/reservation/{id}", id)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/report/reservations/active")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void shouldShowReservationBookedByAnotherInstanceAfterRefresh() throws Exception {
+        // Gravada direto no banco, como faria outra instância: este nó não recebe o track
+        reservationRepository.save(new Reservation(testClient, testVehicle,
+                Instant.now().minus(1, ChronoUnit.DAYS), Instant.now().plus(3, ChronoUnit.DAYS)));
+
+        reservationLifecycleService.refreshActive();
 
         mockMvc.perform(get("/report/reservations/active")
                         .header("Authorization", "Bearer " + adminToken))
@@ -152,6 +216,22 @@ public class ReportResourceIntegrationTest {
                 .andExpect(content().string(containsString("Reserva ativa - Cliente: Client Report")));
     }
 
+    private long createReservationThroughApi(Instant start, Instant end) throws Exception {
+        ReservationDTO dto = new ReservationDTO();
+        dto.setClientId(testClient.getId());
+        dto.setVehicleId(testVehicle.getId());
+        dto.setStartDate(start);
+        dto.setEndDate(end);
+
+        MvcResult result = mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("data").path("id").asLong();
+    }
+
     @Test
     void shouldGetRevenueReport() throws Exception {
         Reservation reservation = new Reservation(testClient, testVehicle, Instant.parse("2024-07-10T00:00:00Z"), Instant.parse("2024-07-15T00:00:00Z"));
@@ -165,10 +245,452 @@ public class ReportResourceIntegrationTest {
                 .andExpect(content().string("Faturamento do período de 01/07/2024 à 31/07/2024: R$ 600,00"));
     }
 
+    @Test
+    void shouldKeepHistoricalRevenueWhenVehiclePriceChanges() throws Exception {
+        Reservation reservation = new Reservation(testClient, testVehicle, Instant.parse("2024-07-10T00:00:00Z"), Instant.parse("2024-07-15T00:00:00Z"));
+        reservationRepository.save(reservation); // 6 days * 100 = 600
+
+        testVehicle.setDailyValueCents(99_900);
+        vehicleRepository.save(testVehicle);
+
+        mockMvc.perform(get("/report/revenue")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("start", "01-07-2024")
+                        .param("end", "31-07-2024"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Faturamento do período de 01/07/2024 à 31/07/2024: R$ 600,00"));
+    }
+
+    @Test
+    void shouldGetRevenueReportInExactCents() throws Exception {
+        Vehicle cheapVehicle = new Vehicle();
+        cheapVehicle.setPlate("REP-002");
+        cheapVehicle.setBrand("Report Brand");
+        cheapVehicle.setModel("Cheap Model");
+        cheapVehicle.setYear("2020");
+        cheapVehicle.setDailyValueCents(3_333);
+        cheapVehicle = vehicleRepository.save(cheapVehicle);
+
+        reservationRepository.save(new Reservation(testClient, cheapVehicle, Instant.parse("2024-07-01T00:00:00Z"), Instant.parse("2024-07-03T00:00:00Z"))); // 3 * 33,33
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-07-20T00:00:00Z"), Instant.parse("2024-07-20T12:00:00Z"))); // 1 * 100,00
+
+        mockMvc.perform(get("/report/revenue")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("start", "01-07-2024")
+                        .param("end", "31-07-2024"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Faturamento do período de 01/07/2024 à 31/07/2024: R$ 199,99"));
+    }
+
+    @Test
+    void shouldSumRevenueAcrossMonthPartitions() throws Exception {
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-05-25T00:00:00Z"), Instant.parse("2024-06-04T00:00:00Z"))); // 4 dias em junho
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-06-30T00:00:00Z"), Instant.parse("2024-07-02T00:00:00Z"))); // 1 dia em junho
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-06-10T00:00:00Z"), Instant.parse("2024-06-12T00:00:00Z"))); // 3 dias
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2023-01-10T00:00:00Z"), Instant.parse("2023-01-12T00:00:00Z"))); // fora
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-07-01T00:00:00Z"), Instant.parse("2024-07-03T00:00:00Z"))); // fora
+
+        mockMvc.perform(get("/report/revenue")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("start", "01-06-2024")
+                        .param("end", "30-06-2024"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Faturamento do período de 01/06/2024 à 30/06/2024: R$ 800,00"));
+    }
+
+    @Test
+    void shouldIncludeArchivedReservationsWhenRequested() throws Exception {
+        Reservation oldReservation = new Reservation(testClient, testVehicle, Instant.parse("2020-03-01T10:00:00Z"), Instant.parse("2020-03-02T10:00:00Z"));
+        reservationRepository.save(oldReservation); // 2 days * 100 = 200
+
+        assertEquals(1, reservationArchiveService.archiveCompleted());
+        assertEquals(0, reservationRepository.count());
+
+        mockMvc.perform(get("/report/invoice/{clientId}", testClient.getId())
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/report/invoice/{clientId}", testClient.getId())
+                        .header("Authorization", "Bearer " + clientToken)
+                        .param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Total geral: R$ 200,00")));
+
+        mockMvc.perform(get("/report/revenue")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("start", "01-03-2020")
+                        .param("end", "31-03-2020")
+                        .param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Faturamento do período de 01/03/2020 à 31/03/2020: R$ 200,00"));
+    }
+
+    @Test
+    void shouldRemoveArchivedReservationsFromAnalyticsCube() throws Exception {
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2020-03-01T10:00:00Z"), Instant.parse("2020-03-02T10:00:00Z")));
+        reservationCube.rebuild();
+
+        mockMvc.perform(get("/report/analytics")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookings").value(1));
+
+        assertEquals(1, reservationArchiveService.archiveCompleted());
+
+        mockMvc.perform(get("/report/analytics")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldNotCountTwiceReservationsArchivedButStillInTable() throws Exception {
+        Reservation oldReservation = reservationRepository.save(new Reservation(testClient, testVehicle,
+                Instant.parse("2020-03-01T10:00:00Z"), Instant.parse("2020-03-02T10:00:00Z"))); // 2 days * 100 = 200
+
+        // Lote gravado no arquivo, mas a remoção no banco não foi confirmada
+        reservationArchive.append(List.of(new ArchivedReservation(oldReservation)));
+
+        mockMvc.perform(get("/report/invoice/{clientId}", testClient.getId())
+                        .header("Authorization", "Bearer " + clientToken)
+                        .param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Total geral: R$ 200,00")));
+
+        mockMvc.perform(get("/report/revenue")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("start", "01-03-2020")
+                        .param("end", "31-03-2020")
+                        .param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Faturamento do período de 01/03/2020 à 31/03/2020: R$ 200,00"));
+    }
+
+    @Test
+    void shouldGetReservationReportWithFormattedDates() throws Exception {
+        Reservation reservation = new Reservation(testClient, testVehicle, Instant.parse("2024-02-28T10:00:00Z"), Instant.parse("2024-03-02T10:00:00Z"));
+        reservationRepository.save(reservation);
+
+        mockMvc.perform(get("/report/reservations")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "Reserva: Cliente: Client Report - Veículo: Report Model Report Brand 2024 - Período: 28/02/2024 à 02/03/2024")));
+    }
+
+    @Test
+    void shouldGetFleetUtilizationPerDayAndWeek() throws Exception {
+        Vehicle otherVehicle = new Vehicle();
+        otherVehicle.setPlate("REP-003");
+        otherVehicle.setBrand("Report Brand");
+        otherVehicle.setModel("Other Model");
+        otherVehicle.setYear("2024");
+        otherVehicle = vehicleRepository.save(otherVehicle);
+
+        // Duas reservas do mesmo veículo no dia 03 contam como um veículo
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-07-01T10:00:00Z"), Instant.parse("2024-07-03T10:00:00Z")));
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-07-03T12:00:00Z"), Instant.parse("2024-07-04T00:00:00Z")));
+        reservationRepository.save(new Reservation(testClient, otherVehicle, Instant.parse("2024-07-02T00:00:00Z"), Instant.parse("2024-07-03T00:00:00Z")));
+
+        mockMvc.perform(get("/report/utilization")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("start", "01-07-2024")
+                        .param("end", "04-07-2024"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].bookedVehicles").value(1))
+                .andExpect(jsonPath("$[1].bookedVehicles").value(2))
+                .andExpect(jsonPath("$[1].utilization").value(100.0))
+                .andExpect(jsonPath("$[2].bookedVehicles").value(1))
+                .andExpect(jsonPath("$[2].utilization").value(50.0))
+                .andExpect(jsonPath("$[3].bookedVehicles").value(0));
+
+        mockMvc.perform(get("/report/utilization")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("start", "01-07-2024")
+                        .param("end", "04-07-2024")
+                        .param("granularity", "week"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].startDate").value("2024-07-01"))
+                .andExpect(jsonPath("$[0].endDate").value("2024-07-04"))
+                .andExpect(jsonPath("$[0].bookedVehicles").value(2))
+                .andExpect(jsonPath("$[0].utilization").value(50.0));
+
+        mockMvc.perform(get("/report/utilization")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("start", "04-07-2024")
+                        .param("end", "01-07-2024"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldShowCalendarGridAndFreeVehiclesFromOccupancyIndex() throws Exception {
+        Vehicle otherVehicle = new Vehicle();
+        otherVehicle.setPlate("REP-004");
+        otherVehicle.setBrand("Report Brand");
+        otherVehicle.setModel("Other Model");
+        otherVehicle.setYear("2024");
+        otherVehicle = vehicleRepository.save(otherVehicle);
+        occupancyIndex.rebuild();
+
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        LocalDate base = LocalDate.now(ZoneOffset.UTC).plusDays(10);
+        Instant baseStart = base.atStartOfDay().toInstant(ZoneOffset.UTC);
+        long id = createReservationThroughApi(baseStart.plus(34, ChronoUnit.HOURS), baseStart.plus(82, ChronoUnit.HOURS));
+
+        mockMvc.perform(get("/report/calendar")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("start", base.format(format))
+                        .param("end", base.plusDays(4).format(format)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].vehicleId").value(testVehicle.getId()))
+                .andExpect(jsonPath("$.content[0].occupied").value("01110"))
+                .andExpect(jsonPath("$.content[1].occupied").value("00000"));
+
+        mockMvc.perform(get("/report/calendar/free")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("days", base.format(format), base.plusDays(2).format(format)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0]").value(otherVehicle.getId()));
+
+        mockMvc.perform(delete("/reservation/{id}", id)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/report/calendar/free")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("days", base.plusDays(2).format(format)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void shouldRankVehiclesByBookingsAndByRevenue() throws Exception {
+        Vehicle premium = new Vehicle();
+        premium.setPlate("REP-005");
+        premium.setBrand(testVehicle.getBrand());
+        premium.setModel(testVehicle.getModel());
+        premium.setYear(testVehicle.getYear());
+        premium.setDailyValueCents(50_000);
+        premium = vehicleRepository.save(premium);
+
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-07-01T10:00:00Z"), Instant.parse("2024-07-01T14:00:00Z")));
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-07-05T10:00:00Z"), Instant.parse("2024-07-05T14:00:00Z")));
+        reservationRepository.save(new Reservation(testClient, premium, Instant.parse("2024-07-10T10:00:00Z"), Instant.parse("2024-07-11T14:00:00Z")));
+
+        mockMvc.perform(get("/report/vehicles/top")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("by", "bookings")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].vehicleId").value(testVehicle.getId()))
+                .andExpect(jsonPath("$[0].bookings").value(2))
+                .andExpect(jsonPath("$[0].revenueCents").value(20_000));
+
+        mockMvc.perform(get("/report/vehicles/top")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("by", "revenue"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].vehicleId").value(premium.getId()))
+                .andExpect(jsonPath("$[0].revenueCents").value(100_000));
+
+        // Mesmo modelo, veículos diferentes: uma linha para cada
+        mockMvc.perform(get("/report/reservations/per-vehicle")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0]").value("Veículo: Report Brand Report Model 2024 (REP-001) | Total de reservas: 2"));
+    }
+
+    @Test
+    void shouldSliceBookingsAndRevenueWithAnalyticsCube() throws Exception {
+        Vehicle otherVehicle = new Vehicle();
+        otherVehicle.setPlate("REP-006");
+        otherVehicle.setBrand("Other Brand");
+        otherVehicle.setModel("Other Model");
+        otherVehicle.setYear("2023");
+        otherVehicle.setDailyValueCents(20_000);
+        otherVehicle = vehicleRepository.save(otherVehicle);
+        reservationCube.rebuild();
+
+        // Gravadas depois da carga completa: entram pela leitura incremental
+        reservationRepository.save(new Reservation(testClient, testVehicle, Instant.parse("2024-07-01T10:00:00Z"), Instant.parse("2024-07-01T14:00:00Z")));
+        reservationRepository.save(new Reservation(testClient, otherVehicle, Instant.parse("2024-07-10T10:00:00Z"), Instant.parse("2024-07-10T14:00:00Z")));
+        Reservation august = reservationRepository.save(new Reservation(testClient, otherVehicle, Instant.parse("2024-08-10T10:00:00Z"), Instant.parse("2024-08-10T14:00:00Z")));
+        reservationCube.refresh();
+
+        mockMvc.perform(get("/report/analytics")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("groupBy", "brand"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].group.brand").value("Other Brand"))
+                .andExpect(jsonPath("$[0].bookings").value(2))
+                .andExpect(jsonPath("$[0].revenueCents").value(40_000))
+                .andExpect(jsonPath("$[1].group.brand").value("Report Brand"));
+
+        mockMvc.perform(get("/report/analytics")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("groupBy", "city", "month")
+                        .param("month", "2024-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].group.city").value("Reportville"))
+                .andExpect(jsonPath("$[0].group.month").value("2024-07"))
+                .andExpect(jsonPath("$[0].bookings").value(2))
+                .andExpect(jsonPath("$[0].revenueCents").value(30_000));
+
+        mockMvc.perform(delete("/reservation/{id}", august.getId())
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/report/analytics")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("brand", "Other Brand"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookings").value(1));
+
+        mockMvc.perform(get("/report/analytics")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("groupBy", "plate"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnForbiddenForClientAccessingAdminReport() throws Exception {
         mockMvc.perform(get("/report/clients")
                         .header("Authorization", "Bearer " + clientToken))
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldTrackDurationAndLeadTimeDistributions() throws Exception {
+        reservationStats.rebuild();
+
+        Instant base = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        long twoDays = createReservationThroughApi(base.plus(10, ChronoUnit.DAYS), base.plus(12, ChronoUnit.DAYS));
+        long fiveDays = createReservationThroughApi(base.plus(20, ChronoUnit.DAYS), base.plus(25, ChronoUnit.DAYS));
+
+        mockMvc.perform(get("/report/reservations/stats")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duration.count").value(2))
+                .andExpect(jsonPath("$.duration.meanHours").value(84.0))
+                .andExpect(jsonPath("$.duration.p50Hours", closeTo(48.0, 1.0)))
+                .andExpect(jsonPath("$.duration.p99Hours", closeTo(120.0, 2.0)))
+                .andExpect(jsonPath("$.duration.buckets[2].fromHours").value(48.0))
+                .andExpect(jsonPath("$.duration.buckets[2].count").value(1))
+                .andExpect(jsonPath("$.duration.buckets[3].count").value(1))
+                .andExpect(jsonPath("$.leadTime.count").value(2))
+                .andExpect(jsonPath("$.leadTime.p50Hours", closeTo(240.0, 4.0)))
+                .andExpect(jsonPath("$.leadTime.buckets[3].count").value(1))
+                .andExpect(jsonPath("$.leadTime.buckets[4].count").value(1));
+
+        mockMvc.perform(delete("/reservation/{id}", twoDays)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        ReservationDTO shorter = new ReservationDTO();
+        shorter.setClientId(testClient.getId());
+        shorter.setVehicleId(testVehicle.getId());
+        shorter.setStartDate(base.plus(20, ChronoUnit.DAYS));
+        shorter.setEndDate(base.plus(21, ChronoUnit.DAYS));
+        mockMvc.perform(put("/reservation/{id}", fiveDays)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(shorter)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/report/reservations/stats")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duration.count").value(1))
+                .andExpect(jsonPath("$.duration.meanHours").value(24.0))
+                .andExpect(jsonPath("$.duration.buckets[1].count").value(1))
+                .andExpect(jsonPath("$.duration.buckets[3].count").value(0));
+
+        mockMvc.perform(get("/report/reservations/stats")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("rebuild", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duration.count").value(1))
+                .andExpect(jsonPath("$.leadTime.count").value(1))
+                .andExpect(jsonPath("$.leadTime.p50Hours", closeTo(480.0, 8.0)));
+
+        mockMvc.perform(get("/report/reservations/stats")
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldForecastDailyDemandPerModelFromWeeklyHistory() throws Exception {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        Instant midnight = today.atStartOfDay().toInstant(ZoneOffset.UTC);
+        Reservation lastWeek = null;
+        for (int weeks = 1; weeks <= 4; weeks++) {
+            Instant day = midnight.minus(7L * weeks, ChronoUnit.DAYS);
+            Reservation saved = reservationRepository.save(new Reservation(testClient, testVehicle, day, day.plus(12, ChronoUnit.HOURS)));
+            if (weeks == 1) {
+                lastWeek = saved;
+            }
+        }
+
+        Vehicle otherVehicle = new Vehicle();
+        otherVehicle.setPlate("REP-003");
+        otherVehicle.setBrand("Other Brand");
+        otherVehicle.setModel("Other Model");
+        otherVehicle.setYear("2023");
+        otherVehicle = vehicleRepository.save(otherVehicle);
+        reservationRepository.save(new Reservation(testClient, otherVehicle,
+                midnight.minus(3, ChronoUnit.DAYS), midnight.minus(2, ChronoUnit.DAYS)));
+
+        demandForecast.rebuild();
+
+        // Média do dia da semana: (1 + 0,8 + 0,64 + 0,512) / (1 + 0,8 + ... + 0,8^51) ≈ 0,59
+        mockMvc.perform(get("/report/forecast")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("weeks", "2")
+                        .param("brand", "report brand"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].model").value("Report Model"))
+                .andExpect(jsonPath("$[0].days.length()").value(14))
+                .andExpect(jsonPath("$[0].days[0].date").value(today.toString()))
+                .andExpect(jsonPath("$[0].days[0].expected").value(0.6))
+                .andExpect(jsonPath("$[0].days[1].expected").value(0.0))
+                .andExpect(jsonPath("$[0].days[7].booked").value(0))
+                .andExpect(jsonPath("$[0].days[7].expected").value(0.6));
+
+        // Reserva futura entra nos dias abertos; remoção de um dia passado corrige a média
+        Instant nextWeek = midnight.plus(7, ChronoUnit.DAYS);
+        createReservationThroughApi(nextWeek, nextWeek.plus(12, ChronoUnit.HOURS));
+        mockMvc.perform(delete("/reservation/{id}", lastWeek.getId())
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/report/forecast")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("weeks", "2")
+                        .param("model", "Report Model"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].days[0].expected").value(0.4))
+                .andExpect(jsonPath("$[0].days[7].booked").value(1))
+                .andExpect(jsonPath("$[0].days[7].expected").value(1.0));
+
+        mockMvc.perform(get("/report/forecast")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].brand").value("Other Brand"));
+
+        mockMvc.perform(get("/report/forecast")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("weeks", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,16 +1,21 @@
 package ifmg.edu.projeto_locadora_veiculos.resources;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import ifmg.edu.projeto_locadora_veiculos.dto.LoginRequestDTO;
 import ifmg.edu.projeto_locadora_veiculos.dto.LoginResponseDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.MaintenanceWindowDTO;
 import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
 import ifmg.edu.projeto_locadora_veiculos.entities.Client;
 import ifmg.edu.projeto_locadora_veiculos.entities.Reservation;
+import ifmg.edu.projeto_locadora_veiculos.entities.ReservationHold;
 import ifmg.edu.projeto_locadora_veiculos.entities.Role;
 import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationHoldRepository;
 import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
 import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import ifmg.edu.projeto_locadora_veiculos.services.ReservationHoldService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +30,18 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -50,6 +67,12 @@ public class ReservationResourceIntegrationTest {
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private ReservationHoldRepository reservationHoldRepository;
+
+    @Autowired
+    private ReservationHoldService reservationHoldService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -101,11 +124,70 @@ public class ReservationResourceIntegrationTest {
     }
 
     private void cleanDatabase() {
+        reservationHoldRepository.deleteAll();
         reservationRepository.deleteAll();
         vehicleRepository.deleteAll();
         clientRepository.deleteAll();
     }
 
+    @Test
+    void shouldNeverDoubleBookVehicleUnderConcurrentRequests() throws Exception {
+        Vehicle otherVehicle = new Vehicle();
+        otherVehicle.setPlate("RES-002");
+        otherVehicle.setBrand("Reservation Brand");
+        otherVehicle.setModel("Other Model");
+        otherVehicle.setYear("2024");
+        otherVehicle = vehicleRepository.save(otherVehicle);
+
+        List<Long> vehicleIds = List.of(testVehicle.getId(), otherVehicle.getId());
+        Instant base = Instant.now().plus(10, ChronoUnit.DAYS);
+        int requests = 32;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            ReservationDTO dto = new ReservationDTO();
+            dto.setClientId(testClient.getId());
+            dto.setVehicleId(vehicleIds.get(i % vehicleIds.size()));
+            // Períodos deslocados em horas, todos sobrepostos entre si
+            dto.setStartDate(base.plus(i % 5, ChronoUnit.HOURS));
+            dto.setEndDate(base.plus(2, ChronoUnit.DAYS).plus(i % 3, ChronoUnit.HOURS));
+            String body = objectMapper.writeValueAsString(dto);
+
+            results.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(post("/reservation")
+                                .header("Authorization", "Bearer " + clientToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int conflicts = 0;
+        for (Future<Integer> result : results) {
+            int status = result.get(60, TimeUnit.SECONDS);
+            if (status == 201) {
+                created++;
+            } else if (status == 409) {
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(vehicleIds.size(), created);
+        assertEquals(requests - vehicleIds.size(), conflicts);
+        for (Long vehicleId : vehicleIds) {
+            long booked = reservationRepository.findAll().stream()
+                    .filter(r -> r.getVehicle().getId() == vehicleId)
+                    .count();
+            assertEquals(1, booked);
+        }
+    }
+
     @Test
     void shouldCreateReservationSuccessfullyAsClient() throws Exception {
         ReservationDTO reservationDTO = new ReservationDTO();
@@ -120,7 +202,8 @@ public class ReservationResourceIntegrationTest {
                         .content(objectMapper.writeValueAsString(reservationDTO)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.message").value("Reserva criada com sucesso!"))
-                .andExpect(jsonPath("$.data.clientId").value(testClient.getId()));
+                .andExpect(jsonPath("$.data.clientId").value(testClient.getId()))
+                .andExpect(jsonPath("$.data.status").value("SCHEDULED"));
     }
 
     @Test
@@ -143,6 +226,344 @@ public class ReservationResourceIntegrationTest {
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    void shouldSuggestNearestFreeWindowsAndSimilarVehiclesOnConflict() throws Exception {
+        Instant base = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        reservationRepository.save(new Reservation(testClient, testVehicle,
+                base.plus(10, ChronoUnit.DAYS), base.plus(15, ChronoUnit.DAYS)));
+
+        Vehicle similar = new Vehicle();
+        similar.setPlate("RES-002");
+        similar.setBrand(testVehicle.getBrand());
+        similar.setModel(testVehicle.getModel());
+        similar.setYear("2023");
+        similar = vehicleRepository.save(similar);
+
+        ReservationDTO overlappingDTO = new ReservationDTO();
+        overlappingDTO.setClientId(testClient.getId());
+        overlappingDTO.setVehicleId(testVehicle.getId());
+        overlappingDTO.setStartDate(base.plus(12, ChronoUnit.DAYS));
+        overlappingDTO.setEndDate(base.plus(17, ChronoUnit.DAYS));
+
+        mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(overlappingDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.alternatives.sameVehicle.length()").value(2))
+                .andExpect(jsonPath("$.alternatives.sameVehicle[0].endDate").value(base.plus(10, ChronoUnit.DAYS).toString()))
+                .andExpect(jsonPath("$.alternatives.sameVehicle[1].startDate").value(base.plus(15, ChronoUnit.DAYS).toString()))
+                .andExpect(jsonPath("$.alternatives.similarVehicles[0].vehicleId").value(similar.getId()));
+    }
+
+    private List<ReservationDTO> groupFor(List<Vehicle> vehicles, Instant start, Instant end) {
+        List<ReservationDTO> items = new ArrayList<>();
+        for (Vehicle vehicle : vehicles) {
+            ReservationDTO item = new ReservationDTO();
+            item.setClientId(testClient.getId());
+            item.setVehicleId(vehicle.getId());
+            item.setStartDate(start);
+            item.setEndDate(end);
+            items.add(item);
+        }
+        return items;
+    }
+
+    private Vehicle saveVehicle(String plate) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setPlate(plate);
+        vehicle.setBrand("Group Brand");
+        vehicle.setModel("Group Model");
+        vehicle.setYear("2024");
+        return vehicleRepository.save(vehicle);
+    }
+
+    @Test
+    void shouldBookGroupOfVehiclesInOneRequest() throws Exception {
+        List<Vehicle> vehicles = List.of(testVehicle, saveVehicle("GRP-001"), saveVehicle("GRP-002"));
+        Instant start = Instant.now().plus(70, ChronoUnit.DAYS);
+
+        mockMvc.perform(post("/reservation/group")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(groupFor(vehicles, start, start.plus(2, ChronoUnit.DAYS)))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.length()").value(3));
+
+        assertEquals(3, reservationRepository.count());
+    }
+
+    @Test
+    void shouldRejectWholeGroupWhenOneVehicleIsUnavailable() throws Exception {
+        Vehicle busy = saveVehicle("GRP-003");
+        Instant start = Instant.now().plus(80, ChronoUnit.DAYS);
+        reservationRepository.save(new Reservation(testClient, busy, start.plus(1, ChronoUnit.DAYS), start.plus(3, ChronoUnit.DAYS)));
+
+        List<Vehicle> vehicles = List.of(testVehicle, saveVehicle("GRP-004"), busy);
+        mockMvc.perform(post("/reservation/group")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(groupFor(vehicles, start, start.plus(2, ChronoUnit.DAYS)))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(containsString(String.valueOf(busy.getId()))));
+
+        // Nada do grupo foi gravado
+        assertEquals(1, reservationRepository.count());
+    }
+
+    private MvcResult scheduleMaintenance(Long vehicleId, Instant start, Instant end, int expectedStatus) throws Exception {
+        MaintenanceWindowDTO window = new MaintenanceWindowDTO();
+        window.setStartDate(start);
+        window.setEndDate(end);
+        window.setDescription("Revisão");
+        return mockMvc.perform(post("/vehicle/{vehicleId}/maintenance", vehicleId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(window)))
+                .andExpect(status().is(expectedStatus))
+                .andReturn();
+    }
+
+    @Test
+    void shouldBlockReservationsDuringMaintenanceUntilItIsRemoved() throws Exception {
+        Instant start = Instant.now().truncatedTo(ChronoUnit.SECONDS).plus(90, ChronoUnit.DAYS);
+        MvcResult created = scheduleMaintenance(testVehicle.getId(), start, start.plus(3, ChronoUnit.DAYS), 201);
+        long maintenanceId = objectMapper.readTree(created.getResponse().getContentAsString()).path("data").path("id").asLong();
+
+        ReservationDTO dto = new ReservationDTO();
+        dto.setClientId(testClient.getId());
+        dto.setVehicleId(testVehicle.getId());
+        dto.setStartDate(start.plus(1, ChronoUnit.DAYS));
+        dto.setEndDate(start.plus(2, ChronoUnit.DAYS));
+        String body = objectMapper.writeValueAsString(dto);
+
+        mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.alternatives.sameVehicle[1].startDate").value(start.plus(3, ChronoUnit.DAYS).toString()));
+
+        mockMvc.perform(delete("/vehicle/{vehicleId}/maintenance/{id}", testVehicle.getId(), maintenanceId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldRejectMaintenanceOverlappingReservation() throws Exception {
+        Instant start = Instant.now().plus(100, ChronoUnit.DAYS);
+        reservationRepository.save(new Reservation(testClient, testVehicle, start, start.plus(2, ChronoUnit.DAYS)));
+
+        scheduleMaintenance(testVehicle.getId(), start.plus(1, ChronoUnit.DAYS), start.plus(4, ChronoUnit.DAYS), 409);
+        scheduleMaintenance(testVehicle.getId(), start.plus(2, ChronoUnit.DAYS), start.plus(4, ChronoUnit.DAYS), 201);
+
+        mockMvc.perform(get("/vehicle/{vehicleId}/maintenance", testVehicle.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void shouldRejectReservationLongerThanMaximumDuration() throws Exception {
+        ReservationDTO reservationDTO = new ReservationDTO();
+        reservationDTO.setClientId(testClient.getId());
+        reservationDTO.setVehicleId(testVehicle.getId());
+        reservationDTO.setStartDate(Instant.now().plus(1, ChronoUnit.DAYS));
+        reservationDTO.setEndDate(Instant.now().plus(400, ChronoUnit.DAYS));
+
+        mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldUpdateOwnPeriodWithIfMatchAndRejectStaleVersion() throws Exception {
+        Reservation reservation = new Reservation(testClient, testVehicle, Instant.now().plus(30, ChronoUnit.DAYS), Instant.now().plus(35, ChronoUnit.DAYS));
+        reservation = reservationRepository.save(reservation);
+
+        // Encurtar a própria reserva não pode conflitar com ela mesma
+        ReservationDTO updateDTO = new ReservationDTO();
+        updateDTO.setClientId(testClient.getId());
+        updateDTO.setVehicleId(testVehicle.getId());
+        updateDTO.setStartDate(reservation.getStartDate().plus(1, ChronoUnit.DAYS));
+        updateDTO.setEndDate(reservation.getEndDate());
+
+        mockMvc.perform(put("/reservation/{id}", reservation.getId())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(put("/reservation/{id}", reservation.getId())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void shouldReplayReservationForRepeatedIdempotencyKey() throws Exception {
+        ReservationDTO reservationDTO = new ReservationDTO();
+        reservationDTO.setClientId(testClient.getId());
+        reservationDTO.setVehicleId(testVehicle.getId());
+        reservationDTO.setStartDate(Instant.now().plus(40, ChronoUnit.DAYS));
+        reservationDTO.setEndDate(Instant.now().plus(42, ChronoUnit.DAYS));
+        String body = objectMapper.writeValueAsString(reservationDTO);
+
+        MvcResult first = mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .header("Idempotency-Key", "retry-001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        // A repetição não passa pela checagem de conflito: recebe a mesma resposta
+        mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .header("Idempotency-Key", "retry-001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(header().string("Location", first.getResponse().getHeader("Location")))
+                .andExpect(content().string(first.getResponse().getContentAsString()));
+
+        reservationDTO.setEndDate(Instant.now().plus(43, ChronoUnit.DAYS));
+        mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .header("Idempotency-Key", "retry-001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationDTO)))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertEquals(1, reservationRepository.count());
+    }
+
+    @Test
+    void shouldBlockPeriodWhileHoldIsActiveAndConfirmIt() throws Exception {
+        ReservationDTO holdDTO = new ReservationDTO();
+        holdDTO.setClientId(testClient.getId());
+        holdDTO.setVehicleId(testVehicle.getId());
+        holdDTO.setStartDate(Instant.now().plus(50, ChronoUnit.DAYS));
+        holdDTO.setEndDate(Instant.now().plus(53, ChronoUnit.DAYS));
+
+        MvcResult held = mockMvc.perform(post("/reservation/hold")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(holdDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.expiresAt").exists())
+                .andReturn();
+        long holdId = objectMapper.readTree(held.getResponse().getContentAsString()).path("data").path("id").asLong();
+
+        ReservationDTO overlapping = new ReservationDTO();
+        overlapping.setClientId(testClient.getId());
+        overlapping.setVehicleId(testVehicle.getId());
+        overlapping.setStartDate(Instant.now().plus(52, ChronoUnit.DAYS));
+        overlapping.setEndDate(Instant.now().plus(55, ChronoUnit.DAYS));
+
+        mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(overlapping)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(post("/reservation/hold/{id}/confirm", holdId)
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.vehicleId").value(testVehicle.getId()));
+
+        mockMvc.perform(post("/reservation/hold/{id}/confirm", holdId)
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isNotFound());
+
+        assertEquals(1, reservationRepository.count());
+        assertEquals(0, reservationHoldRepository.count());
+    }
+
+    @Test
+    void shouldRestrictHoldToItsClient() throws Exception {
+        Client otherClient = new Client();
+        otherClient.setName("Other Client Reservation");
+        otherClient.setEmail("other.reservation@test.com");
+        otherClient.setPassword(passwordEncoder.encode("123456"));
+        otherClient.setRole(Role.CLIENT);
+        clientRepository.save(otherClient);
+        String otherToken = loginAndGetToken("other.reservation@test.com", "123456");
+
+        ReservationHold hold = reservationHoldRepository.save(new ReservationHold(testClient, testVehicle,
+                Instant.now().plus(70, ChronoUnit.DAYS), Instant.now().plus(72, ChronoUnit.DAYS),
+                Instant.now().plus(10, ChronoUnit.MINUTES)));
+
+        mockMvc.perform(get("/reservation/hold/{id}", hold.getId())
+                        .header("Authorization", "Bearer " + otherToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/reservation/hold/{id}/confirm", hold.getId())
+                        .header("Authorization", "Bearer " + otherToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/reservation/hold/{id}", hold.getId())
+                        .header("Authorization", "Bearer " + otherToken))
+                .andExpect(status().isForbidden());
+        assertTrue(reservationHoldRepository.existsById(hold.getId()));
+
+        mockMvc.perform(get("/reservation/hold/{id}", hold.getId())
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/reservation/hold/{id}", hold.getId())
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isOk());
+        assertFalse(reservationHoldRepository.existsById(hold.getId()));
+
+        mockMvc.perform(delete("/reservation/hold/{id}", hold.getId())
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldIgnoreAndRemoveExpiredHold() throws Exception {
+        Instant start = Instant.now().plus(60, ChronoUnit.DAYS);
+        Instant end = Instant.now().plus(62, ChronoUnit.DAYS);
+        ReservationHold expired = reservationHoldRepository.save(
+                new ReservationHold(testClient, testVehicle, start, end, Instant.now().minusSeconds(1)));
+
+        mockMvc.perform(post("/reservation/hold/{id}/confirm", expired.getId())
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isGone());
+
+        ReservationDTO reservationDTO = new ReservationDTO();
+        reservationDTO.setClientId(testClient.getId());
+        reservationDTO.setVehicleId(testVehicle.getId());
+        reservationDTO.setStartDate(start);
+        reservationDTO.setEndDate(end);
+
+        mockMvc.perform(post("/reservation")
+                        .header("Authorization", "Bearer " + clientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationDTO)))
+                .andExpect(status().isCreated());
+
+        // A timing wheel remove o bloqueio quando vence, sem varrer o banco a cada tick
+        ReservationHold shortLived = reservationHoldRepository.save(new ReservationHold(testClient, testVehicle,
+                start.plus(10, ChronoUnit.DAYS), end.plus(10, ChronoUnit.DAYS), Instant.now().plusMillis(500)));
+        reservationHoldService.track(shortLived);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reservationHoldRepository.existsById(shortLived.getId()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertFalse(reservationHoldRepository.existsById(shortLived.getId()));
+    }
+
     @Test
     void shouldGetAllReservationsAsAdmin() throws Exception {
         mockMvc.perform(get("/reservation")
@@ -167,4 +588,77 @@ public class ReservationResourceIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Reserva deletada com sucesso!"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldSearchReservationsByFiltersWithKeysetPaging() throws Exception {
+        Vehicle searchVehicle = new Vehicle();
+        searchVehicle.setPlate("RES-009");
+        searchVehicle.setBrand("Search Brand");
+        searchVehicle.setModel("Search Model");
+        searchVehicle.setYear("2024");
+        searchVehicle.setDailyValueCents(20_000);
+        searchVehicle = vehicleRepository.save(searchVehicle);
+
+        Instant future = Instant.now().plus(10, ChronoUnit.DAYS);
+        Reservation july = reservationRepository.save(new Reservation(testClient, testVehicle,
+                Instant.parse("2024-07-01T00:00:00Z"), Instant.parse("2024-07-03T00:00:00Z")));
+        Reservation julySearch = reservationRepository.save(new Reservation(testClient, searchVehicle,
+                Instant.parse("2024-07-10T00:00:00Z"), Instant.parse("2024-07-12T00:00:00Z")));
+        Reservation scheduled = reservationRepository.save(new Reservation(testClient, searchVehicle,
+                future, future.plus(2, ChronoUnit.DAYS)));
+        Reservation later = reservationRepository.save(new Reservation(testClient, testVehicle,
+                future.plus(10, ChronoUnit.DAYS), future.plus(12, ChronoUnit.DAYS)));
+
+        mockMvc.perform(get("/reservation/search")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("brand", "Search Brand"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(julySearch.getId()))
+                .andExpect(jsonPath("$.content[1].id").value(scheduled.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/reservation/search")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("from", "2024-07-02T00:00:00Z")
+                        .param("to", "2024-07-11T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(july.getId()))
+                .andExpect(jsonPath("$.content[1].id").value(julySearch.getId()));
+
+        mockMvc.perform(get("/reservation/search")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("status", "SCHEDULED")
+                        .param("minDailyValueCents", "10000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(scheduled.getId()));
+
+        // Página a página pelo cursor, sem repetir nem pular reservas
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            MvcResult result = mockMvc.perform(get("/reservation/search")
+                            .header("Authorization", "Bearer " + adminToken)
+                            .param("clientId", String.valueOf(testClient.getId()))
+                            .param("size", "3")
+                            .param("cursor", cursor == null ? "" : cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.path("content").forEach(item -> seen.add(item.path("id").asLong()));
+            cursor = page.path("nextCursor").isNull() ? null : page.path("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(List.of(july.getId(), julySearch.getId(), scheduled.getId(), later.getId()), seen);
+
+        mockMvc.perform(get("/reservation/search")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("cursor", "abc"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/reservation/search")
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,325 @@
+package ifmg.edu.projeto_locadora_veiculos.resources;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ifmg.edu.projeto_locadora_veiculos.dto.LoginRequestDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.LoginResponseDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.MaintenanceWindowDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.ReservationDTO;
+import ifmg.edu.projeto_locadora_veiculos.entities.Client;
+import ifmg.edu.projeto_locadora_veiculos.entities.Role;
+import ifmg.edu.projeto_locadora_veiculos.entities.Vehicle;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "locadora.reservation.shards.enabled=true",
+        "locadora.reservation.shards.count=2"
+})
+public class ReservationShardedBookingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String adminToken;
+    private Client testClient;
+    private Vehicle testVehicle;
+    private Vehicle otherVehicle;
+    private Instant base;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reservationRepository.deleteAll();
+        vehicleRepository.deleteAll();
+        clientRepository.deleteAll();
+
+        Client adminClient = new Client();
+        adminClient.setName("Admin Shard");
+        adminClient.setEmail("admin.shard@test.com");
+        adminClient.setPassword(passwordEncoder.encode("123456"));
+        adminClient.setRole(Role.ADMIN);
+        clientRepository.save(adminClient);
+
+        LoginRequestDTO loginRequest = new LoginRequestDTO("admin.shard@test.com", "123456");
+        MvcResult result = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        adminToken = objectMapper.readValue(result.getResponse().getContentAsString(), LoginResponseDTO.class).getToken();
+
+        testClient = new Client();
+        testClient.setName("Client Shard");
+        testClient.setEmail("client.shard@test.com");
+        testClient.setPassword(passwordEncoder.encode("123456"));
+        testClient.setRole(Role.CLIENT);
+        testClient = clientRepository.save(testClient);
+
+        testVehicle = saveVehicle("SHD-001");
+        otherVehicle = saveVehicle("SHD-002");
+        base = Instant.now().plus(10, ChronoUnit.DAYS);
+    }
+
+    private Vehicle saveVehicle(String plate) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setPlate(plate);
+        vehicle.setBrand("Shard Brand");
+        vehicle.setModel("Shard Model");
+        vehicle.setYear("2024");
+        return vehicleRepository.save(vehicle);
+    }
+
+    private ResultActions book(Long vehicleId, Instant start, Instant end) throws Exception {
+        ReservationDTO dto = new ReservationDTO();
+        dto.setClientId(testClient.getId());
+        dto.setVehicleId(vehicleId);
+        dto.setStartDate(start);
+        dto.setEndDate(end);
+        return mockMvc.perform(post("/reservation")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)));
+    }
+
+    private long idOf(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString()).path("data").path("id").asLong();
+    }
+
+    @Test
+    void shouldNeverDoubleBookVehicleUnderConcurrentRequests() throws Exception {
+        List<Long> vehicleIds = List.of(testVehicle.getId(), otherVehicle.getId());
+        int requests = 32;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            Long vehicleId = vehicleIds.get(i % vehicleIds.size());
+            Instant from = base.plus(i % 5, ChronoUnit.HOURS);
+            Instant to = base.plus(2, ChronoUnit.DAYS).plus(i % 3, ChronoUnit.HOURS);
+            results.add(executor.submit(() -> {
+                start.await();
+                return book(vehicleId, from, to).andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        for (Future<Integer> result : results) {
+            if (result.get(60, TimeUnit.SECONDS) == 201) {
+                created++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(vehicleIds.size(), created);
+        assertEquals(vehicleIds.size(), reservationRepository.count());
+    }
+
+    @Test
+    void shouldFreePeriodWhenReservationMovesToAnotherVehicle() throws Exception {
+        Instant end = base.plus(3, ChronoUnit.DAYS);
+        long id = idOf(book(testVehicle.getId(), base, end).andExpect(status().isCreated()));
+
+        ReservationDTO moved = new ReservationDTO();
+        moved.setClientId(testClient.getId());
+        moved.setVehicleId(otherVehicle.getId());
+        moved.setStartDate(base);
+        moved.setEndDate(end);
+        mockMvc.perform(put("/reservation/{id}", id)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(moved)))
+                .andExpect(status().isOk());
+
+        book(testVehicle.getId(), base, end).andExpect(status().isCreated());
+        book(otherVehicle.getId(), base, end).andExpect(status().isConflict());
+    }
+
+    @Test
+    void shouldEditReservationThatAlreadyStarted() throws Exception {
+        Instant start = Instant.now().minus(1, ChronoUnit.DAYS);
+        Instant end = Instant.now().plus(2, ChronoUnit.DAYS);
+        long id = idOf(book(testVehicle.getId(), start, end).andExpect(status().isCreated()));
+
+        ReservationDTO extended = new ReservationDTO();
+        extended.setClientId(testClient.getId());
+        extended.setVehicleId(testVehicle.getId());
+        extended.setStartDate(start);
+        extended.setEndDate(end.plus(1, ChronoUnit.DAYS));
+        mockMvc.perform(put("/reservation/{id}", id)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(extended)))
+                .andExpect(status().isOk());
+
+        book(testVehicle.getId(), end, end.plus(2, ChronoUnit.DAYS)).andExpect(status().isConflict());
+    }
+
+    @Test
+    void shouldNotChangeReservationWhenUpdateFailsWithNotFound() throws Exception {
+        Client otherClient = new Client();
+        otherClient.setName("Other Shard");
+        otherClient.setEmail("other.shard@test.com");
+        otherClient.setPassword(passwordEncoder.encode("123456"));
+        otherClient.setRole(Role.CLIENT);
+        otherClient = clientRepository.save(otherClient);
+
+        Instant end = base.plus(3, ChronoUnit.DAYS);
+        long id = idOf(book(testVehicle.getId(), base, end).andExpect(status().isCreated()));
+
+        ReservationDTO invalid = new ReservationDTO();
+        invalid.setClientId(otherClient.getId());
+        invalid.setVehicleId(999_999L);
+        invalid.setStartDate(base);
+        invalid.setEndDate(end);
+        mockMvc.perform(put("/reservation/{id}", id)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/reservation/{id}", id)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientId").value(testClient.getId()));
+    }
+
+    @Test
+    void shouldFreePeriodWhenReservationIsDeleted() throws Exception {
+        Instant end = base.plus(3, ChronoUnit.DAYS);
+        long id = idOf(book(testVehicle.getId(), base, end).andExpect(status().isCreated()));
+        book(testVehicle.getId(), base, end).andExpect(status().isConflict());
+
+        mockMvc.perform(delete("/reservation/{id}", id)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        book(testVehicle.getId(), base, end).andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldRespectHoldAndConfirmItThroughShard() throws Exception {
+        Instant end = base.plus(3, ChronoUnit.DAYS);
+        ReservationDTO dto = new ReservationDTO();
+        dto.setClientId(testClient.getId());
+        dto.setVehicleId(testVehicle.getId());
+        dto.setStartDate(base);
+        dto.setEndDate(end);
+
+        ResultActions held = mockMvc.perform(post("/reservation/hold")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+        long holdId = idOf(held);
+
+        book(testVehicle.getId(), base.plus(1, ChronoUnit.DAYS), end).andExpect(status().isConflict());
+
+        mockMvc.perform(post("/reservation/hold/{id}/confirm", holdId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isCreated());
+
+        book(testVehicle.getId(), base, end).andExpect(status().isConflict());
+        assertEquals(1, reservationRepository.count());
+    }
+
+    @Test
+    void shouldFreePeriodWhenHoldIsReleased() throws Exception {
+        Instant end = base.plus(3, ChronoUnit.DAYS);
+        ReservationDTO dto = new ReservationDTO();
+        dto.setClientId(testClient.getId());
+        dto.setVehicleId(testVehicle.getId());
+        dto.setStartDate(base);
+        dto.setEndDate(end);
+
+        long holdId = idOf(mockMvc.perform(post("/reservation/hold")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated()));
+        book(testVehicle.getId(), base, end).andExpect(status().isConflict());
+
+        mockMvc.perform(delete("/reservation/hold/{id}", holdId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        book(testVehicle.getId(), base, end).andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldKeepMaintenanceAndReservationsApartThroughShard() throws Exception {
+        Instant end = base.plus(3, ChronoUnit.DAYS);
+        book(testVehicle.getId(), base, end).andExpect(status().isCreated());
+
+        MaintenanceWindowDTO window = new MaintenanceWindowDTO();
+        window.setStartDate(end.minus(1, ChronoUnit.DAYS));
+        window.setEndDate(end.plus(2, ChronoUnit.DAYS));
+        mockMvc.perform(post("/vehicle/{vehicleId}/maintenance", testVehicle.getId())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(window)))
+                .andExpect(status().isConflict());
+
+        window.setStartDate(end);
+        mockMvc.perform(post("/vehicle/{vehicleId}/maintenance", testVehicle.getId())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(window)))
+                .andExpect(status().isCreated());
+
+        book(testVehicle.getId(), end.plus(1, ChronoUnit.DAYS), end.plus(4, ChronoUnit.DAYS)).andExpect(status().isConflict());
+        book(testVehicle.getId(), end.plus(2, ChronoUnit.DAYS), end.plus(4, ChronoUnit.DAYS)).andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownVehicle() throws Exception {
+        book(999_999L, base, base.plus(1, ChronoUnit.DAYS)).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,129 @@
+package ifmg.edu.projeto_locadora_veiculos.resources;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ifmg.edu.projeto_locadora_veiculos.dto.LoginRequestDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.LoginResponseDTO;
+import ifmg.edu.projeto_locadora_veiculos.dto.VehicleDTO;
+import ifmg.edu.projeto_locadora_veiculos.entities.Client;
+import ifmg.edu.projeto_locadora_veiculos.entities.Role;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ClientRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.IdempotencyRecordRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.ReservationRepository;
+import ifmg.edu.projeto_locadora_veiculos.repositories.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "locadora.idempotency.persistent=true")
+public class VehicleIdempotencyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        idempotencyRecordRepository.deleteAll();
+        reservationRepository.deleteAll();
+        vehicleRepository.deleteAll();
+        clientRepository.deleteAll();
+
+        Client adminClient = new Client();
+        adminClient.setName("Admin Idempotency");
+        adminClient.setEmail("admin.idempotency@test.com");
+        adminClient.setPassword(passwordEncoder.encode("123456"));
+        adminClient.setRole(Role.ADMIN);
+        clientRepository.save(adminClient);
+
+        LoginRequestDTO loginRequest = new LoginRequestDTO("admin.idempotency@test.com", "123456");
+        MvcResult result = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        adminToken = objectMapper.readValue(result.getResponse().getContentAsString(), LoginResponseDTO.class).getToken();
+    }
+
+    private ResultActions create(String key, VehicleDTO dto) throws Exception {
+        return mockMvc.perform(post("/vehicle")
+                .header("Authorization", "Bearer " + adminToken)
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)));
+    }
+
+    @Test
+    void shouldReplayStoredResponseFromDatabase() throws Exception {
+        VehicleDTO vehicleDTO = new VehicleDTO("IDP-001", "Idem Brand", "Idem Model", "2025", "Red", "Desc", "", 25_000);
+
+        String firstBody = create("vehicle-001", vehicleDTO)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        create("vehicle-001", vehicleDTO)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().string(firstBody));
+
+        assertEquals(1, vehicleRepository.count());
+        assertEquals(1, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void shouldTreatDifferentKeysAsDifferentRequests() throws Exception {
+        create("vehicle-a", new VehicleDTO("IDP-002", "Idem Brand", "Idem Model", "2025", "Red", "", "", 25_000))
+                .andExpect(status().isCreated());
+        create("vehicle-b", new VehicleDTO("IDP-003", "Idem Brand", "Idem Model", "2025", "Red", "", "", 25_000))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        assertEquals(2, vehicleRepository.count());
+    }
+
+    @Test
+    void shouldRejectReusedKeyWithDifferentBody() throws Exception {
+        create("vehicle-002", new VehicleDTO("IDP-004", "Idem Brand", "Idem Model", "2025", "Red", "", "", 25_000))
+                .andExpect(status().isCreated());
+        create("vehicle-002", new VehicleDTO("IDP-005", "Idem Brand", "Idem Model", "2025", "Red", "", "", 25_000))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertEquals(1, vehicleRepository.count());
+    }
+}
@@ -115,7 +115,7 @@ public class VehicleResourceIntegrationTest {
 
     @Test
     void shouldCreateVehicleSuccessfullyAsAdmin() throws Exception {
-        VehicleDTO vehicleDTO = new VehicleDTO("NEW-001", "New Brand", "New Model", "2025", "Red", "Desc", "", 250.0);
+        VehicleDTO vehicleDTO = new VehicleDTO("NEW-001", "New Brand", "New Model", "2025", "Red", "Desc", "", 25_000);
 
         mockMvc.perform(post("/vehicle")
                         .header("Authorization", "Bearer " + adminToken)
@@ -123,12 +123,13 @@ public class VehicleResourceIntegrationTest {
                         .content(objectMapper.writeValueAsString(vehicleDTO)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.message").value("Veículo criado com sucesso!"))
-                .andExpect(jsonPath("$.data.plate").value("NEW-001"));
+                .andExpect(jsonPath("$.data.plate").value("NEW-001"))
+                .andExpect(jsonPath("$.data.dailyValueCents").value(25_000));
     }
 
     @Test
     void shouldReturnForbiddenWhenCreatingVehicleAsClient() throws Exception {
-        VehicleDTO vehicleDTO = new VehicleDTO("FAIL-001", "Fail Brand", "Fail Model", "2025", "Red", "Desc", "", 250.0);
+        VehicleDTO vehicleDTO = new VehicleDTO("FAIL-001", "Fail Brand", "Fail Model", "2025", "Red", "Desc", "", 25_000);
 
         mockMvc.perform(post("/vehicle")
                         .header("Authorization", "Bearer " + clientToken)
@@ -160,7 +161,7 @@ public class VehicleResourceIntegrationTest {
         vehicle.setYear("2023");
         vehicle = vehicleRepository.save(vehicle);
 
-        VehicleDTO updateDTO = new VehicleDTO("UPD-002", "Updated Brand", "Updated Model", "2024", "Blue", "New Desc", "", 300.0);
+        VehicleDTO updateDTO = new VehicleDTO("UPD-002", "Updated Brand", "Updated Model", "2024", "Blue", "New Desc", "", 30_000);
 
         mockMvc.perform(put("/vehicle/{id}", vehicle.getId())
                         .header("Authorization", "Bearer " + adminToken)
@@ -172,6 +173,38 @@ public class VehicleResourceIntegrationTest {
                 .andExpect(jsonPath("$.data.year").value("2024"));
     }
 
+    @Test
+    void shouldRejectUpdateWithStaleIfMatch() throws Exception {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setPlate("ETG-001");
+        vehicle.setBrand("ETag Brand");
+        vehicle.setModel("ETag Model");
+        vehicle.setYear("2023");
+        vehicle = vehicleRepository.save(vehicle);
+
+        mockMvc.perform(get("/vehicle/{id}", vehicle.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.version").value(0));
+
+        VehicleDTO updateDTO = new VehicleDTO("ETG-002", "ETag Brand", "ETag Model", "2024", "Blue", "", "", 30_000);
+
+        mockMvc.perform(put("/vehicle/{id}", vehicle.getId())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(put("/vehicle/{id}", vehicle.getId())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void shouldDeleteVehicleAsAdmin() throws Exception {
         Vehicle vehicle = new Vehicle();
@@ -195,7 +228,7 @@ public class VehicleResourceIntegrationTest {
 
     @Test
     void shouldReturnUnauthorizedForPostWithoutToken() throws Exception {
-        VehicleDTO vehicleDTO = new VehicleDTO("UNAUTH-001", "Unauth Brand", "Unauth Model", "2025", "Red", "Desc", "", 250.0);
+        VehicleDTO vehicleDTO = new VehicleDTO("UNAUTH-001", "Unauth Brand", "Unauth Model", "2025", "Red", "Desc", "", 25_000);
         mockMvc.perform(post("/vehicle")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(vehicleDTO)))
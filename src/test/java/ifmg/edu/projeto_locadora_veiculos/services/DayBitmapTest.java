@@ -0,0 +1,88 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DayBitmapTest {
+
+    private static DayBitmap range(long first, long last) {
+        return DayBitmap.builder().addRange(first, last).build();
+    }
+
+    @Test
+    void shouldFillWholeBlock() {
+        DayBitmap block = range(64, 127);
+        assertEquals(64, block.cardinality());
+        assertTrue(block.contains(64));
+        assertTrue(block.contains(127));
+        assertFalse(block.contains(63));
+        assertFalse(block.contains(128));
+    }
+
+    @Test
+    void shouldSplitRangeAcrossBlockEdges() {
+        DayBitmap days = range(60, 130);
+        assertEquals(71, days.cardinality());
+        assertTrue(days.contains(60));
+        assertTrue(days.contains(63));
+        assertTrue(days.contains(64));
+        assertTrue(days.contains(128));
+        assertTrue(days.contains(130));
+        assertFalse(days.contains(59));
+        assertFalse(days.contains(131));
+    }
+
+    @Test
+    void shouldHandleSingleDaysAndDaysBeforeEpoch() {
+        assertEquals(1, range(63, 63).cardinality());
+        assertEquals(1, range(64, 64).cardinality());
+
+        DayBitmap aroundEpoch = range(-3, 2);
+        assertEquals(6, aroundEpoch.cardinality());
+        assertTrue(aroundEpoch.contains(-3));
+        assertTrue(aroundEpoch.contains(-1));
+        assertTrue(aroundEpoch.contains(0));
+        assertFalse(aroundEpoch.contains(-4));
+        assertFalse(aroundEpoch.contains(3));
+    }
+
+    @Test
+    void shouldIntersectOnlyWhenSomeDayIsShared() {
+        assertFalse(range(63, 63).intersects(range(64, 64)));
+        assertTrue(range(0, 63).intersects(range(63, 63)));
+        assertTrue(range(60, 70).intersects(range(64, 64)));
+        assertFalse(range(0, 63).intersects(range(128, 191)));
+
+        // Mesmo bloco, dias diferentes
+        assertFalse(range(0, 9).intersects(range(10, 20)));
+        assertTrue(range(0, 10).intersects(range(10, 20)));
+    }
+
+    @Test
+    void shouldKeepBlocksSortedWhenAddedOutOfOrder() {
+        DayBitmap.Builder builder = DayBitmap.builder();
+        for (int block = 20; block >= 0; block--) {
+            builder.add(block * 64L + block);
+        }
+        DayBitmap days = builder.build();
+        assertEquals(21, days.cardinality());
+        for (int block = 0; block <= 20; block++) {
+            assertTrue(days.contains(block * 64L + block));
+        }
+        assertTrue(days.intersects(range(20 * 64 + 20, 20 * 64 + 20)));
+        assertFalse(days.intersects(range(20 * 64 + 21, 20 * 64 + 63)));
+    }
+
+    @Test
+    void shouldBuildEmptyBitmap() {
+        DayBitmap empty = DayBitmap.builder().build();
+        assertSame(DayBitmap.EMPTY, empty);
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.intersects(range(0, 1_000)));
+        assertFalse(range(0, 1_000).intersects(empty));
+    }
+}
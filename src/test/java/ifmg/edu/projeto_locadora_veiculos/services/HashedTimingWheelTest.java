@@ -0,0 +1,87 @@
+package ifmg.edu.projeto_locadora_veiculos.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashedTimingWheelTest {
+
+    private static final Instant ORIGIN = Instant.EPOCH;
+
+    // Ticks de 100 ms numa roda de 8 slots: uma volta dura 800 ms
+    private static HashedTimingWheel<String> wheel() {
+        return new HashedTimingWheel<>(100, 8, ORIGIN);
+    }
+
+    private static Instant at(long millis) {
+        return ORIGIN.plusMillis(millis);
+    }
+
+    @Test
+    void shouldNeverExpireBeforeDeadline() {
+        HashedTimingWheel<String> wheel = wheel();
+        wheel.schedule("a", at(250));
+        wheel.schedule("b", at(300));
+
+        assertEquals(List.of(), wheel.advance(at(299)));
+        assertEquals(List.of("a", "b"), wheel.advance(at(300)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldExpirePastDeadlineOnNextTick() {
+        HashedTimingWheel<String> wheel = wheel();
+        wheel.advance(at(500));
+        wheel.schedule("late", at(100));
+
+        assertEquals(List.of(), wheel.advance(at(599)));
+        assertEquals(List.of("late"), wheel.advance(at(600)));
+    }
+
+    @Test
+    void shouldKeepEntryMoreThanOneRotationAwayUntilItsTick() {
+        HashedTimingWheel<String> wheel = wheel();
+        // Tick 10 cai no mesmo slot do tick 2
+        wheel.schedule("far", at(1_000));
+
+        assertEquals(List.of(), wheel.advance(at(250)));
+        assertEquals(List.of(), wheel.advance(at(999)));
+        assertEquals(List.of("far"), wheel.advance(at(1_000)));
+    }
+
+    @Test
+    void shouldExpireEverythingDueWhenAdvancingPastFullRotation() {
+        HashedTimingWheel<String> wheel = wheel();
+        wheel.schedule("a", at(300));
+        wheel.schedule("b", at(1_500));
+        wheel.schedule("c", at(5_000));
+
+        // Vinte ticks de uma vez: cada slot é visitado uma única vez
+        List<String> expired = wheel.advance(at(2_000));
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(List.of("a", "b")));
+        assertEquals(1, wheel.size());
+
+        assertEquals(List.of(), wheel.advance(at(4_999)));
+        assertEquals(List.of("c"), wheel.advance(at(5_000)));
+    }
+
+    @Test
+    void shouldCancelAndReschedule() {
+        HashedTimingWheel<String> wheel = wheel();
+        wheel.schedule("a", at(200));
+        wheel.schedule("b", at(200));
+        assertTrue(wheel.cancel("a"));
+        assertFalse(wheel.cancel("a"));
+
+        wheel.schedule("b", at(900));
+        assertEquals(List.of(), wheel.advance(at(800)));
+        assertEquals(List.of("b"), wheel.advance(at(900)));
+        assertEquals(List.of(), wheel.advance(at(10_000)));
+    }
+}